@@ -8,6 +8,27 @@ const apiClient = axios.create({
   }
 });
 
+// Exchange the stored refresh token for a new token pair.
+// Concurrent callers share one in-flight request, since each refresh token can be used only once.
+// The new access token is announced with a TOKEN_REFRESHED_EVENT so the auth store can stay in sync.
+export const TOKEN_REFRESHED_EVENT = 'auth:token-refreshed';
+let refreshPromise = null;
+export function refreshAccessToken() {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) return Promise.reject(new Error('No refresh token'));
+  if (!refreshPromise) {
+    refreshPromise = axios.post('/api/auth/refresh', { refreshToken })
+      .then(res => {
+        localStorage.setItem('token', res.data.token);
+        localStorage.setItem('refreshToken', res.data.refreshToken);
+        window.dispatchEvent(new CustomEvent(TOKEN_REFRESHED_EVENT, { detail: res.data.token }));
+        return res.data.token;
+      })
+      .finally(() => { refreshPromise = null; });
+  }
+  return refreshPromise;
+}
+
 // Request interceptor: automatically add token
 apiClient.interceptors.request.use(config => {
   const token = localStorage.getItem('token');
@@ -24,7 +45,19 @@ apiClient.interceptors.response.use(
   response => {
     return response;
   },
-  error => {
+  async error => {
+    const original = error.config;
+    // Access tokens are short-lived: try one refresh before giving up
+    if (error.response?.status === 401 && original && !original._retried && !original.url?.startsWith('/auth/')) {
+      original._retried = true;
+      try {
+        const token = await refreshAccessToken();
+        original.headers.Authorization = `Bearer ${token}`;
+        return apiClient(original);
+      } catch (e) {
+        // Fall through to logout
+      }
+    }
     if (error.response?.status === 401) {
       // Token expired or invalid
       if (process.env.NODE_ENV === 'development') {
@@ -33,6 +66,7 @@ apiClient.interceptors.response.use(
       
       // Clean local storage
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       localStorage.removeItem('x25519PrivateKey');
       localStorage.removeItem('ed25519PrivateKey');
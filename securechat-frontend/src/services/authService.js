@@ -7,5 +7,9 @@ export const authService = {
   },
   login(data) { // { username, password }
     return apiClient.post('/auth/login', data);
+  },
+  logout(refreshToken, accessToken) {
+    const config = accessToken ? { headers: { Authorization: `Bearer ${accessToken}` } } : undefined;
+    return apiClient.post('/auth/logout', { refreshToken }, config);
   }
 }; 
\ No newline at end of file
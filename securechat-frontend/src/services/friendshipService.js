@@ -5,8 +5,11 @@ export const friendshipService = {
   getMyFriends() {
     return apiClient.get('/friendships/my-friends');
   },
-  getPendingRequests() {
-    return apiClient.get('/friendships/requests/pending');
+  getPendingRequests(cursor, limit = 50) {
+    return apiClient.get('/friendships/requests/pending', { params: { cursor, limit } });
+  },
+  getPendingRequestCount() {
+    return apiClient.get('/friendships/requests/pending/count');
   },
   sendRequest(addresseeUsername) {
     return apiClient.post('/friendships/requests', { addresseeUsername });
@@ -5,6 +5,7 @@ import { authService } from '@/services/authService'
 import { userService } from '@/services/userService'
 import sodium from 'libsodium-wrappers'
 import { exportPrivateKeysToFile } from '@/utils/keyExport'
+import { TOKEN_REFRESHED_EVENT } from '@/services/api'
 
 export const useAuthStore = defineStore('auth', () => {
   const token = ref(localStorage.getItem('token'))
@@ -15,12 +16,22 @@ export const useAuthStore = defineStore('auth', () => {
 
   const isAuthenticated = computed(() => !!token.value && !!user.value)
 
+  // api.js renews the access token on its own; keep the store's copy current
+  window.addEventListener(TOKEN_REFRESHED_EVENT, (event) => {
+    token.value = event.detail
+  })
+
   function setToken(newToken) {
     if (newToken) localStorage.setItem('token', newToken)
     else localStorage.removeItem('token')
     token.value = newToken
   }
 
+  function setRefreshToken(newToken) {
+    if (newToken) localStorage.setItem('refreshToken', newToken)
+    else localStorage.removeItem('refreshToken')
+  }
+
   function setUser(newUser) {
     if (newUser) localStorage.setItem('user', JSON.stringify(newUser))
     else localStorage.removeItem('user')
@@ -45,6 +56,7 @@ export const useAuthStore = defineStore('auth', () => {
       const registerRes = await authService.register({ username, password, nickname })
       const jwt = registerRes.data.token
       setToken(jwt)
+      setRefreshToken(registerRes.data.refreshToken)
     // 2. Get user information
       const userInfoRes = await userService.getMe()
       setUser(userInfoRes.data)
@@ -64,8 +76,9 @@ export const useAuthStore = defineStore('auth', () => {
     try {
       // 1. Login and get token
       const res = await authService.login({ username, password });
-      const { token: jwt } = res.data;
+      const { token: jwt, refreshToken } = res.data;
       setToken(jwt);
+      setRefreshToken(refreshToken);
       // 2. Get user information
       const userInfoRes = await userService.getMe();
       setUser(userInfoRes.data);
@@ -95,14 +108,24 @@ export const useAuthStore = defineStore('auth', () => {
       exportPrivateKeysToFile(exportObj, user.value?.username);
     }
 
+    // Revoke the session server-side; local cleanup proceeds even if this fails.
+    // The access token is captured now because the request interceptor runs after the cleanup below.
+    const refreshToken = localStorage.getItem('refreshToken')
+    const accessToken = localStorage.getItem('token')
+    const revocation = refreshToken
+      ? authService.logout(refreshToken, accessToken).catch(() => {})
+      : Promise.resolve()
+
     // Clean all authentication-related data
     setToken(null)
+    setRefreshToken(null)
     setUser(null)
     setX25519PrivateKey(null)
     setEd25519PrivateKey(null)
     
     // Clean other potentially existing authentication-related data
     localStorage.removeItem('token')
+    localStorage.removeItem('refreshToken')
     localStorage.removeItem('user')
     localStorage.removeItem('x25519PrivateKey')
     localStorage.removeItem('ed25519PrivateKey')
@@ -110,17 +133,20 @@ export const useAuthStore = defineStore('auth', () => {
     // Clean sessionStorage related data
     sessionStorage.removeItem('token')
     sessionStorage.removeItem('user')
-    
+
+    await revocation
     return true; // Successfully logged out, return true
   }
 
-  // Check if token is expired
+  // Check if the session is expired.
+  // Access tokens are short-lived and renewed on demand, so the refresh token's expiry decides when available.
   function isTokenExpired() {
     if (!token.value) return true;
+    const sessionToken = localStorage.getItem('refreshToken') || token.value;
     
     try {
       // Parse JWT token to get expiration time
-      const payload = JSON.parse(atob(token.value.split('.')[1]));
+      const payload = JSON.parse(atob(sessionToken.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')));
       const expirationTime = payload.exp * 1000; // Convert to milliseconds
       const currentTime = Date.now();
       
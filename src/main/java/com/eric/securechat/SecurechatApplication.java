@@ -1,15 +1,29 @@
 package com.eric.securechat;
 
+import com.eric.securechat.chat.config.WebSocketCompressionProperties;
+import com.eric.securechat.chat.config.WebSocketReplayProperties;
+import com.eric.securechat.chat.config.WebSocketTransportProperties;
+import com.eric.securechat.common.config.JwtSigningProperties;
+import com.eric.securechat.common.config.PasswordHashingProperties;
+import com.eric.securechat.common.config.RateLimitProperties;
 import com.eric.securechat.file.config.FileStorageProperties;
 import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableConfigurationProperties({
-        FileStorageProperties.class
+        FileStorageProperties.class,
+        WebSocketTransportProperties.class,
+        WebSocketCompressionProperties.class,
+        WebSocketReplayProperties.class,
+        PasswordHashingProperties.class,
+        RateLimitProperties.class,
+        JwtSigningProperties.class
 
 })
 public class SecurechatApplication {
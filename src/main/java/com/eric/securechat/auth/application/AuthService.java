@@ -2,15 +2,22 @@ package com.eric.securechat.auth.application;
 
 import com.eric.securechat.auth.dto.AuthResponse;
 import com.eric.securechat.auth.dto.LoginRequest;
+import com.eric.securechat.auth.dto.RefreshTokenRequest;
 import com.eric.securechat.auth.dto.RegisterRequest;
+import com.eric.securechat.user.application.UserService;
 import com.eric.securechat.user.domain.User;
+import com.eric.securechat.user.domain.UserIdentity;
 import com.eric.securechat.user.repository.UserRepository;
+import com.eric.securechat.common.exception.PasswordHashingRejectedException;
+import com.eric.securechat.common.security.AuthenticatedUser;
 import com.eric.securechat.common.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
@@ -19,14 +26,16 @@ import org.slf4j.LoggerFactory;
 /**
  * Service for handling user authentication operations including registration and login.
  * Provides secure user registration with automatic JWT token generation and login functionality.
+ * Every successful authentication returns an access/refresh token pair; refresh tokens are rotated on use.
  */
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
@@ -34,48 +43,34 @@ public class AuthService {
      * Constructor for AuthService.
      * 
      * @param userRepository Repository for user data operations
-     * @param passwordEncoder Service for password encryption
+     * @param userService Service creating user accounts
      * @param jwtService Service for JWT token operations
      * @param authenticationManager Spring Security authentication manager
+     * @param tokenRevocationService Revocation list for rotated and logged-out tokens
      */
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, UserService userService, JwtService jwtService,
+                       AuthenticationManager authenticationManager, TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.userService = userService;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
      * Registers a new user and generates a JWT token for immediate authentication.
-     * Validates username uniqueness and handles optional nickname assignment.
+     * Registration itself is a single insert-on-conflict round trip, see {@link UserService#registerUser}.
      * 
      * @param request The registration request containing user credentials
      * @return AuthResponse containing the generated JWT token
      * @throws IllegalStateException if username is already taken
      */
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.findByUsername(request.username()).isPresent()) {
-            throw new IllegalStateException("Error: Username is already taken!");
-        }
-
-        User newUser = new User();
-        newUser.setUsername(request.username());
-        newUser.setPassword(passwordEncoder.encode(request.password()));
-
-        String nickname = request.nickname();
-        if (nickname == null || nickname.trim().isEmpty()) {
-            newUser.setNickname(request.username());
-        } else {
-            newUser.setNickname(nickname.trim());
-        }
+        UserIdentity newUser = userService.registerUser(request);
 
-        userRepository.save(newUser);
+        logger.info("User '{}' registered successfully.", newUser.username());
 
-        String jwtToken = jwtService.generateToken(newUser);
-
-        logger.info("User '{}' registered successfully.", newUser.getUsername());
-
-        return new AuthResponse(jwtToken);
+        return issueTokens(new AuthenticatedUser(newUser.id(), newUser.username()));
     }
 
     /**
@@ -85,6 +80,7 @@ public class AuthService {
      * @param request The login request containing username and password
      * @return AuthResponse containing the generated JWT token
      * @throws BadCredentialsException if authentication fails
+     * @throws PasswordHashingRejectedException if password hashing is saturated
      */
     public AuthResponse login(LoginRequest request) {
         try {
@@ -101,15 +97,80 @@ public class AuthService {
                         return new IllegalStateException("User not found after authentication. Data inconsistency.");
                     });
 
-            String jwtToken = jwtService.generateToken(user);
             logger.info("User '{}' logged in successfully.", user.getUsername());
-            return new AuthResponse(jwtToken);
+            return issueTokens(user);
 
         } catch (AuthenticationException e) {
+            // PasswordHashingRejectedException is not an AuthenticationException: thrown by the password check
+            // or by the unknown-user timing check, it passes through the provider unwrapped and maps to 429
             logger.warn("Failed login attempt for username '{}'. Reason: {}",
                     request.username(), e.getMessage());
 
             throw new BadCredentialsException("Invalid username or password");
         }
     }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh token pair.
+     * The presented refresh token is revoked, so each one can be used only once.
+     * 
+     * @param request The request containing the refresh token
+     * @return AuthResponse containing the new token pair
+     * @throws BadCredentialsException if the refresh token is invalid, expired, revoked or already used
+     */
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        Claims claims;
+        try {
+            claims = jwtService.validateRefreshToken(request.refreshToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Rejected refresh token. Reason: {}", e.getMessage());
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        if (!tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant())) {
+            logger.warn("Refresh token of user '{}' was used twice.", claims.getSubject());
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        User user = userRepository.findByUsername(claims.getSubject())
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        return issueTokens(user);
+    }
+
+    /**
+     * Ends a session by revoking its refresh token and, if given, its access token.
+     * Invalid or already revoked tokens are ignored.
+     * 
+     * @param request The request containing the refresh token
+     * @param accessToken The current access token, may be null
+     */
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        try {
+            Claims claims = jwtService.validateRefreshToken(request.refreshToken());
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+            if (accessToken != null) {
+                String jti = jwtService.extractClaim(accessToken, Claims::getId);
+                if (jti != null) {
+                    tokenRevocationService.revoke(jti, jwtService.extractClaim(accessToken, Claims::getExpiration).toInstant());
+                }
+            }
+            logger.info("User '{}' logged out.", claims.getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Ignoring logout with invalid token. Reason: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Issues an access/refresh token pair for a user.
+     * 
+     * @param user The authenticated user
+     * @return AuthResponse containing both tokens
+     */
+    private AuthResponse issueTokens(UserDetails user) {
+        return new AuthResponse(
+                jwtService.generateToken(user),
+                jwtService.generateRefreshToken(user),
+                jwtService.getAccessTokenTtl().toSeconds()
+        );
+    }
 }
@@ -0,0 +1,166 @@
+package com.eric.securechat.auth.application;
+
+import com.eric.securechat.auth.domain.RevokedToken;
+import com.eric.securechat.auth.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory revocation list for JWT ids (jti).
+ * Revocations are persisted and loaded back at startup; lookups never touch the database.
+ * A Bloom filter answers the common "not revoked" case with a few bit probes, and only
+ * its positives are confirmed against the exact set, so false positives never reject a valid token.
+ * Entries are dropped once the revoked token has expired, and the filter is rebuilt at the same time.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int bloomBits;
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+    private volatile AtomicLongArray bloom;
+
+    /**
+     * Constructor for TokenRevocationService.
+     *
+     * @param revokedTokenRepository Repository persisting revocations
+     * @param expectedRevocations Number of live revocations the filter is sized for at a 1% false positive rate
+     */
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.revocation.expected-entries:100000}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        // m = -n ln(p) / (ln 2)^2 with p = 0.01, rounded up to whole words
+        long bits = (long) Math.ceil(-expectedRevocations * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+        this.bloomBits = (int) Math.max(64, (bits + 63) / 64 * 64);
+        this.bloom = new AtomicLongArray(bloomBits / 64);
+    }
+
+    /**
+     * Loads revocations of unexpired tokens from the database.
+     */
+    @PostConstruct
+    void load() {
+        for (RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(Instant.now())) {
+            revokedUntil.put(revoked.getJti(), revoked.getExpiresAt().toEpochMilli());
+        }
+        rebuildBloom();
+        logger.info("Loaded {} token revocations.", revokedUntil.size());
+    }
+
+    /**
+     * Checks whether a token id has been revoked.
+     *
+     * @param jti The JWT id, may be null for tokens issued without one
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !mightContain(bloom, jti)) {
+            return false;
+        }
+        return revokedUntil.containsKey(jti);
+    }
+
+    /**
+     * Revokes a token id until the token expires.
+     *
+     * @param jti The JWT id
+     * @param expiresAt When the token expires
+     * @return true if this call revoked the token, false if it was already revoked
+     */
+    public boolean revoke(String jti, Instant expiresAt) {
+        if (revokedUntil.putIfAbsent(jti, expiresAt.toEpochMilli()) != null) {
+            return false;
+        }
+        addToBloom(bloom, jti);
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        return true;
+    }
+
+    /**
+     * Drops revocations of expired tokens from memory and the database and rebuilds the filter.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT1H}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedUntil.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildBloom();
+        int deleted = revokedTokenRepository.deleteExpired(Instant.ofEpochMilli(now));
+        logger.debug("Purged {} expired token revocations.", deleted);
+    }
+
+    /**
+     * Rebuilds the Bloom filter from the exact set and swaps it in.
+     */
+    private void rebuildBloom() {
+        AtomicLongArray rebuilt = new AtomicLongArray(bloomBits / 64);
+        for (String jti : revokedUntil.keySet()) {
+            addToBloom(rebuilt, jti);
+        }
+        bloom = rebuilt;
+        // Revocations added while rebuilding may have gone to the old array
+        for (String jti : revokedUntil.keySet()) {
+            addToBloom(rebuilt, jti);
+        }
+    }
+
+    private void addToBloom(AtomicLongArray filter, String jti) {
+        long[] hashes = hashes(jti);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = bitIndex(hashes, i);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = filter.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!filter.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray filter, String jti) {
+        long[] hashes = hashes(jti);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = bitIndex(hashes, i);
+            if ((filter.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Derives the i-th probe position by double hashing (h1 + i * h2).
+     */
+    private int bitIndex(long[] hashes, int i) {
+        return (int) Math.floorMod(hashes[0] + i * hashes[1], (long) bloomBits);
+    }
+
+    /**
+     * Token ids are random UUIDs, so their two halves are already well-mixed hashes.
+     */
+    private static long[] hashes(String jti) {
+        try {
+            UUID uuid = UUID.fromString(jti);
+            return new long[]{uuid.getMostSignificantBits(), uuid.getLeastSignificantBits() | 1};
+        } catch (IllegalArgumentException e) {
+            long h = jti.hashCode() * 0x9E3779B97F4A7C15L;
+            return new long[]{h, Long.rotateLeft(h, 31) * 0xBF58476D1CE4E5B9L | 1};
+        }
+    }
+}
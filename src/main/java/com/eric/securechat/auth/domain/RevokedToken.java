@@ -0,0 +1,71 @@
+package com.eric.securechat.auth.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Revoked token entity recording a JWT id (jti) that must no longer be accepted.
+ * Rows are only needed until the token would have expired anyway and are purged after that.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+
+    /**
+     * The JWT id of the revoked token.
+     */
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    /**
+     * When the revoked token expires.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * When the token was revoked.
+     */
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private Instant revokedAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected RevokedToken() {
+    }
+
+    /**
+     * Constructor for RevokedToken.
+     *
+     * @param jti The JWT id of the revoked token
+     * @param expiresAt When the revoked token expires
+     */
+    public RevokedToken(String jti, Instant expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Sets the revocation timestamp before persisting the entity.
+     */
+    @PrePersist
+    protected void onCreate() {
+        revokedAt = Instant.now();
+    }
+
+    // Getters
+
+    public String getJti() {
+        return jti;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
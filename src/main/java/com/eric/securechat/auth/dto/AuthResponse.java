@@ -2,7 +2,8 @@ package com.eric.securechat.auth.dto;
 
 /**
  * Response DTO for authentication operations.
- * Contains the JWT token for successful authentication.
+ * Contains the short-lived access token, the refresh token used to renew it,
+ * and the access token lifetime in seconds.
  */
-public record AuthResponse(String token) {
+public record AuthResponse(String token, String refreshToken, long expiresIn) {
 }
@@ -0,0 +1,9 @@
+package com.eric.securechat.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Request DTO carrying a refresh token, used to renew or revoke a session.
+ */
+public record RefreshTokenRequest(@NotBlank String refreshToken) {
+}
@@ -2,6 +2,7 @@ package com.eric.securechat.auth.web;
 
 import com.eric.securechat.auth.dto.AuthResponse;
 import com.eric.securechat.auth.dto.LoginRequest;
+import com.eric.securechat.auth.dto.RefreshTokenRequest;
 import com.eric.securechat.auth.dto.RegisterRequest;
 import com.eric.securechat.auth.application.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,15 +12,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
  * REST Controller for handling user authentication operations.
- * Provides endpoints for user registration and login functionality.
+ * Provides endpoints for user registration, login, token refresh and logout.
  * All endpoints are accessible under the /api/auth base path.
  */
 @Tag(name = "Authentication", description = "User registration, login and authentication operations")
@@ -52,7 +55,8 @@ public class AuthController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = AuthResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
-            @ApiResponse(responseCode = "409", description = "Username already exists")
+            @ApiResponse(responseCode = "409", description = "Username already exists"),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent authentication requests")
     })
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -72,10 +76,50 @@ public class AuthController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = AuthResponse.class))),
             @ApiResponse(responseCode = "401", description = "Invalid username or password"),
-            @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent authentication requests")
     })
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
         return ResponseEntity.ok(authService.login(request));
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint for renewing an access token.
+     * Exchanges a refresh token for a new access/refresh token pair; the old refresh token stops working.
+     * 
+     * @param request The request containing the refresh token
+     * @return ResponseEntity containing the authentication response with the new token pair
+     */
+    @Operation(summary = "Refresh Token", description = "Exchange a refresh token for a new access/refresh token pair")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AuthResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Refresh token invalid, expired or already used")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    /**
+     * Endpoint for logging out.
+     * Revokes the refresh token and the access token sent in the Authorization header, if any.
+     * 
+     * @param request The request containing the refresh token
+     * @param authorization The Authorization header, may be absent
+     * @return ResponseEntity with 204 No Content status
+     */
+    @Operation(summary = "Logout", description = "Revoke the refresh token and the current access token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Logged out")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+}
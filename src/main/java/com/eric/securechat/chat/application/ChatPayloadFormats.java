@@ -0,0 +1,96 @@
+package com.eric.securechat.chat.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the payload format each STOMP session negotiated on CONNECT.
+ * A client opts into CBOR by sending a {@code payload-format:cbor} header in its CONNECT frame;
+ * every other session keeps receiving JSON.
+ */
+@Component
+public class ChatPayloadFormats {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatPayloadFormats.class);
+
+    /**
+     * STOMP CONNECT header used to negotiate the payload format.
+     */
+    public static final String PAYLOAD_FORMAT_HEADER = "payload-format";
+
+    /**
+     * Payload formats a session can negotiate.
+     */
+    public enum PayloadFormat {
+        JSON, CBOR
+    }
+
+    private final Map<String, Map<String, PayloadFormat>> formatsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Records the payload format requested in a CONNECT frame.
+     *
+     * @param event The session connect event
+     */
+    @EventListener
+    public void onSessionConnect(SessionConnectEvent event) {
+        Principal user = event.getUser();
+        if (user == null) {
+            return;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        PayloadFormat format = "cbor".equalsIgnoreCase(accessor.getFirstNativeHeader(PAYLOAD_FORMAT_HEADER))
+                ? PayloadFormat.CBOR
+                : PayloadFormat.JSON;
+        formatsByUser.computeIfAbsent(user.getName(), name -> new ConcurrentHashMap<>())
+                .put(accessor.getSessionId(), format);
+        logger.debug("Session '{}' of user '{}' negotiated {} payloads.", accessor.getSessionId(), user.getName(), format);
+    }
+
+    /**
+     * Forgets the payload format of a closed session.
+     *
+     * @param event The session disconnect event
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user == null) {
+            return;
+        }
+        formatsByUser.computeIfPresent(user.getName(), (name, sessions) -> {
+            sessions.remove(event.getSessionId());
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Resolves the payload format for messages addressed to a user.
+     * CBOR is only used when every open session of the user negotiated it, since one
+     * conversion is shared by all of the user's sessions.
+     *
+     * @param username The recipient username
+     * @return The format to encode the payload in
+     */
+    public PayloadFormat formatFor(String username) {
+        Map<String, PayloadFormat> sessions = formatsByUser.get(username);
+        if (sessions == null || sessions.isEmpty()) {
+            return PayloadFormat.JSON;
+        }
+        for (PayloadFormat format : sessions.values()) {
+            if (format != PayloadFormat.CBOR) {
+                return PayloadFormat.JSON;
+            }
+        }
+        return PayloadFormat.CBOR;
+    }
+}
@@ -0,0 +1,155 @@
+package com.eric.securechat.chat.application;
+
+import com.eric.securechat.chat.config.WebSocketReplayProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user ring buffer of recent WebSocket pushes, used to replay what a client missed while reconnecting.
+ * Every push gets a sequence number that is strictly increasing per user and derived from the wall clock
+ * (milliseconds * 1000 plus a counter), so sequences survive restarts and double as a timestamp for the
+ * database fallback once the buffer no longer covers a gap.
+ */
+@Component
+public class ReplayBuffer {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    /**
+     * A recorded push.
+     *
+     * @param sequence The sequence number sent to the client
+     * @param destination The user destination the payload was sent to
+     * @param payload The payload before conversion
+     * @param recordedAtMillis When the push was recorded
+     */
+    public record Entry(long sequence, String destination, Object payload, long recordedAtMillis) {
+    }
+
+    /**
+     * Result of a replay lookup.
+     *
+     * @param entries Buffered pushes newer than the client's last sequence, oldest first
+     * @param complete Whether the buffer still covered the whole gap
+     */
+    public record Replay(List<Entry> entries, boolean complete) {
+    }
+
+    private final WebSocketReplayProperties properties;
+    private final Map<String, UserLog> logs = new ConcurrentHashMap<>();
+    private final AtomicInteger recordsSinceSweep = new AtomicInteger();
+
+    /**
+     * Constructor for ReplayBuffer.
+     *
+     * @param properties Buffer capacity and retention settings
+     */
+    public ReplayBuffer(WebSocketReplayProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Records a push and assigns its sequence number.
+     *
+     * @param username The recipient username
+     * @param destination The user destination
+     * @param payload The payload before conversion
+     * @return The sequence number of the push
+     */
+    public long record(String username, String destination, Object payload) {
+        if (recordsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            recordsSinceSweep.set(0);
+            sweepIdleLogs();
+        }
+        return logs.computeIfAbsent(username, name -> new UserLog(properties.getCapacity()))
+                .append(destination, payload);
+    }
+
+    /**
+     * Collects the pushes to a destination that a client has not seen yet.
+     *
+     * @param username The recipient username
+     * @param destination The user destination the client subscribed to
+     * @param lastSeenSequence The last sequence the client reported in its CONNECT frame
+     * @return The buffered pushes after the given sequence and whether they cover the whole gap
+     */
+    public Replay since(String username, String destination, long lastSeenSequence) {
+        UserLog log = logs.get(username);
+        if (log == null) {
+            return new Replay(List.of(), false);
+        }
+        long oldestRetained = System.currentTimeMillis() - properties.getRetention().toMillis();
+        return log.since(destination, lastSeenSequence, oldestRetained);
+    }
+
+    /**
+     * Converts a sequence number back to the wall-clock millisecond it was issued in.
+     *
+     * @param sequence A sequence number issued by this buffer
+     * @return Epoch milliseconds
+     */
+    public static long toEpochMillis(long sequence) {
+        return sequence / 1000;
+    }
+
+    /**
+     * Drops logs of users that have not received anything within the retention window.
+     */
+    private void sweepIdleLogs() {
+        long cutoff = System.currentTimeMillis() - properties.getRetention().toMillis();
+        logs.entrySet().removeIf(entry -> entry.getValue().lastRecordedAt() < cutoff);
+    }
+
+    /**
+     * Fixed-size ring of one user's pushes.
+     */
+    private static final class UserLog {
+
+        private final Entry[] ring;
+        private long written;
+        private long lastSequence;
+
+        UserLog(int capacity) {
+            this.ring = new Entry[capacity];
+        }
+
+        synchronized long append(String destination, Object payload) {
+            long now = System.currentTimeMillis();
+            long sequence = Math.max(lastSequence + 1, now * 1000);
+            ring[(int) (written % ring.length)] = new Entry(sequence, destination, payload, now);
+            written++;
+            lastSequence = sequence;
+            return sequence;
+        }
+
+        synchronized Replay since(String destination, long lastSeenSequence, long oldestRetained) {
+            if (lastSeenSequence >= lastSequence) {
+                return new Replay(List.of(), true);
+            }
+            List<Entry> entries = new ArrayList<>();
+            // The gap is covered only if the client's last push is still buffered and nothing after it expired
+            boolean lastSeenBuffered = false;
+            boolean expiredInGap = false;
+            for (long i = Math.max(0, written - ring.length); i < written; i++) {
+                Entry entry = ring[(int) (i % ring.length)];
+                if (entry.sequence() <= lastSeenSequence) {
+                    lastSeenBuffered = true;
+                } else if (entry.recordedAtMillis() < oldestRetained) {
+                    expiredInGap = true;
+                } else if (entry.destination().equals(destination)) {
+                    entries.add(entry);
+                }
+            }
+            return new Replay(entries, lastSeenBuffered && !expiredInGap);
+        }
+
+        synchronized long lastRecordedAt() {
+            return written == 0 ? 0 : ring[(int) ((written - 1) % ring.length)].recordedAtMillis();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.eric.securechat.chat.application;
+
+import com.eric.securechat.chat.config.WebSocketReplayProperties;
+import com.eric.securechat.message.domain.Message;
+import com.eric.securechat.message.dto.MessageResponse;
+import com.eric.securechat.message.repository.MessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays missed pushes to a reconnecting STOMP session.
+ * A client sends the last sequence number it saw in a {@code last-seq} CONNECT header. Once it
+ * subscribes to a user destination, the pushes it missed on that destination are re-sent to that
+ * session only, from the in-memory {@link ReplayBuffer} when it still covers the gap, or from the
+ * database for the private message queue when it does not.
+ */
+@Component
+public class SessionResumeInterceptor implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionResumeInterceptor.class);
+
+    /**
+     * STOMP CONNECT header carrying the last sequence number the client received.
+     */
+    public static final String LAST_SEQUENCE_HEADER = "last-seq";
+
+    private static final String LAST_SEQUENCE_ATTRIBUTE = "chat.lastSeenSequence";
+    private static final String USER_DESTINATION_PREFIX = "/user";
+
+    /**
+     * Messages persisted shortly before the last push the client saw may have been pushed after it,
+     * so the database fallback looks back this far. Clients de-duplicate by message id.
+     */
+    private static final long DATABASE_FALLBACK_MARGIN_MILLIS = 1000;
+
+    private final ReplayBuffer replayBuffer;
+    private final WebSocketService webSocketService;
+    private final MessageRepository messageRepository;
+    private final WebSocketReplayProperties properties;
+
+    /**
+     * Constructor for SessionResumeInterceptor.
+     *
+     * @param replayBuffer Ring buffer of recent pushes
+     * @param webSocketService Service used to re-send pushes (lazy, it depends on the broker configuration)
+     * @param messageRepository Repository for the database fallback
+     * @param properties Replay settings
+     */
+    public SessionResumeInterceptor(ReplayBuffer replayBuffer, @Lazy WebSocketService webSocketService,
+                                    MessageRepository messageRepository, WebSocketReplayProperties properties) {
+        this.replayBuffer = replayBuffer;
+        this.webSocketService = webSocketService;
+        this.messageRepository = messageRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Remembers the last sequence a client reported when it connects.
+     *
+     * @param message The inbound message
+     * @param channel The client inbound channel
+     * @return The unchanged message
+     */
+    @Override
+    public org.springframework.messaging.Message<?> preSend(@NonNull org.springframework.messaging.Message<?> message,
+                                                             @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String lastSequence = accessor.getFirstNativeHeader(LAST_SEQUENCE_HEADER);
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (lastSequence != null && attributes != null) {
+            try {
+                attributes.put(LAST_SEQUENCE_ATTRIBUTE, Long.parseLong(lastSequence.trim()));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed {} header '{}' on session '{}'.", LAST_SEQUENCE_HEADER, lastSequence, accessor.getSessionId());
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Replays missed pushes once a user-destination subscription has been registered with the broker.
+     *
+     * @param message The inbound message
+     * @param channel The client inbound channel
+     * @param handler The handler that processed the message
+     * @param ex Exception raised by the handler, if any
+     */
+    @Override
+    public void afterMessageHandled(@NonNull org.springframework.messaging.Message<?> message, @NonNull MessageChannel channel,
+                                    @NonNull MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof UserDestinationMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        Principal user = accessor.getUser();
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (accessor.getCommand() != StompCommand.SUBSCRIBE || destination == null || user == null || attributes == null
+                || !destination.startsWith(USER_DESTINATION_PREFIX + "/")
+                || !(attributes.get(LAST_SEQUENCE_ATTRIBUTE) instanceof Long lastSeen)) {
+            return;
+        }
+        replay(user.getName(), accessor.getSessionId(), destination.substring(USER_DESTINATION_PREFIX.length()), lastSeen);
+    }
+
+    /**
+     * Re-sends the pushes a session missed on one destination.
+     *
+     * @param username The reconnecting user
+     * @param sessionId The new session
+     * @param destination The user destination without the /user prefix
+     * @param lastSeen The last sequence the client saw
+     */
+    private void replay(String username, String sessionId, String destination, long lastSeen) {
+        ReplayBuffer.Replay replay = replayBuffer.since(username, destination, lastSeen);
+        if (!replay.complete() && WebSocketService.PRIVATE_QUEUE.equals(destination)) {
+            replayFromDatabase(username, sessionId, lastSeen);
+            return;
+        }
+        for (ReplayBuffer.Entry entry : replay.entries()) {
+            webSocketService.replayToSession(username, sessionId, destination, entry.payload(), entry.sequence());
+        }
+        logger.debug("Replayed {} buffered pushes on '{}' to session '{}' of user '{}'.",
+                replay.entries().size(), destination, sessionId, username);
+    }
+
+    /**
+     * Re-sends persisted messages received since the client's last sequence when the buffer has wrapped.
+     *
+     * @param username The reconnecting user
+     * @param sessionId The new session
+     * @param lastSeen The last sequence the client saw
+     */
+    private void replayFromDatabase(String username, String sessionId, long lastSeen) {
+        Instant since = Instant.ofEpochMilli(ReplayBuffer.toEpochMillis(lastSeen) - DATABASE_FALLBACK_MARGIN_MILLIS);
+        List<Message> messages = messageRepository.findReceivedSince(username, since,
+                PageRequest.of(0, properties.getDatabaseFallbackLimit()));
+        for (Message msg : messages) {
+            MessageResponse response = new MessageResponse(
+                    msg.getId(),
+                    msg.getSender().getUsername(),
+                    msg.getReceiver().getUsername(),
+                    msg.getEncryptedContent(),
+                    msg.getMessageType(),
+                    msg.getTimestamp(),
+                    msg.getFileUrl(),
+                    msg.getOriginalFilename(),
+                    msg.getNonce()
+            );
+            webSocketService.replayToSession(username, sessionId, WebSocketService.PRIVATE_QUEUE, response,
+                    msg.getTimestamp().toEpochMilli() * 1000);
+        }
+        logger.info("Replay buffer no longer covers the gap for user '{}'. Replayed {} messages from the database.",
+                username, messages.size());
+    }
+}
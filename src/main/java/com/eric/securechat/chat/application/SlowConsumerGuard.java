@@ -0,0 +1,275 @@
+package com.eric.securechat.chat.application;
+
+import com.eric.securechat.chat.config.WebSocketTransportProperties;
+import com.eric.securechat.chat.config.WebSocketTransportProperties.SlowConsumerPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Protects the broker from slow WebSocket consumers.
+ * Keeps a bounded queue of outbound MESSAGE frames per session, counted from the moment a frame
+ * enters the client outbound channel until it is written to the socket. When the queue is full
+ * the frame is dropped and, depending on the configured policy, the session is closed.
+ * <p>
+ * The bound is per session rather than per user on purpose: each session has its own socket and
+ * send buffer, so one stalled tab must not drop or disconnect the frames of a user's healthy tabs.
+ * A user with several open sessions can therefore hold that many times the configured budget.
+ */
+@Component
+public class SlowConsumerGuard implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowConsumerGuard.class);
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final WebSocketTransportProperties properties;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, PendingQueue> pendingQueues = new ConcurrentHashMap<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Counter droppedFrames;
+    private final Counter forcedDisconnects;
+
+    /**
+     * Constructor for SlowConsumerGuard.
+     *
+     * @param properties Transport limits and slow-consumer policy
+     * @param meterRegistry Registry for buffer and disconnect metrics
+     */
+    public SlowConsumerGuard(WebSocketTransportProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.droppedFrames = Counter.builder("chat.websocket.slow_consumer.dropped")
+                .description("Outbound frames dropped because the session's pending queue was full")
+                .register(meterRegistry);
+        this.forcedDisconnects = Counter.builder("chat.websocket.slow_consumer.disconnects")
+                .description("Sessions closed because they could not keep up with outbound traffic")
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.outbound.pending.bytes", pendingBytes, AtomicLong::get)
+                .description("Payload bytes queued for WebSocket sessions but not yet written")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.outbound.sessions", sessions, Map::size)
+                .description("Open WebSocket sessions tracked for backpressure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits an outbound MESSAGE frame into its session's pending queue, or drops it when the queue is full.
+     *
+     * @param message The outbound message
+     * @param channel The client outbound channel
+     * @return The message, or null to drop it
+     */
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        PendingQueue queue = sessionId != null ? pendingQueues.get(sessionId) : null;
+        if (queue == null) {
+            return message;
+        }
+
+        int size = payloadSize(message);
+        if (!queue.offer(size, properties.getMaxPendingMessages())) {
+            droppedFrames.increment();
+            onOverflow(sessionId);
+            return null;
+        }
+        pendingBytes.addAndGet(size);
+        return message;
+    }
+
+    /**
+     * Releases the queue slot of a frame that could not be handed to the outbound executor.
+     */
+    @Override
+    public void afterSendCompletion(@NonNull Message<?> message, @NonNull MessageChannel channel, boolean sent, Exception ex) {
+        if (ex == null || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            release(sessionId);
+        }
+    }
+
+    /**
+     * Wraps the STOMP handler so sessions are registered for backpressure tracking.
+     *
+     * @param handler The handler to decorate
+     * @return The decorated handler
+     */
+    @Override
+    @NonNull
+    public WebSocketHandler decorate(@NonNull WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                pendingQueues.put(session.getId(), new PendingQueue());
+                super.afterConnectionEstablished(new WriteTrackingSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                PendingQueue queue = pendingQueues.remove(session.getId());
+                if (queue != null) {
+                    pendingBytes.addAndGet(-queue.bytes.get());
+                }
+                if (closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    forcedDisconnects.increment();
+                    logger.warn("WebSocket session '{}' closed as slow consumer.", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Applies the configured policy to a session whose pending queue is full.
+     *
+     * @param sessionId The session that overflowed
+     */
+    private void onOverflow(String sessionId) {
+        if (properties.getSlowConsumerPolicy() != SlowConsumerPolicy.DISCONNECT) {
+            logger.debug("Dropped outbound frame for slow WebSocket session '{}'.", sessionId);
+            return;
+        }
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            logger.warn("Failed to close slow WebSocket session '{}'.", sessionId, e);
+        }
+    }
+
+    /**
+     * Removes the oldest entry from a session's pending queue.
+     *
+     * @param sessionId The session whose frame was written or discarded
+     */
+    private void release(String sessionId) {
+        PendingQueue queue = pendingQueues.get(sessionId);
+        if (queue != null) {
+            pendingBytes.addAndGet(-queue.poll());
+        }
+    }
+
+    private static int payloadSize(Message<?> message) {
+        Object payload = message.getPayload();
+        if (payload instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (payload instanceof String text) {
+            return text.length();
+        }
+        return 0;
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return text.getPayload().startsWith("MESSAGE\n");
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer buffer = binary.getPayload().duplicate();
+            if (buffer.remaining() < MESSAGE_COMMAND.length) {
+                return false;
+            }
+            for (byte b : MESSAGE_COMMAND) {
+                if (buffer.get() != b) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bounded FIFO of payload sizes for frames that are queued for one session.
+     */
+    private static final class PendingQueue {
+
+        private final Queue<Integer> sizes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+
+        boolean offer(int size, int limit) {
+            int current;
+            do {
+                current = count.get();
+                if (current >= limit) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            sizes.add(size);
+            bytes.addAndGet(size);
+            return true;
+        }
+
+        int poll() {
+            Integer size = sizes.poll();
+            if (size == null) {
+                return 0;
+            }
+            count.decrementAndGet();
+            bytes.addAndGet(-size);
+            return size;
+        }
+    }
+
+    /**
+     * Session wrapper that releases a pending queue slot once a MESSAGE frame reaches the socket.
+     */
+    private final class WriteTrackingSession extends WebSocketSessionDecorator {
+
+        WriteTrackingSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(@NonNull WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                if (isMessageFrame(message)) {
+                    release(getId());
+                }
+            }
+        }
+    }
+}
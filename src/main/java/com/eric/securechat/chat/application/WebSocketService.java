@@ -1,8 +1,13 @@
 package com.eric.securechat.chat.application;
 
+import com.eric.securechat.chat.application.ChatPayloadFormats.PayloadFormat;
+import com.eric.securechat.chat.config.CborPayloadConverter;
 import com.eric.securechat.message.dto.MessageResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -15,15 +20,36 @@ public class WebSocketService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
 
+    /**
+     * User destination that clients subscribe to for incoming messages.
+     */
+    public static final String PRIVATE_QUEUE = "/queue/private";
+
+    /**
+     * STOMP header carrying the per-user sequence number of a push.
+     */
+    public static final String SEQUENCE_HEADER = "seq";
+
+    /**
+     * STOMP header marking a push that is re-sent after a reconnect.
+     */
+    public static final String REPLAYED_HEADER = "replayed";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final ChatPayloadFormats payloadFormats;
+    private final ReplayBuffer replayBuffer;
 
     /**
      * Constructor for WebSocketService.
      * 
      * @param messagingTemplate Template for WebSocket messaging operations
+     * @param payloadFormats Payload formats negotiated by connected sessions
+     * @param replayBuffer Ring buffer of recent pushes for replay on reconnect
      */
-    public WebSocketService(SimpMessagingTemplate messagingTemplate) {
+    public WebSocketService(SimpMessagingTemplate messagingTemplate, ChatPayloadFormats payloadFormats, ReplayBuffer replayBuffer) {
         this.messagingTemplate = messagingTemplate;
+        this.payloadFormats = payloadFormats;
+        this.replayBuffer = replayBuffer;
     }
 
     /**
@@ -34,9 +60,75 @@ public class WebSocketService {
      * @param message The message DTO to send
      */
     public void notifyUser(String username, MessageResponse message) {
-        String destination = "/queue/private";
-        messagingTemplate.convertAndSendToUser(username, destination, message);
+        String destination = PRIVATE_QUEUE;
+        sendToUser(username, destination, message);
 
         logger.info("Sent message via WebSocket to user: '{}' at destination '{}'", username, destination);
     }
+
+    /**
+     * Sends a payload to a user-specific destination in the payload format the user negotiated.
+     * The push is recorded in the replay buffer and carries its sequence number in the "seq" header.
+     *
+     * @param username The username of the recipient
+     * @param destination The user destination, e.g. /queue/private
+     * @param payload The payload to convert and send
+     */
+    public void sendToUser(String username, String destination, Object payload) {
+        long sequence = replayBuffer.record(username, destination, payload);
+        messagingTemplate.convertAndSendToUser(username, destination, payload, buildHeaders(username, sequence, null));
+    }
+
+    /**
+     * Relays a payload to a user destination without recording it for replay.
+     * Used for destinations the shipped client does not subscribe to, so they do not take up replay capacity.
+     *
+     * @param username The username of the recipient
+     * @param destination The user destination
+     * @param payload The payload to convert and send
+     */
+    public void relayToUser(String username, String destination, Object payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (payloadFormats.formatFor(username) == PayloadFormat.CBOR) {
+            accessor.setContentType(CborPayloadConverter.CBOR_MIME_TYPE);
+        }
+        accessor.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(username, destination, payload, accessor.getMessageHeaders());
+    }
+
+    /**
+     * Re-sends a previously pushed payload to a single session of a user.
+     * Replayed pushes are not recorded again and are marked with the "replayed" header.
+     *
+     * @param username The username of the recipient
+     * @param sessionId The session that reconnected
+     * @param destination The user destination
+     * @param payload The payload to convert and send
+     * @param sequence The sequence number to send with the payload
+     */
+    public void replayToSession(String username, String sessionId, String destination, Object payload, long sequence) {
+        messagingTemplate.convertAndSendToUser(username, destination, payload, buildHeaders(username, sequence, sessionId));
+    }
+
+    /**
+     * Builds the message headers for a push.
+     *
+     * @param username The recipient username
+     * @param sequence The sequence number of the push
+     * @param sessionId The single session to target, or null for all of the user's sessions
+     * @return Headers for the messaging template
+     */
+    private MessageHeaders buildHeaders(String username, long sequence, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (payloadFormats.formatFor(username) == PayloadFormat.CBOR) {
+            accessor.setContentType(CborPayloadConverter.CBOR_MIME_TYPE);
+        }
+        accessor.setNativeHeader(SEQUENCE_HEADER, Long.toString(sequence));
+        if (sessionId != null) {
+            accessor.setSessionId(sessionId);
+            accessor.setNativeHeader(REPLAYED_HEADER, "true");
+        }
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
 }
@@ -0,0 +1,170 @@
+package com.eric.securechat.chat.config;
+
+import com.eric.securechat.chat.domain.ChatMessage;
+import com.eric.securechat.message.dto.MessageResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * STOMP message converter that encodes chat payloads as CBOR.
+ * Ciphertext and nonce fields, which are base64url strings in JSON, travel as raw CBOR byte strings.
+ * Only used when a message carries the CBOR content type, including its {@code format=cbor} parameter,
+ * so JSON stays the default and other binary frames are left alone.
+ */
+public class CborPayloadConverter extends MappingJackson2MessageConverter {
+
+    private static final String FORMAT_PARAMETER = "format";
+
+    /**
+     * Content type of CBOR frames. The octet-stream base type makes the STOMP handler send binary WebSocket frames.
+     */
+    public static final MimeType CBOR_MIME_TYPE = new MimeType("application", "octet-stream", Map.of(FORMAT_PARAMETER, "cbor"));
+
+    private static final Set<Class<?>> CIPHERTEXT_TYPES = Set.of(MessageResponse.class, ChatMessage.class);
+    private static final Set<String> CIPHERTEXT_FIELDS = Set.of("encryptedContent", "nonce");
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Constructor for CborPayloadConverter.
+     */
+    public CborPayloadConverter() {
+        super(CBOR_MIME_TYPE);
+        setObjectMapper(createObjectMapper());
+        setStrictContentTypeMatch(true);
+    }
+
+    /**
+     * Matches only the CBOR content type. The base implementation compares type and subtype only,
+     * which would claim every octet-stream frame.
+     *
+     * @param headers The message headers
+     * @return true if the message carries the CBOR content type
+     */
+    @Override
+    protected boolean supportsMimeType(@Nullable MessageHeaders headers) {
+        MimeType mimeType = getMimeType(headers);
+        return mimeType != null
+                && CBOR_MIME_TYPE.equalsTypeAndSubtype(mimeType)
+                && CBOR_MIME_TYPE.getParameter(FORMAT_PARAMETER).equalsIgnoreCase(mimeType.getParameter(FORMAT_PARAMETER));
+    }
+
+    /**
+     * Creates the CBOR object mapper used for chat payloads.
+     *
+     * @return ObjectMapper backed by a CBOR factory
+     */
+    public static ObjectMapper createObjectMapper() {
+        return Jackson2ObjectMapperBuilder.cbor()
+                .modulesToInstall(ciphertextModule())
+                .build();
+    }
+
+    /**
+     * Builds a module that swaps the ciphertext fields of chat DTOs to raw byte strings.
+     *
+     * @return Jackson module for ciphertext fields
+     */
+    private static SimpleModule ciphertextModule() {
+        SimpleModule module = new SimpleModule("ChatCiphertextModule");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                if (!CIPHERTEXT_TYPES.contains(beanDesc.getBeanClass())) {
+                    return beanProperties;
+                }
+                List<BeanPropertyWriter> properties = new ArrayList<>(beanProperties.size());
+                for (BeanPropertyWriter writer : beanProperties) {
+                    if (CIPHERTEXT_FIELDS.contains(writer.getName())) {
+                        writer.assignSerializer(new Base64UrlBinarySerializer());
+                    }
+                    properties.add(writer);
+                }
+                return properties;
+            }
+        });
+        module.setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                                                         BeanDeserializerBuilder builder) {
+                if (!CIPHERTEXT_TYPES.contains(beanDesc.getBeanClass())) {
+                    return builder;
+                }
+                List<SettableBeanProperty> properties = new ArrayList<>();
+                builder.getProperties().forEachRemaining(properties::add);
+                for (SettableBeanProperty property : properties) {
+                    if (CIPHERTEXT_FIELDS.contains(property.getName())) {
+                        builder.addOrReplaceProperty(property.withValueDeserializer(new Base64UrlBinaryDeserializer()), true);
+                    }
+                }
+                return builder;
+            }
+        });
+        return module;
+    }
+
+    /**
+     * Writes a base64url string as a raw byte string.
+     * Falls back to text when the value is not canonical unpadded base64url, so decoding is always lossless.
+     */
+    private static final class Base64UrlBinarySerializer extends JsonSerializer<Object> {
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            String text = value.toString();
+            byte[] bytes;
+            try {
+                bytes = Base64.getUrlDecoder().decode(text);
+            } catch (IllegalArgumentException e) {
+                generator.writeString(text);
+                return;
+            }
+            if (!BASE64_URL.encodeToString(bytes).equals(text)) {
+                generator.writeString(text);
+                return;
+            }
+            generator.writeBinary(bytes);
+        }
+    }
+
+    /**
+     * Reads a raw byte string back into the unpadded base64url form used by the rest of the application.
+     */
+    private static final class Base64UrlBinaryDeserializer extends JsonDeserializer<String> {
+
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return parser.getText();
+            }
+            return BASE64_URL.encodeToString(parser.getBinaryValue());
+        }
+    }
+}
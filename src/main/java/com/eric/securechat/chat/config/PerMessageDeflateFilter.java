@@ -0,0 +1,135 @@
+package com.eric.securechat.chat.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Applies the server's permessage-deflate settings to WebSocket upgrade requests on /ws.
+ * The servlet container negotiates extensions from the client's Sec-WebSocket-Extensions offer,
+ * so the offer is rewritten before the handshake: the extension is removed when compression is
+ * disabled, and no-context-takeover parameters are added when configured.
+ */
+@Component
+public class PerMessageDeflateFilter extends OncePerRequestFilter {
+
+    private static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+
+    private final WebSocketCompressionProperties properties;
+
+    /**
+     * Constructor for PerMessageDeflateFilter.
+     *
+     * @param properties Compression settings for the /ws endpoint
+     */
+    public PerMessageDeflateFilter(WebSocketCompressionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Only WebSocket upgrade requests that offer extensions are rewritten.
+     *
+     * @param request The current request
+     * @return true if the request is not a WebSocket handshake with an extension offer
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"websocket".equalsIgnoreCase(request.getHeader("Upgrade"))
+                || request.getHeader(EXTENSIONS_HEADER) == null;
+    }
+
+    /**
+     * Wraps the handshake request so the container sees the rewritten extension offer.
+     *
+     * @param request The WebSocket upgrade request
+     * @param response The HTTP response
+     * @param filterChain The filter chain to continue processing
+     * @throws ServletException if servlet processing fails
+     * @throws IOException if I/O operations fail
+     */
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        List<String> offers = new ArrayList<>();
+        for (String header : Collections.list(request.getHeaders(EXTENSIONS_HEADER))) {
+            for (String offer : header.split(",")) {
+                String rewritten = rewriteOffer(offer.trim());
+                if (rewritten != null) {
+                    offers.add(rewritten);
+                }
+            }
+        }
+        filterChain.doFilter(new ExtensionOfferRequest(request, offers), response);
+    }
+
+    /**
+     * Rewrites a single extension offer according to the compression settings.
+     *
+     * @param offer One extension offer, e.g. "permessage-deflate; client_max_window_bits"
+     * @return The offer to pass on, or null to drop it
+     */
+    private String rewriteOffer(String offer) {
+        String name = offer.split(";", 2)[0].trim();
+        if (!PERMESSAGE_DEFLATE.equalsIgnoreCase(name)) {
+            return offer;
+        }
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        StringBuilder rewritten = new StringBuilder(offer);
+        if (properties.isServerNoContextTakeover() && !offer.contains(SERVER_NO_CONTEXT_TAKEOVER)) {
+            rewritten.append("; ").append(SERVER_NO_CONTEXT_TAKEOVER);
+        }
+        if (properties.isClientNoContextTakeover() && !offer.contains(CLIENT_NO_CONTEXT_TAKEOVER)) {
+            rewritten.append("; ").append(CLIENT_NO_CONTEXT_TAKEOVER);
+        }
+        return rewritten.toString();
+    }
+
+    /**
+     * Request wrapper that exposes the rewritten Sec-WebSocket-Extensions header.
+     */
+    private static final class ExtensionOfferRequest extends HttpServletRequestWrapper {
+
+        private final List<String> offers;
+
+        ExtensionOfferRequest(HttpServletRequest request, List<String> offers) {
+            super(request);
+            this.offers = offers;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (EXTENSIONS_HEADER.equalsIgnoreCase(name)) {
+                return offers.isEmpty() ? null : String.join(", ", offers);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (EXTENSIONS_HEADER.equalsIgnoreCase(name)) {
+                return offers.isEmpty() ? Collections.emptyEnumeration() : Collections.enumeration(List.of(String.join(", ", offers)));
+            }
+            return super.getHeaders(name);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.eric.securechat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for permessage-deflate on the /ws endpoint.
+ * The servlet container performs the compression; these settings decide whether the
+ * extension is offered and which context takeover parameters are negotiated.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "chat.websocket.compression")
+public class WebSocketCompressionProperties {
+
+    /**
+     * Whether permessage-deflate may be negotiated at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether the server resets its compression context after every message.
+     * Saves roughly 64KB of deflater state per connection at the cost of a lower compression ratio.
+     */
+    private boolean serverNoContextTakeover = false;
+
+    /**
+     * Whether clients are asked to reset their compression context after every message.
+     */
+    private boolean clientNoContextTakeover = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isServerNoContextTakeover() {
+        return serverNoContextTakeover;
+    }
+
+    public void setServerNoContextTakeover(boolean serverNoContextTakeover) {
+        this.serverNoContextTakeover = serverNoContextTakeover;
+    }
+
+    public boolean isClientNoContextTakeover() {
+        return clientNoContextTakeover;
+    }
+
+    public void setClientNoContextTakeover(boolean clientNoContextTakeover) {
+        this.clientNoContextTakeover = clientNoContextTakeover;
+    }
+}
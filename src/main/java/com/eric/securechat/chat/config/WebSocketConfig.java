@@ -1,12 +1,20 @@
 package com.eric.securechat.chat.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import com.eric.securechat.chat.application.SessionResumeInterceptor;
+import com.eric.securechat.chat.application.SlowConsumerGuard;
 import com.eric.securechat.common.security.JwtHandshakeInterceptor;
+import com.eric.securechat.common.security.StompAuthenticationInterceptor;
+
+import java.util.List;
 
 /**
  * WebSocket configuration for real-time messaging.
@@ -18,14 +26,30 @@ import com.eric.securechat.common.security.JwtHandshakeInterceptor;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final WebSocketTransportProperties transportProperties;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final SessionResumeInterceptor sessionResumeInterceptor;
+    private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
 
     /**
      * Constructor for WebSocketConfig.
      * 
-     * @param jwtHandshakeInterceptor Interceptor for JWT authentication in WebSocket handshakes
+     * @param jwtHandshakeInterceptor Interceptor validating the fallback query token in WebSocket handshakes
+     * @param transportProperties Per-session send time and buffer limits
+     * @param slowConsumerGuard Bounded per-session pending queue for outbound frames
+     * @param sessionResumeInterceptor Replays missed pushes to reconnecting sessions
+     * @param stompAuthenticationInterceptor Authenticates sessions on their CONNECT frame
      */
-    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor) {
+    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor,
+                           WebSocketTransportProperties transportProperties,
+                           SlowConsumerGuard slowConsumerGuard,
+                           SessionResumeInterceptor sessionResumeInterceptor,
+                           StompAuthenticationInterceptor stompAuthenticationInterceptor) {
         this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+        this.transportProperties = transportProperties;
+        this.slowConsumerGuard = slowConsumerGuard;
+        this.sessionResumeInterceptor = sessionResumeInterceptor;
+        this.stompAuthenticationInterceptor = stompAuthenticationInterceptor;
     }
 
     /**
@@ -46,6 +70,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     /**
      * Registers STOMP endpoints for WebSocket connections.
      * Configures the WebSocket connection endpoint with CORS and JWT authentication.
+     * permessage-deflate is negotiated by the servlet container; the offer it sees is
+     * shaped by {@link PerMessageDeflateFilter}.
      * 
      * @param registry Registry for STOMP over WebSocket endpoints
      */
@@ -55,4 +81,53 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .addInterceptors(jwtHandshakeInterceptor);
     }
+
+    /**
+     * Configures per-session transport limits.
+     * A session that exceeds the send time or buffer limit is closed by the transport,
+     * and the slow-consumer guard tracks every session for pending-queue accounting.
+     * 
+     * @param registration Registration for WebSocket transport options
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(transportProperties.getSendTimeLimit())
+                .setSendBufferSizeLimit(transportProperties.getSendBufferSizeLimit())
+                .setMessageSizeLimit(transportProperties.getMessageSizeLimit())
+                .addDecoratorFactory(slowConsumerGuard);
+    }
+
+    /**
+     * Configures the inbound channel with CONNECT-frame authentication and the session resume interceptor.
+     * Authentication runs first so that the principal is bound before any other interceptor sees the frame.
+     * 
+     * @param registration Registration for the client inbound channel
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthenticationInterceptor, sessionResumeInterceptor);
+    }
+
+    /**
+     * Configures the outbound channel with the slow-consumer guard.
+     * 
+     * @param registration Registration for the client outbound channel
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(slowConsumerGuard);
+    }
+
+    /**
+     * Registers the CBOR converter ahead of the default JSON converter.
+     * It only applies to messages carrying the CBOR content type, so JSON remains the default.
+     * 
+     * @param messageConverters The converters to configure
+     * @return true to also register the default converters
+     */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new CborPayloadConverter());
+        return true;
+    }
 }
@@ -0,0 +1,54 @@
+package com.eric.securechat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for missed-message replay on reconnect.
+ * Bounds the per-user ring buffer of recent pushes and the database fallback used once it has wrapped.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "chat.websocket.replay")
+public class WebSocketReplayProperties {
+
+    /**
+     * Number of recent pushes kept per user.
+     */
+    private int capacity = 256;
+
+    /**
+     * How long a push stays eligible for replay.
+     */
+    private Duration retention = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of messages replayed from the database when the ring buffer no longer covers the gap.
+     */
+    private int databaseFallbackLimit = 200;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getDatabaseFallbackLimit() {
+        return databaseFallbackLimit;
+    }
+
+    public void setDatabaseFallbackLimit(int databaseFallbackLimit) {
+        this.databaseFallbackLimit = databaseFallbackLimit;
+    }
+}
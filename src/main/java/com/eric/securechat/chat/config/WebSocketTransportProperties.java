@@ -0,0 +1,88 @@
+package com.eric.securechat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for WebSocket transport limits.
+ * Bounds how much outbound data a single session may hold before it is treated as a slow consumer.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "chat.websocket.transport")
+public class WebSocketTransportProperties {
+
+    /**
+     * Policy applied when a session's pending queue is full.
+     */
+    public enum SlowConsumerPolicy {
+        /** Drop the new frame and keep the session open. */
+        DROP,
+        /** Drop the new frame and close the session so the client reconnects. */
+        DISCONNECT
+    }
+
+    /**
+     * Maximum time in milliseconds a single send to a client may take.
+     */
+    private int sendTimeLimit = 10 * 1000;
+
+    /**
+     * Maximum number of bytes buffered per session while a send is in progress.
+     */
+    private int sendBufferSizeLimit = 512 * 1024;
+
+    /**
+     * Maximum size in bytes of an inbound STOMP message.
+     */
+    private int messageSizeLimit = 64 * 1024;
+
+    /**
+     * Maximum number of outbound MESSAGE frames queued for a session but not yet written.
+     */
+    private int maxPendingMessages = 100;
+
+    /**
+     * What to do with a session whose pending queue is full.
+     */
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP;
+
+    public int getSendTimeLimit() {
+        return sendTimeLimit;
+    }
+
+    public void setSendTimeLimit(int sendTimeLimit) {
+        this.sendTimeLimit = sendTimeLimit;
+    }
+
+    public int getSendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+
+    public void setSendBufferSizeLimit(int sendBufferSizeLimit) {
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+    }
+
+    public int getMessageSizeLimit() {
+        return messageSizeLimit;
+    }
+
+    public void setMessageSizeLimit(int messageSizeLimit) {
+        this.messageSizeLimit = messageSizeLimit;
+    }
+
+    public int getMaxPendingMessages() {
+        return maxPendingMessages;
+    }
+
+    public void setMaxPendingMessages(int maxPendingMessages) {
+        this.maxPendingMessages = maxPendingMessages;
+    }
+
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+}
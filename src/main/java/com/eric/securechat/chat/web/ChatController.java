@@ -1,10 +1,10 @@
 package com.eric.securechat.chat.web;
 
+import com.eric.securechat.chat.application.WebSocketService;
 import com.eric.securechat.chat.domain.ChatMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -18,7 +18,7 @@ import java.security.Principal;
 public class ChatController {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketService webSocketService;
 
     /**
      * Processes incoming chat messages via WebSocket.
@@ -33,10 +33,7 @@ public class ChatController {
         String senderUsername = principal.getName();
         chatMessage.setSenderUsername(senderUsername);
 
-        messagingTemplate.convertAndSendToUser(
-                chatMessage.getReceiverUsername(),
-                "/queue/messages",
-                chatMessage
-        );
+        // Relayed without replay: the shipped client sends over REST and does not subscribe here
+        webSocketService.relayToUser(chatMessage.getReceiverUsername(), "/queue/messages", chatMessage);
     }
 }
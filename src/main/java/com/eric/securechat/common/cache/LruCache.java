@@ -0,0 +1,171 @@
+package com.eric.securechat.common.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe in-memory cache that evicts its least recently used entry once full.
+ * Intended for hot read paths whose entries are invalidated explicitly when the underlying data changes.
+ * Loads run outside the cache lock, so a value read before an invalidation could otherwise be
+ * cached after it. Every load therefore holds a {@link Load} ticket that an invalidation of its key
+ * cancels, and a cancelled load is returned to its caller but not cached.
+ * Entries can also expire after a fixed time as a backstop.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, Load> loading = new HashMap<>();
+    private final long ttlNanos;
+
+    /**
+     * Constructor for LruCache without expiry.
+     *
+     * @param maxEntries Maximum number of entries kept
+     */
+    public LruCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Constructor for LruCache.
+     *
+     * @param maxEntries Maximum number of entries kept
+     * @param ttl How long an entry is served after it was cached, or null to keep it until evicted
+     */
+    public LruCache(int maxEntries, Duration ttl) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+    }
+
+    /**
+     * Returns a cached value.
+     *
+     * @param key The key to look up
+     * @return The cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entry.cachedAt >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Returns a cached value, loading and caching it if absent.
+     * The loader runs outside the cache lock; a null result, or a result whose key was invalidated
+     * while it loaded, is returned but not cached.
+     *
+     * @param key The key to look up
+     * @param loader Function loading the value on a miss
+     * @return The cached or loaded value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        Load load = beginLoad(key);
+        try {
+            value = loader.apply(key);
+        } finally {
+            completeLoad(key, load, value);
+        }
+        return value;
+    }
+
+    /**
+     * Starts loading a key outside the cache. Call this before reading the underlying data and pass
+     * the ticket to {@link #completeLoad} with the result.
+     *
+     * @param key The key about to be loaded
+     * @return Ticket for the load; a later load or an invalidation of the key cancels it
+     */
+    public synchronized Load beginLoad(K key) {
+        Load load = new Load();
+        loading.put(key, load);
+        return load;
+    }
+
+    /**
+     * Caches a loaded value unless its load was cancelled in the meantime.
+     *
+     * @param key The loaded key
+     * @param load The ticket returned by {@link #beginLoad}
+     * @param value The loaded value, or null to only end the load
+     * @return true if the value was cached
+     */
+    public synchronized boolean completeLoad(K key, Load load, V value) {
+        if (!loading.remove(key, load) || value == null) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * Caches a value unconditionally. Only for values known to be current, such as one just written;
+     * values read from a store should go through {@link #get(Object, Function)} or {@link #beginLoad}.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public synchronized void put(K key, V value) {
+        loading.remove(key);
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Removes a cached value and cancels any load of it in progress.
+     *
+     * @param key The key to evict
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        loading.remove(key);
+    }
+
+    /**
+     * Removes every cached value and cancels every load in progress.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        loading.clear();
+    }
+
+    /**
+     * Returns the number of cached values, including expired ones not yet removed.
+     *
+     * @return The current size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ticket identifying one load of a key.
+     */
+    public static final class Load {
+
+        private Load() {
+        }
+    }
+
+    private record Entry<V>(V value, long cachedAt) {
+    }
+}
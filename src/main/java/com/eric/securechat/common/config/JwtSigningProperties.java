@@ -0,0 +1,44 @@
+package com.eric.securechat.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for JWT signing keys.
+ * Each key is an HMAC secret identified by a key id (kid) that is written into the token header.
+ * The legacy jwt.secret is always available under the "default" key id, which also verifies
+ * tokens issued without a kid.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    /**
+     * Key id used to sign new tokens.
+     */
+    private String activeKeyId = "default";
+
+    /**
+     * Additional signing secrets by key id.
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public void setActiveKeyId(String activeKeyId) {
+        this.activeKeyId = activeKeyId;
+    }
+
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+}
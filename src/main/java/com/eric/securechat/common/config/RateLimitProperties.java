@@ -0,0 +1,107 @@
+package com.eric.securechat.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for per-user rate limits.
+ * Each limit is a token bucket holding {@code capacity} tokens that refills completely over {@code period}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Limit on friend requests sent per user.
+     */
+    private Limit friendRequests = new Limit(20, Duration.ofHours(1));
+
+    /**
+     * Limit on messages sent per user.
+     */
+    private Limit messages = new Limit(60, Duration.ofMinutes(1));
+
+    /**
+     * Maximum number of buckets kept per limit. Beyond that, the bucket closest to full is evicted to make room.
+     */
+    private int maxBuckets = 100_000;
+
+    /**
+     * Number of independently sized and swept partitions per limit.
+     */
+    private int stripes = 64;
+
+    public Limit getFriendRequests() {
+        return friendRequests;
+    }
+
+    public void setFriendRequests(Limit friendRequests) {
+        this.friendRequests = friendRequests;
+    }
+
+    public Limit getMessages() {
+        return messages;
+    }
+
+    public void setMessages(Limit messages) {
+        this.messages = messages;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * A single token bucket limit.
+     */
+    public static class Limit {
+
+        /**
+         * Number of tokens, i.e. the largest burst allowed after being idle.
+         */
+        private int capacity;
+
+        /**
+         * Time in which an empty bucket refills completely.
+         */
+        private Duration period;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.eric.securechat.common.config;
 
+import com.eric.securechat.common.security.BoundedPasswordEncoder;
 import com.eric.securechat.common.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -50,11 +52,12 @@ public class SecurityConfig {
      * Sets up CORS, CSRF, session management, and endpoint authorization.
      * 
      * @param http The HttpSecurity object to configure
+     * @param passwordEncoder Encoder used to verify login credentials
      * @return Configured SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         http
                 .cors(cors -> {})
                 .csrf(csrf -> csrf.disable())
@@ -67,7 +70,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider(passwordEncoder))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -76,13 +79,14 @@ public class SecurityConfig {
     /**
      * Configures the authentication provider with user details service and password encoder.
      * 
+     * @param passwordEncoder Encoder used to verify login credentials
      * @return Configured DaoAuthenticationProvider
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -100,11 +104,14 @@ public class SecurityConfig {
 
     /**
      * Configures the password encoder for secure password hashing.
+     * BCrypt runs on a bounded executor so that hashing load cannot exhaust request threads.
      * 
-     * @return BCryptPasswordEncoder instance
+     * @param properties Hashing executor size, queue limit and timeout
+     * @param meterRegistry Registry for hashing metrics
+     * @return BCryptPasswordEncoder wrapped in a BoundedPasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), properties, meterRegistry);
     }
 }
\ No newline at end of file
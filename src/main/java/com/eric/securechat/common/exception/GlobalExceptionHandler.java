@@ -1,5 +1,6 @@
 package com.eric.securechat.common.exception;
 
+import com.eric.securechat.common.config.PasswordHashingProperties;
 import com.eric.securechat.user.exception.UserNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final PasswordHashingProperties passwordHashingProperties;
+
+    /**
+     * Constructor for GlobalExceptionHandler.
+     * 
+     * @param passwordHashingProperties Settings providing the Retry-After value for rejected logins
+     */
+    public GlobalExceptionHandler(PasswordHashingProperties passwordHashingProperties) {
+        this.passwordHashingProperties = passwordHashingProperties;
+    }
+
     /**
      * Handles Spring Security authentication exceptions.
      * Returns 401 Unauthorized with generic error message for security.
@@ -44,6 +56,38 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildErrorResponse(ex, customMessage, HttpStatus.UNAUTHORIZED, request);
     }
 
+    /**
+     * Handles requests rejected because the password hashing executor is saturated.
+     * Returns 429 Too Many Requests with a Retry-After header.
+     * 
+     * @param ex The rejection exception
+     * @param request The current request
+     * @return ResponseEntity with 429 status
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Object> handlePasswordHashingRejected(PasswordHashingRejectedException ex, WebRequest request) {
+        ResponseEntity<Object> response = buildErrorResponse(ex, HttpStatus.TOO_MANY_REQUESTS, request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, passwordHashingProperties.getRetryAfter().toSeconds())))
+                .body(response.getBody());
+    }
+
+    /**
+     * Handles requests rejected by a per-user rate limit.
+     * Returns 429 Too Many Requests with a Retry-After header for when the next attempt can succeed.
+     * 
+     * @param ex The rate limit exception
+     * @param request The current request
+     * @return ResponseEntity with 429 status
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Object> handleRateLimitExceeded(RateLimitExceededException ex, WebRequest request) {
+        ResponseEntity<Object> response = buildErrorResponse(ex, HttpStatus.TOO_MANY_REQUESTS, request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)))
+                .body(response.getBody());
+    }
+
     /**
      * Handles user not found exceptions.
      * 
@@ -0,0 +1,27 @@
+package com.eric.securechat.common.exception;
+
+/**
+ * Exception thrown when the password hashing executor is saturated.
+ * Maps to HTTP 429 TOO_MANY_REQUESTS so clients back off and retry.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    /**
+     * Constructor with error message.
+     *
+     * @param message The error message
+     */
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor with error message and cause.
+     *
+     * @param message The error message
+     * @param cause The cause of the exception
+     */
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,27 @@
+package com.eric.securechat.common.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a user exceeds a rate limit.
+ * Maps to HTTP 429 TOO_MANY_REQUESTS with a Retry-After header.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructor with error message and retry delay.
+     *
+     * @param message The error message
+     * @param retryAfter How long until the next attempt can succeed
+     */
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,78 @@
+package com.eric.securechat.common.ratelimit;
+
+import com.eric.securechat.common.config.RateLimitProperties;
+import com.eric.securechat.common.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-user rate limits on actions that create rows for other users: friend requests and messages.
+ * Limits are kept in memory per instance; see {@link TokenBucketLimiter}.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final TokenBucketLimiter friendRequests;
+    private final TokenBucketLimiter messages;
+
+    /**
+     * Constructor for RateLimiter.
+     *
+     * @param properties Limits and bucket bounds
+     * @param meterRegistry Registry for rejection metrics
+     */
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.friendRequests = create("friend-requests", properties.getFriendRequests(), properties, meterRegistry);
+        this.messages = create("messages", properties.getMessages(), properties, meterRegistry);
+    }
+
+    private static TokenBucketLimiter create(String name, RateLimitProperties.Limit limit, RateLimitProperties properties,
+                                             MeterRegistry meterRegistry) {
+        return new TokenBucketLimiter(name, limit.getCapacity(), limit.getPeriod(),
+                properties.getMaxBuckets(), properties.getStripes(), meterRegistry);
+    }
+
+    /**
+     * Takes a friend request token of a user.
+     *
+     * @param userId The user sending the request
+     * @throws RateLimitExceededException if the user sent too many requests recently
+     */
+    public void acquireFriendRequest(UUID userId) {
+        acquire(friendRequests, userId, "You are sending friend requests too quickly. Please try again later.");
+    }
+
+    /**
+     * Takes a message token of a user.
+     *
+     * @param userId The user sending the message
+     * @throws RateLimitExceededException if the user sent too many messages recently
+     */
+    public void acquireMessage(UUID userId) {
+        acquire(messages, userId, "You are sending messages too quickly. Please slow down.");
+    }
+
+    private static void acquire(TokenBucketLimiter limiter, UUID userId, String message) {
+        long waitNanos = limiter.tryAcquire(userId);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(message, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * Drops the buckets of idle users.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval:PT1M}")
+    public void evictIdle() {
+        int evicted = friendRequests.evictIdle() + messages.evictIdle();
+        logger.debug("Evicted {} idle rate limit buckets.", evicted);
+    }
+}
@@ -0,0 +1,180 @@
+package com.eric.securechat.common.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user token bucket limiter without locks on the hot path.
+ * Each bucket is a single {@link AtomicLong} holding the bucket's theoretical arrival time
+ * (GCRA): the {@link System#nanoTime()} at which it will be full again. Taking a token advances it
+ * by one refill interval with a CAS; a request is rejected if that would put it more than a full
+ * bucket ahead of now. A bucket whose time has passed is full and carries no state, so it can be
+ * evicted without losing anything.
+ * Buckets are spread over stripes that are sized and swept independently. When a stripe is full,
+ * only that stripe is swept for full buckets. If none is full, the bucket closest to full is
+ * evicted, which approximates least recently used and forgives its owner the fewest tokens.
+ * Memory stays bounded under an attack spread over many accounts, and no request is let
+ * through without taking a token.
+ */
+public class TokenBucketLimiter {
+
+    /**
+     * Marks a bucket that is being evicted; acquirers that see it retry with a fresh bucket.
+     */
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final Map<UUID, AtomicLong>[] stripes;
+    private final int maxBucketsPerStripe;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Counter rejections;
+    private final Counter earlyEvictions;
+
+    /**
+     * Constructor for TokenBucketLimiter.
+     *
+     * @param name Name of the limit, used as the metrics tag
+     * @param capacity Number of tokens per bucket
+     * @param period Time in which an empty bucket refills completely
+     * @param maxBuckets Maximum number of buckets kept
+     * @param stripes Number of stripes, rounded up to a power of two
+     * @param meterRegistry Registry for rejection and size metrics
+     */
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(String name, int capacity, Duration period, int maxBuckets, int stripes, MeterRegistry meterRegistry) {
+        if (capacity <= 0 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit '" + name + "' needs a positive capacity and period.");
+        }
+        int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / stripeCount);
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.toleranceNanos = intervalNanos * capacity;
+        this.rejections = Counter.builder("rate.limit.rejected")
+                .tag("limit", name)
+                .description("Requests rejected by a rate limit")
+                .register(meterRegistry);
+        this.earlyEvictions = Counter.builder("rate.limit.evicted.early")
+                .tag("limit", name)
+                .description("Buckets evicted before they were full to make room for another user")
+                .register(meterRegistry);
+        meterRegistry.gauge("rate.limit.buckets", Tags.of("limit", name), this, TokenBucketLimiter::size);
+    }
+
+    /**
+     * Takes a token from a user's bucket.
+     *
+     * @param userId The user
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(UUID userId) {
+        Map<UUID, AtomicLong> stripe = stripeOf(userId);
+        while (true) {
+            AtomicLong bucket = stripe.get(userId);
+            if (bucket == null) {
+                if (stripe.size() >= maxBucketsPerStripe) {
+                    makeRoom(stripe, System.nanoTime());
+                }
+                bucket = stripe.computeIfAbsent(userId, id -> new AtomicLong(System.nanoTime()));
+            }
+            long now = System.nanoTime();
+            long arrival = bucket.get();
+            if (arrival == EVICTED) {
+                stripe.remove(userId, bucket);
+                continue;
+            }
+            long next = Math.max(arrival, now) + intervalNanos;
+            if (next - now > toleranceNanos) {
+                rejections.increment();
+                return next - now - toleranceNanos;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets of all users that are idle long enough for their bucket to be full.
+     *
+     * @return The number of evicted buckets
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Map<UUID, AtomicLong> stripe : stripes) {
+            evicted += evictFull(stripe, now);
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the number of buckets currently kept.
+     *
+     * @return The bucket count
+     */
+    public int size() {
+        int size = 0;
+        for (Map<UUID, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private int evictFull(Map<UUID, AtomicLong> stripe, long now) {
+        int evicted = 0;
+        for (Map.Entry<UUID, AtomicLong> entry : stripe.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            long arrival = bucket.get();
+            if (arrival != EVICTED && arrival - now <= 0 && bucket.compareAndSet(arrival, EVICTED)) {
+                stripe.remove(entry.getKey(), bucket);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Evicts the full buckets of a stripe or, if there are none, the one closest to full.
+     */
+    private void makeRoom(Map<UUID, AtomicLong> stripe, long now) {
+        if (evictFull(stripe, now) > 0) {
+            return;
+        }
+        while (true) {
+            Map.Entry<UUID, AtomicLong> closest = null;
+            long closestArrival = 0;
+            for (Map.Entry<UUID, AtomicLong> entry : stripe.entrySet()) {
+                long arrival = entry.getValue().get();
+                if (arrival != EVICTED && (closest == null || arrival - closestArrival < 0)) {
+                    closest = entry;
+                    closestArrival = arrival;
+                }
+            }
+            if (closest == null) {
+                return;
+            }
+            AtomicLong bucket = closest.getValue();
+            if (bucket.compareAndSet(closestArrival, EVICTED)) {
+                stripe.remove(closest.getKey(), bucket);
+                earlyEvictions.increment();
+                return;
+            }
+        }
+    }
+
+    private Map<UUID, AtomicLong> stripeOf(UUID userId) {
+        int hash = userId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,59 @@
+package com.eric.securechat.common.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Principal built from the verified claims of a JWT token.
+ * Carries the user's id and username without loading the user from the database;
+ * it holds no password and grants no authorities.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final UUID id;
+    private final String username;
+
+    /**
+     * Constructor for AuthenticatedUser.
+     *
+     * @param id The user id from the token
+     * @param username The username from the token
+     */
+    public AuthenticatedUser(UUID id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    /**
+     * Gets the user id.
+     *
+     * @return The user id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[" + username + "]";
+    }
+}
@@ -0,0 +1,208 @@
+package com.eric.securechat.common.security;
+
+import com.eric.securechat.common.config.PasswordHashingProperties;
+import com.eric.securechat.common.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password encoder that runs a delegate (BCrypt) on a dedicated, size-bounded executor.
+ * At most {@code threads} hashes run and {@code queueCapacity} wait at any time; anything beyond
+ * that, or a hash not finished within the timeout, fails fast with {@link PasswordHashingRejectedException}.
+ * The calling request thread only waits for its own hash, so a login storm cannot tie up more than
+ * threads + queueCapacity request threads. Bulk imports use at most half of the hashing threads,
+ * so logins always keep the rest.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int importConcurrency;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter encodeRejections;
+    private final Counter matchesRejections;
+
+    /**
+     * Constructor for BoundedPasswordEncoder.
+     *
+     * @param delegate The encoder doing the actual hashing
+     * @param properties Executor size, queue limit and timeout
+     * @param meterRegistry Registry for latency and rejection metrics
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        this.importConcurrency = Math.max(1, properties.getThreads() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.encodeRejections = rejectionCounter(meterRegistry, "encode");
+        this.matchesRejections = rejectionCounter(meterRegistry, "matches");
+        meterRegistry.gauge("security.password.hash.queued", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Hashes a raw password on the hashing executor.
+     *
+     * @param rawPassword The password to hash
+     * @return The encoded password
+     * @throws PasswordHashingRejectedException if the executor is saturated
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)), encodeRejections);
+    }
+
+    /**
+     * Verifies a raw password against an encoded one on the hashing executor.
+     *
+     * @param rawPassword The password to check
+     * @param encodedPassword The stored hash
+     * @return true if they match
+     * @throws PasswordHashingRejectedException if the executor is saturated
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)), matchesRejections);
+    }
+
+    /**
+     * Hashes many passwords for bulk imports, keeping at most half as many hashes in flight as there
+     * are hashing threads (at least one), so concurrent logins still find free threads.
+     * Unlike {@link #encode}, a full executor does not fail the call: the import waits and resubmits.
+     *
+     * @param rawPasswords The passwords to hash
+     * @return The encoded passwords, in input order
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        for (int start = 0; start < rawPasswords.size(); start += importConcurrency) {
+            List<Future<String>> batch = new ArrayList<>(importConcurrency);
+            for (CharSequence rawPassword : rawPasswords.subList(start, Math.min(start + importConcurrency, rawPasswords.size()))) {
+                batch.add(submitWhenAccepted(() -> encodeTimer.record(() -> delegate.encode(rawPassword))));
+            }
+            for (Future<String> future : batch) {
+                try {
+                    encoded.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Password hashing failed", e.getCause());
+                }
+            }
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stops the hashing threads. Called by Spring when the context closes.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs a hashing task and waits for its result.
+     *
+     * @param task The hashing task
+     * @param rejections Counter incremented when the task is rejected
+     * @return The task result
+     */
+    private <T> T submit(Callable<T> task, Counter rejections) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            logger.warn("Password hashing queue is full ({} waiting). Rejecting request.", executor.getQueue().size());
+            throw new PasswordHashingRejectedException("Too many authentication requests. Please retry shortly.", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new PasswordHashingRejectedException("Authentication timed out under load. Please retry shortly.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Submits a task, backing off while the executor is saturated.
+     *
+     * @param task The hashing task
+     * @return The task's future
+     */
+    private <T> Future<T> submitWhenAccepted(Callable<T> task) {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while hashing imported passwords", interrupted);
+                }
+            }
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("security.password.hash")
+                .tag("operation", operation)
+                .description("Time spent hashing or verifying a password")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("security.password.hash.rejected")
+                .tag("operation", operation)
+                .description("Hashing requests rejected because the executor was saturated; operation=matches counts rejected logins")
+                .register(meterRegistry);
+    }
+}
@@ -1,9 +1,14 @@
 package com.eric.securechat.common.security;
 
+import com.eric.securechat.user.application.UserDetailsServiceImpl;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,27 +19,41 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 /**
  * JWT authentication filter for processing JWT tokens in HTTP requests.
  * Extracts JWT tokens from Authorization headers and validates them.
  * Sets up authentication context for valid tokens.
+ * Each request verifies its token at most once; repeated tokens are served from the JwtService cache.
+ * In claims-only mode (the default) tokens carrying a user id are turned into an {@link AuthenticatedUser}
+ * without touching the database; older tokens fall back to the cached user details service.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final boolean claimsOnly;
+    private final Counter claimsLookups;
 
     /**
      * Constructor for JwtAuthenticationFilter.
      * 
      * @param jwtService Service for JWT token operations
      * @param userDetailsService Service for loading user details
+     * @param meterRegistry Registry for lookup metrics
+     * @param claimsOnly Whether principals are built from token claims alone
      */
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService, MeterRegistry meterRegistry,
+                                   @Value("${jwt.claims-only-authentication:true}") boolean claimsOnly) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.claimsOnly = claimsOnly;
+        this.claimsLookups = Counter.builder(UserDetailsServiceImpl.USER_LOOKUPS_METER)
+                .tag("source", "claims")
+                .description("User lookups answered from verified token claims")
+                .register(meterRegistry);
     }
 
     /**
@@ -65,11 +84,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        try {
+            // Verifies signature and expiry; no further token checks are needed below
+            username = jwtService.validateToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolveUser(jwt, username);
+            if (username.equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -81,4 +106,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Resolves the principal for a verified token.
+     * Uses the token claims alone when claims-only mode is on and the token carries a user id.
+     * 
+     * @param jwt The verified JWT token
+     * @param username The username from the token
+     * @return The principal to authenticate
+     */
+    private UserDetails resolveUser(String jwt, String username) {
+        if (claimsOnly) {
+            UUID userId = jwtService.extractUserId(jwt);
+            if (userId != null) {
+                claimsLookups.increment();
+                return new AuthenticatedUser(userId, username);
+            }
+        }
+        return userDetailsService.loadUserByUsername(username);
+    }
+}
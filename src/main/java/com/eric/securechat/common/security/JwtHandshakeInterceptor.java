@@ -1,28 +1,42 @@
 package com.eric.securechat.common.security;
 
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 import org.springframework.stereotype.Component;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
  * WebSocket handshake interceptor for JWT authentication.
- * Extracts JWT token from the WebSocket handshake query and sets authentication context.
- * Enables secure WebSocket connections with user identity.
+ * Validates a JWT token passed in the handshake query (/ws?token=...) for clients that cannot send
+ * STOMP CONNECT headers. A valid token is recorded in the session attributes, where
+ * {@link StompAuthenticationInterceptor} picks it up when the CONNECT frame carries no token;
+ * an invalid one rejects the handshake.
  */
 @Component
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
+
+    /**
+     * Session attribute holding the username authenticated by the handshake query token.
+     */
+    public static final String HANDSHAKE_USERNAME_ATTRIBUTE = "chat.handshakeUsername";
+
     private final JwtService jwtService;
 
     /**
      * Constructor for JwtHandshakeInterceptor.
-     * 
+     *
      * @param jwtService Service for JWT token operations
      */
     public JwtHandshakeInterceptor(JwtService jwtService) {
@@ -30,38 +44,31 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
     }
 
     /**
-     * Intercepts the WebSocket handshake to extract and validate JWT token.
-     * Sets authentication context if token is valid.
-     * 
+     * Intercepts the WebSocket handshake to validate a JWT token from the query string.
+     * Handshakes without a token proceed and must authenticate on the CONNECT frame.
+     *
      * @param request The server HTTP request
      * @param response The server HTTP response
      * @param wsHandler The WebSocket handler
      * @param attributes The handshake attributes
-     * @return true to proceed with the handshake
+     * @return false if a token was supplied and is invalid, true otherwise
      */
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                    WebSocketHandler wsHandler, Map<String, Object> attributes) {
-        String query = request.getURI().getQuery();
-        if (query != null && query.contains("token=")) {
-            String[] params = query.split("&");
-            for (String param : params) {
-                if (param.startsWith("token=")) {
-                    String token = param.substring("token=".length());
-                    try {
-                        String username = jwtService.extractUsername(token);
-                        if (username != null) {
-                            UsernamePasswordAuthenticationToken authentication =
-                                    new UsernamePasswordAuthenticationToken(username, null, null);
-                            SecurityContextHolder.getContext().setAuthentication(authentication);
-                        }
-                    } catch (Exception e) {
-                        // Ignore token parsing errors
-                    }
-                }
-            }
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (token == null || token.isEmpty()) {
+            return true;
+        }
+        try {
+            String username = jwtService.validateToken(URLDecoder.decode(token, StandardCharsets.UTF_8));
+            attributes.put(HANDSHAKE_USERNAME_ATTRIBUTE, username);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Rejected WebSocket handshake with invalid token: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
         }
-        return true;
     }
 
     /**
@@ -72,4 +79,4 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
                               WebSocketHandler wsHandler, Exception exception) {
         // No implementation needed
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.eric.securechat.common.security;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Actuator endpoint for rotating JWT signing keys without a restart.
+ * Like every actuator endpoint except health it is not exposed over HTTP by default; expose it
+ * only on a management port that ordinary users cannot reach. Secrets are never returned.
+ * <p>
+ * Changes made here live in memory only. A key must already be configured in jwt.signing.keys
+ * before it can be activated, so a restart cannot strand tokens signed with an unknown key;
+ * keys installed here without a configuration entry can only verify tokens. Update
+ * jwt.signing.active-key-id and remove retired keys from the configuration as well, or a
+ * restart reverts the active key and brings retired keys back.
+ */
+@Component
+@Endpoint(id = "jwtkeys")
+public class JwtKeysEndpoint {
+
+    private final JwtSigningKeys signingKeys;
+
+    /**
+     * Constructor for JwtKeysEndpoint.
+     *
+     * @param signingKeys Signing keys by key id
+     */
+    public JwtKeysEndpoint(JwtSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
+    }
+
+    /**
+     * Lists the registered key ids and the active one.
+     *
+     * @return The key ids
+     */
+    @ReadOperation
+    public Map<String, Object> keys() {
+        return Map.of(
+                "activeKeyId", signingKeys.current().activeKeyId(),
+                "keyIds", new TreeSet<>(signingKeys.keyIds())
+        );
+    }
+
+    /**
+     * Installs and/or activates a key.
+     * With a secret the key is installed (and activated if requested); without one an installed key is activated.
+     * Only keys configured in jwt.signing.keys with the same secret can be activated.
+     *
+     * @param keyId The key id
+     * @param secret The HMAC secret of a new key, at least 256 bits
+     * @param activate Whether to sign new tokens with the key, defaults to true
+     * @return The key ids after the change
+     */
+    @WriteOperation
+    public Map<String, Object> rotate(String keyId, @Nullable String secret, @Nullable Boolean activate) {
+        boolean makeActive = activate == null || activate;
+        if (secret != null) {
+            signingKeys.install(keyId, secret, makeActive);
+        } else if (makeActive) {
+            signingKeys.activate(keyId);
+        }
+        return keys();
+    }
+
+    /**
+     * Retires a key; tokens signed with it are rejected from then on.
+     *
+     * @param keyId The key id
+     * @return The key ids after the change
+     */
+    @DeleteOperation
+    public Map<String, Object> retire(@Selector String keyId) {
+        signingKeys.retire(keyId);
+        return keys();
+    }
+}
@@ -1,29 +1,107 @@
 package com.eric.securechat.common.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import com.eric.securechat.auth.application.TokenRevocationService;
+import com.eric.securechat.common.cache.LruCache;
+import com.eric.securechat.user.domain.User;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Service for JWT token operations including generation, validation, and claim extraction.
  * Provides secure token-based authentication for the application.
+ * Tokens are signed with the active key of {@link JwtSigningKeys} and carry its kid; the parser is built
+ * once and resolves the verification key by kid. Verified claims are cached by token digest
+ * until the token expires, so a token presented repeatedly is only verified the first time;
+ * once the cache is full, the least recently used token makes room.
+ * Logins issue a short-lived access token and a long-lived refresh token; both carry a jti
+ * that is checked against the in-memory {@link TokenRevocationService} on every validation.
  */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    /**
+     * Claim carrying the user id, so requests can be authenticated from the token alone.
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Claim distinguishing refresh tokens from access tokens.
+     */
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+
+    /**
+     * Value of the token type claim on refresh tokens.
+     */
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    @Value("${jwt.access-token.ttl:PT15M}")
+    private Duration accessTokenTtl;
+
+    @Value("${jwt.refresh-token.ttl:P14D}")
+    private Duration refreshTokenTtl;
+
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtSigningKeys signingKeys;
+
+    private JwtParser parser;
+
+    /**
+     * Claims of a verified token, cached until the token's expiry.
+     *
+     * @param claims The verified claims
+     * @param keyId The kid the token was signed with, so tokens of a retired key stop being served
+     * @param expiresAtMillis The token's exp claim in epoch milliseconds
+     */
+    private record VerifiedToken(Claims claims, String keyId, long expiresAtMillis) {
+    }
+
+    private LruCache<String, VerifiedToken> verifiedTokens;
+
+    /**
+     * Constructor for JwtService.
+     * 
+     * @param tokenRevocationService In-memory list of revoked token ids
+     * @param signingKeys Signing keys by key id
+     */
+    public JwtService(TokenRevocationService tokenRevocationService, JwtSigningKeys signingKeys) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.signingKeys = signingKeys;
+    }
+
+    /**
+     * Builds the parser once; it looks up the verification key by kid on each parse.
+     */
+    @PostConstruct
+    void init() {
+        verifiedTokens = new LruCache<>(verifiedCacheMaxEntries);
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(signingKeys)
+                .build();
+    }
 
     /**
      * Extracts the username from a JWT token.
@@ -36,14 +114,63 @@ public class JwtService {
     }
 
     /**
-     * Generates a JWT token for a user.
+     * Extracts the user id from a JWT token.
+     * 
+     * @param token The JWT token to extract the user id from
+     * @return The user id, or null for tokens issued without one
+     */
+    public UUID extractUserId(String token) {
+        String userId = extractClaim(token, claims -> claims.get(USER_ID_CLAIM, String.class));
+        return userId == null ? null : UUID.fromString(userId);
+    }
+
+    /**
+     * Generates a short-lived access token for a user.
+     * Tokens issued for a persisted user also carry its id in the "uid" claim.
      * 
      * @param userDetails The user details to generate token for
      * @return The generated JWT token
      */
     public String generateToken(UserDetails userDetails) {
+        return createToken(userClaims(userDetails), userDetails.getUsername(), accessTokenTtl);
+    }
+
+    /**
+     * Generates a refresh token for a user.
+     * Refresh tokens are only accepted by {@link #validateRefreshToken(String)}.
+     * 
+     * @param userDetails The user details to generate token for
+     * @return The generated refresh token
+     */
+    public String generateRefreshToken(UserDetails userDetails) {
+        Map<String, Object> claims = userClaims(userDetails);
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        return createToken(claims, userDetails.getUsername(), refreshTokenTtl);
+    }
+
+    /**
+     * Gets the lifetime of access tokens.
+     * 
+     * @return The access token lifetime
+     */
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    /**
+     * Builds the claims shared by access and refresh tokens.
+     * 
+     * @param userDetails The user the token is issued for
+     * @return Mutable claims map
+     */
+    private Map<String, Object> userClaims(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        if (userDetails instanceof User user && user.getId() != null) {
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+        } else if (userDetails instanceof AuthenticatedUser user) {
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+        }
+        return claims;
     }
 
     /**
@@ -59,20 +186,73 @@ public class JwtService {
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    /**
+     * Validates an access token on its own and returns the username it was issued for.
+     * The signature and expiry are verified in a single parse; revocation is an in-memory lookup.
+     * 
+     * @param token The JWT token to validate
+     * @return The username contained in the token
+     * @throws JwtException if the token is malformed, not signed by this server, expired, revoked or a refresh token
+     */
+    public String validateToken(String token) {
+        Claims claims = extractAllClaims(token);
+        if (REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM))) {
+            throw new JwtException("Refresh tokens cannot be used for authentication");
+        }
+        return checkSubjectAndRevocation(claims).getSubject();
+    }
+
+    /**
+     * Validates a refresh token and returns its claims.
+     * 
+     * @param token The refresh token to validate
+     * @return The verified claims, including the jti and expiration needed to revoke it
+     * @throws JwtException if the token is malformed, not signed by this server, expired, revoked or not a refresh token
+     */
+    public Claims validateRefreshToken(String token) {
+        Claims claims = extractAllClaims(token);
+        if (!REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM))) {
+            throw new JwtException("Not a refresh token");
+        }
+        return checkSubjectAndRevocation(claims);
+    }
+
+    /**
+     * Rejects verified claims that have no subject or whose token id was revoked.
+     * 
+     * @param claims Verified claims
+     * @return The same claims
+     * @throws JwtException if the claims are unusable
+     */
+    private Claims checkSubjectAndRevocation(Claims claims) {
+        if (claims.getSubject() == null || claims.getSubject().isBlank()) {
+            throw new MalformedJwtException("JWT token has no subject");
+        }
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            throw new JwtException("JWT token has been revoked");
+        }
+        return claims;
+    }
+
     /**
      * Creates a JWT token with specified claims and subject.
      * 
      * @param claims The claims to include in the token
      * @param subject The subject (username) for the token
+     * @param ttl How long the token stays valid
      * @return The created JWT token
      */
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, Duration ttl) {
+        long now = System.currentTimeMillis();
+        JwtSigningKeys.KeySet keys = signingKeys.current();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keys.activeKeyId())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttl.toMillis()))
+                .signWith(keys.activeKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -110,26 +290,44 @@ public class JwtService {
 
     /**
      * Extracts all claims from a JWT token.
+     * Returns the cached claims of a token verified earlier if it has not expired yet;
+     * otherwise verifies the signature and expiry and caches the result.
      * 
      * @param token The JWT token to extract claims from
      * @return All claims from the token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis() && signingKeys.isKnown(cached.keyId())) {
+                return cached.claims();
+            }
+            // Expired or signed with a retired key: drop it and let the parser raise the usual exception
+            verifiedTokens.invalidate(digest);
+        }
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(digest, new VerifiedToken(claims, jws.getHeader().getKeyId(), expiration.getTime()));
+        }
+        return claims;
     }
 
     /**
-     * Gets the signing key for JWT operations.
-     * Converts the secret to UTF-8 bytes and creates an HMAC SHA key.
+     * Computes the cache key of a token.
+     * Keys are SHA-256 digests so that the cache never holds usable tokens.
      * 
-     * @return The signing key for JWT operations
+     * @param token The JWT token
+     * @return The Base64 encoded digest
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
\ No newline at end of file
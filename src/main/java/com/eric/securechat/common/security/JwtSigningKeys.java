@@ -0,0 +1,187 @@
+package com.eric.securechat.common.security;
+
+import com.eric.securechat.common.config.JwtSigningProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of JWT signing keys identified by key id (kid).
+ * Keys are derived once and published as an immutable snapshot through a volatile field, so
+ * verification is a single volatile read and map lookup without locks, while rotations
+ * (install, activate, retire) copy the snapshot and swap it in.
+ * <p>
+ * Runtime changes are not persisted. Only keys configured in jwt.signing.keys (or the legacy
+ * jwt.secret) can become the signing key, so a restart never loses the key that live tokens were
+ * signed with; keys installed at runtime can only verify tokens. A retired key comes back on
+ * restart unless it is also removed from the configuration.
+ */
+@Component
+public class JwtSigningKeys extends SigningKeyResolverAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtSigningKeys.class);
+
+    /**
+     * Key id of the legacy jwt.secret key, also used for tokens issued without a kid.
+     */
+    public static final String DEFAULT_KEY_ID = "default";
+
+    /**
+     * Immutable set of keys.
+     *
+     * @param activeKeyId The key id new tokens are signed with
+     * @param activeKey The signing key for the active key id
+     * @param verifiers Verification keys by key id
+     */
+    public record KeySet(String activeKeyId, Key activeKey, Map<String, Key> verifiers) {
+    }
+
+    private final Map<String, Key> configuredKeys;
+
+    private volatile KeySet keySet;
+
+    /**
+     * Constructor for JwtSigningKeys.
+     *
+     * @param legacySecret The jwt.secret value, registered as the "default" key
+     * @param properties Additional keys and the active key id
+     */
+    public JwtSigningKeys(@Value("${jwt.secret}") String legacySecret, JwtSigningProperties properties) {
+        Map<String, Key> verifiers = new HashMap<>();
+        verifiers.put(DEFAULT_KEY_ID, deriveKey(legacySecret));
+        properties.getKeys().forEach((kid, secret) -> verifiers.put(kid, deriveKey(secret)));
+        this.configuredKeys = Map.copyOf(verifiers);
+        Key activeKey = configuredKeys.get(properties.getActiveKeyId());
+        if (activeKey == null) {
+            throw new IllegalStateException("Active JWT key id '" + properties.getActiveKeyId() + "' is not configured");
+        }
+        this.keySet = new KeySet(properties.getActiveKeyId(), activeKey, configuredKeys);
+    }
+
+    /**
+     * Gets the current key snapshot. Signers read it once so the kid and key always match.
+     *
+     * @return The current key set
+     */
+    public KeySet current() {
+        return keySet;
+    }
+
+    /**
+     * Checks whether a key id can still verify tokens.
+     *
+     * @param keyId The key id, null for tokens issued without one
+     * @return true if the key is registered
+     */
+    public boolean isKnown(String keyId) {
+        return keySet.verifiers().containsKey(keyId == null ? DEFAULT_KEY_ID : keyId);
+    }
+
+    /**
+     * Lists the registered key ids.
+     *
+     * @return Registered key ids
+     */
+    public Set<String> keyIds() {
+        return keySet.verifiers().keySet();
+    }
+
+    /**
+     * Resolves the verification key for a token from its kid header.
+     *
+     * @param header The JWS header
+     * @param claims The unverified claims
+     * @return The verification key
+     * @throws UnsupportedJwtException if the kid is unknown or retired
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        Key key = keySet.verifiers().get(keyId == null ? DEFAULT_KEY_ID : keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id: " + keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Registers a new key, optionally making it the signing key.
+     * Rotating first adds the new key to the configuration everywhere, then activates it, and
+     * finally retires the old one once the tokens it signed have expired.
+     *
+     * @param keyId The key id
+     * @param secret The HMAC secret, at least 256 bits
+     * @param activate Whether new tokens should be signed with it
+     * @throws IllegalStateException if activating a key that is not configured with this secret
+     */
+    public synchronized void install(String keyId, String secret, boolean activate) {
+        Key key = deriveKey(secret);
+        if (activate) {
+            requireConfigured(keyId, key);
+        }
+        Map<String, Key> verifiers = new HashMap<>(keySet.verifiers());
+        verifiers.put(keyId, key);
+        KeySet current = keySet;
+        keySet = activate
+                ? new KeySet(keyId, key, Map.copyOf(verifiers))
+                : new KeySet(current.activeKeyId(), current.activeKey(), Map.copyOf(verifiers));
+        logger.info("Installed JWT key '{}'{}.", keyId, activate ? " as the active signing key" : "");
+    }
+
+    /**
+     * Makes an installed key the signing key.
+     *
+     * @param keyId The key id
+     * @throws IllegalArgumentException if the key is not installed
+     * @throws IllegalStateException if the key is not configured
+     */
+    public synchronized void activate(String keyId) {
+        Key key = keySet.verifiers().get(keyId);
+        if (key == null) {
+            throw new IllegalArgumentException("JWT key id '" + keyId + "' is not installed");
+        }
+        requireConfigured(keyId, key);
+        keySet = new KeySet(keyId, key, keySet.verifiers());
+        logger.info("Activated JWT key '{}'.", keyId);
+    }
+
+    /**
+     * Removes a key. Tokens signed with it are rejected from then on.
+     *
+     * @param keyId The key id
+     * @throws IllegalStateException if the key is the active signing key
+     */
+    public synchronized void retire(String keyId) {
+        if (keyId.equals(keySet.activeKeyId())) {
+            throw new IllegalStateException("Cannot retire the active JWT key '" + keyId + "'");
+        }
+        Map<String, Key> verifiers = new HashMap<>(keySet.verifiers());
+        if (verifiers.remove(keyId) != null) {
+            keySet = new KeySet(keySet.activeKeyId(), keySet.activeKey(), Map.copyOf(verifiers));
+            logger.info("Retired JWT key '{}'.", keyId);
+        }
+    }
+
+    private void requireConfigured(String keyId, Key key) {
+        if (!key.equals(configuredKeys.get(keyId))) {
+            throw new IllegalStateException("JWT key id '" + keyId
+                    + "' must be configured in jwt.signing.keys before it can sign tokens");
+        }
+    }
+
+    private static Key deriveKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.eric.securechat.common.security;
+
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * STOMP channel interceptor that authenticates a session on its CONNECT frame.
+ * The JWT token is taken from the CONNECT "Authorization: Bearer ..." header, or from the handshake
+ * query token already validated by {@link JwtHandshakeInterceptor}. The token is verified once per
+ * session and the resulting principal is bound to the session and cached in its attributes,
+ * so later frames need no authentication work. A CONNECT without a valid token is rejected.
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthenticationInterceptor.class);
+
+    /**
+     * Session attribute holding the authenticated principal of a STOMP session.
+     */
+    public static final String PRINCIPAL_ATTRIBUTE = "chat.principal";
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    /**
+     * Constructor for StompAuthenticationInterceptor.
+     *
+     * @param jwtService Service for JWT token operations
+     */
+    public StompAuthenticationInterceptor(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    /**
+     * Authenticates CONNECT frames and restores the cached principal on other frames if needed.
+     *
+     * @param message The inbound message
+     * @param channel The client inbound channel
+     * @return The message with its user bound
+     * @throws BadCredentialsException if a CONNECT frame carries no valid token
+     */
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            Authentication authentication = authenticate(accessor, attributes);
+            if (attributes != null) {
+                attributes.put(PRINCIPAL_ATTRIBUTE, authentication);
+            }
+            accessor.setUser(authentication);
+        } else if (accessor.getUser() == null && attributes != null
+                && attributes.get(PRINCIPAL_ATTRIBUTE) instanceof Authentication authentication) {
+            accessor.setUser(authentication);
+        }
+        return message;
+    }
+
+    /**
+     * Resolves the principal of a connecting session.
+     *
+     * @param accessor Headers of the CONNECT frame
+     * @param attributes Session attributes populated during the handshake
+     * @return The authenticated principal
+     * @throws BadCredentialsException if no valid token was supplied
+     */
+    private Authentication authenticate(StompHeaderAccessor accessor, Map<String, Object> attributes) {
+        String authHeader = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        String username;
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            try {
+                username = jwtService.validateToken(authHeader.substring(BEARER_PREFIX.length()));
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.warn("Rejected STOMP CONNECT on session '{}': {}", accessor.getSessionId(), e.getMessage());
+                throw new BadCredentialsException("Invalid JWT token");
+            }
+        } else if (attributes != null && attributes.get(JwtHandshakeInterceptor.HANDSHAKE_USERNAME_ATTRIBUTE) instanceof String handshakeUsername) {
+            username = handshakeUsername;
+        } else {
+            logger.warn("Rejected STOMP CONNECT on session '{}': no token supplied", accessor.getSessionId());
+            throw new BadCredentialsException("Missing JWT token");
+        }
+        return new UsernamePasswordAuthenticationToken(username, null, List.of());
+    }
+}
@@ -0,0 +1,68 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.chat.application.WebSocketService;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.user.application.PublicKeyChangedEvent;
+import com.eric.securechat.user.application.PublicKeyDirectory;
+import com.eric.securechat.user.dto.KeyChangeNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Pushes public key changes to the accepted friends of the user who changed them.
+ * Runs after the key upload commits, so friends never see a key that was rolled back.
+ */
+@Component
+public class FriendKeyChangeNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendKeyChangeNotifier.class);
+
+    /**
+     * User destination that clients subscribe to for friends' key changes.
+     */
+    public static final String KEY_CHANGES_QUEUE = "/queue/key-changes";
+
+    private final FriendshipRepository friendshipRepository;
+    private final WebSocketService webSocketService;
+
+    /**
+     * Constructor for FriendKeyChangeNotifier.
+     *
+     * @param friendshipRepository Repository for friendship data operations
+     * @param webSocketService Service for WebSocket pushes
+     */
+    public FriendKeyChangeNotifier(FriendshipRepository friendshipRepository, WebSocketService webSocketService) {
+        this.friendshipRepository = friendshipRepository;
+        this.webSocketService = webSocketService;
+    }
+
+    /**
+     * Sends the new key and its fingerprint to every accepted friend of the user.
+     *
+     * @param event The key change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPublicKeyChanged(PublicKeyChangedEvent event) {
+        List<String> friends = friendshipRepository.findFriendUsernames(event.userId(), List.of(FriendshipStatus.ACCEPTED));
+        if (friends.isEmpty()) {
+            return;
+        }
+        KeyChangeNotification notification = new KeyChangeNotification(
+                event.username(),
+                event.keyType(),
+                event.publicKey(),
+                PublicKeyDirectory.fingerprint(event.publicKey()),
+                Instant.now()
+        );
+        for (String friend : friends) {
+            webSocketService.sendToUser(friend, KEY_CHANGES_QUEUE, notification);
+        }
+        logger.info("Notified {} friends of '{}' about a new {} key.", friends.size(), event.username(), event.keyType());
+    }
+}
@@ -0,0 +1,91 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.common.cache.LruCache;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.dto.VersionedFriendList;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.user.application.PublicKeyChangedEvent;
+import com.eric.securechat.user.application.PublicKeyDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-user cache of friend lists (accepted and blocked relationships) with a version per entry.
+ * A list is built by a single projection query and cached until a relationship of the user or
+ * a friend's public key changes; both events are handled after their transaction commits.
+ * The version is a digest of the list itself, so it depends only on that user's friends and their
+ * keys: it stays the same across restarts and cache evictions, and changes exactly when the list does.
+ */
+@Component
+public class FriendListCache {
+
+    private static final List<FriendshipStatus> LISTED_STATUSES = List.of(FriendshipStatus.ACCEPTED, FriendshipStatus.BLOCKED);
+
+    private final FriendshipRepository friendshipRepository;
+    private final LruCache<String, VersionedFriendList> entries;
+
+    /**
+     * Constructor for FriendListCache.
+     *
+     * @param friendshipRepository Repository for friendship data operations
+     * @param maxEntries Maximum number of cached friend lists
+     */
+    public FriendListCache(FriendshipRepository friendshipRepository,
+                           @Value("${friendship.list-cache.max-entries:20000}") int maxEntries) {
+        this.friendshipRepository = friendshipRepository;
+        this.entries = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Gets a user's friend list, loading it on a miss.
+     * A list whose load overlapped an invalidation of the user is returned but not cached.
+     *
+     * @param username The username of the user
+     * @param userId The id of the user
+     * @return The friend list and its version
+     */
+    public VersionedFriendList get(String username, UUID userId) {
+        return entries.get(username, key -> load(userId));
+    }
+
+    private VersionedFriendList load(UUID userId) {
+        List<FriendStatusDto> friends = List.copyOf(friendshipRepository.findFriendList(userId, LISTED_STATUSES));
+        List<String> parts = new ArrayList<>(friends.size() * 4);
+        for (FriendStatusDto friend : friends) {
+            parts.add(friend.id().toString());
+            parts.add(friend.status().name());
+            parts.add(PublicKeyDirectory.fingerprint(friend.ed25519PublicKey()));
+            parts.add(PublicKeyDirectory.fingerprint(friend.x25519PublicKey()));
+        }
+        return new VersionedFriendList(friends, PublicKeyDirectory.version(parts));
+    }
+
+    /**
+     * Evicts the lists of both users of a changed relationship.
+     *
+     * @param event The friendship change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendshipChanged(FriendshipChangedEvent event) {
+        entries.invalidate(event.actorUsername());
+        entries.invalidate(event.targetUsername());
+    }
+
+    /**
+     * Evicts the lists of every user that shows the changed keys.
+     *
+     * @param event The key change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPublicKeyChanged(PublicKeyChangedEvent event) {
+        for (String friend : friendshipRepository.findFriendUsernames(event.userId(), LISTED_STATUSES)) {
+            entries.invalidate(friend);
+        }
+    }
+}
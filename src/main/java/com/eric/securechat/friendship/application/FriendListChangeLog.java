@@ -0,0 +1,149 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendListChange;
+import com.eric.securechat.friendship.domain.FriendshipChange;
+import com.eric.securechat.friendship.domain.FriendshipId;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.FriendListDelta;
+import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.repository.FriendshipChangeRepository;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-user change log of friend lists, used for delta sync.
+ * Every change that adds, removes or re-statuses a relation in the friend list is recorded for
+ * both users inside the transaction that makes it, each under the user's next friend list version.
+ * Clients send the version they are at and receive only what changed since; if the log cannot
+ * bridge the gap (unknown version, purged entries, too many changes) the full list is sent instead.
+ */
+@Component
+public class FriendListChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendListChangeLog.class);
+
+    private static final List<FriendshipStatus> LISTED_STATUSES = List.of(FriendshipStatus.ACCEPTED, FriendshipStatus.BLOCKED);
+
+    private final FriendshipChangeRepository changeRepository;
+    private final FriendshipRepository friendshipRepository;
+    private final int maxChanges;
+    private final Duration retention;
+
+    /**
+     * Constructor for FriendListChangeLog.
+     *
+     * @param changeRepository Repository for the change log
+     * @param friendshipRepository Repository for friendship data operations
+     * @param maxChanges Maximum number of changes sent before falling back to the full list
+     * @param retention How long changes are kept
+     */
+    public FriendListChangeLog(FriendshipChangeRepository changeRepository, FriendshipRepository friendshipRepository,
+                               @Value("${friendship.change-log.max-changes:500}") int maxChanges,
+                               @Value("${friendship.change-log.retention:P30D}") Duration retention) {
+        this.changeRepository = changeRepository;
+        this.friendshipRepository = friendshipRepository;
+        this.maxChanges = maxChanges;
+        this.retention = retention;
+    }
+
+    /**
+     * Records a friendship change for both users.
+     * Runs synchronously inside the publishing transaction, so the log commits or rolls back
+     * together with the change. Requests and declines never touch the friend list and are skipped.
+     *
+     * @param event The friendship change event
+     */
+    @EventListener
+    public void onFriendshipChanged(FriendshipChangedEvent event) {
+        FriendshipStatus status;
+        switch (event.type()) {
+            case ACCEPTED, UNBLOCKED -> status = FriendshipStatus.ACCEPTED;
+            case BLOCKED -> status = FriendshipStatus.BLOCKED;
+            case UNFRIENDED -> status = null;
+            default -> {
+                return;
+            }
+        }
+        // Lock the version rows in canonical order so concurrent changes cannot deadlock
+        FriendshipId pair = FriendshipId.between(event.actorId(), event.targetId());
+        record(pair.getUserLowId(), pair.getUserHighId(), status);
+        record(pair.getUserHighId(), pair.getUserLowId(), status);
+    }
+
+    private void record(UUID ownerId, UUID otherUserId, FriendshipStatus status) {
+        long version = changeRepository.incrementVersion(ownerId);
+        changeRepository.save(new FriendshipChange(ownerId, version, otherUserId, status));
+    }
+
+    /**
+     * Gets the changes to a user's friend list since a version.
+     *
+     * @param userId The id of the user
+     * @param since The version the client is at, 0 for none
+     * @return The changes, or the full list if the client has to resync
+     */
+    @Transactional(readOnly = true)
+    public FriendListDelta changesSince(UUID userId, long since) {
+        long current = changeRepository.findVersion(userId).orElse(0L);
+        if (since == current) {
+            return new FriendListDelta(current, false, List.of(), List.of());
+        }
+        if (since <= 0 || since > current || current - since > maxChanges) {
+            return fullList(userId, current);
+        }
+
+        List<FriendListChange> changes = changeRepository.findChangesSince(userId, since, PageRequest.of(0, maxChanges));
+        if (changes.isEmpty() || changes.get(0).version() != since + 1) {
+            return fullList(userId, current);
+        }
+
+        // Only the latest change per user matters
+        Map<UUID, FriendListChange> latest = new LinkedHashMap<>();
+        for (FriendListChange change : changes) {
+            latest.remove(change.userId());
+            latest.put(change.userId(), change);
+        }
+        List<FriendStatusDto> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (FriendListChange change : latest.values()) {
+            if (change.status() == null) {
+                removed.add(change.username());
+            } else {
+                changed.add(new FriendStatusDto(change.userId(), change.username(), change.nickname(),
+                        change.status(), change.ed25519PublicKey(), change.x25519PublicKey()));
+            }
+        }
+        return new FriendListDelta(changes.get(changes.size() - 1).version(), false, changed, removed);
+    }
+
+    /**
+     * Reads the full list after the version, so it reflects at least every change up to that version.
+     */
+    private FriendListDelta fullList(UUID userId, long version) {
+        return new FriendListDelta(version, true, friendshipRepository.findFriendList(userId, LISTED_STATUSES), List.of());
+    }
+
+    /**
+     * Deletes changes older than the retention period. Clients behind a purged change resync.
+     */
+    @Scheduled(fixedDelayString = "${friendship.change-log.purge-interval:PT6H}")
+    public void purgeExpired() {
+        int deleted = changeRepository.deleteRecordedBefore(Instant.now().minus(retention));
+        logger.debug("Purged {} friend list changes.", deleted);
+    }
+}
@@ -0,0 +1,174 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.dto.FriendSuggestionDto;
+import com.eric.securechat.user.dto.UserDto;
+import com.eric.securechat.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * "People you may know" suggestions ranked by the number of mutual friends.
+ * A periodic batch job walks a snapshot of the in-memory {@link FriendshipGraph}: for every user,
+ * the accepted friends of their accepted friends are counted in a dense int array indexed like
+ * the graph, users already related in any status are dropped, and the top K are kept. Users are
+ * processed in parallel chunks, each with its own counter array. Requests only read the stored
+ * results, re-check them against the live graph and load the profiles of the few users returned,
+ * so serving a suggestion never touches the friendships table.
+ */
+@Component
+public class FriendSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendSuggestionIndex.class);
+
+    private final FriendshipGraph friendshipGraph;
+    private final UserRepository userRepository;
+    private final int topK;
+    private volatile Map<UUID, Ranked> suggestions = Map.of();
+
+    /**
+     * Constructor for FriendSuggestionIndex.
+     *
+     * @param friendshipGraph In-memory friendship graph
+     * @param userRepository Repository for loading suggested users' profiles
+     * @param topK Number of suggestions kept per user
+     */
+    public FriendSuggestionIndex(FriendshipGraph friendshipGraph, UserRepository userRepository,
+                                 @Value("${friendship.suggestions.top-k:20}") int topK) {
+        this.friendshipGraph = friendshipGraph;
+        this.userRepository = userRepository;
+        this.topK = topK;
+    }
+
+    /**
+     * Recomputes the suggestions of every user and swaps them in.
+     */
+    @Scheduled(initialDelayString = "${friendship.suggestions.initial-delay:PT1M}", fixedDelayString = "${friendship.suggestions.refresh-interval:PT30M}")
+    public void refresh() {
+        long started = System.nanoTime();
+        FriendshipGraph.Snapshot snapshot = friendshipGraph.snapshot();
+        int users = snapshot.userIds().length;
+        int chunkSize = Math.max(1024, users / (Runtime.getRuntime().availableProcessors() * 4) + 1);
+        Map<UUID, Ranked> computed = new ConcurrentHashMap<>();
+        IntStream.range(0, (users + chunkSize - 1) / chunkSize).parallel().forEach(chunk -> {
+            int[] counts = new int[users];
+            int[] touched = new int[users];
+            for (int user = chunk * chunkSize; user < Math.min(users, (chunk + 1) * chunkSize); user++) {
+                Ranked ranked = rank(snapshot, user, counts, touched);
+                if (ranked != null) {
+                    computed.put(snapshot.userIds()[user], ranked);
+                }
+            }
+        });
+        suggestions = computed;
+        logger.info("Computed friend suggestions for {} of {} users in {} ms.",
+                computed.size(), users, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Ranks one user's friends of friends by mutual friend count.
+     * {@code counts} must be all zero on entry and is left that way.
+     */
+    private Ranked rank(FriendshipGraph.Snapshot snapshot, int user, int[] counts, int[] touched) {
+        int touchedCount = 0;
+        for (int friend : snapshot.friends()[user]) {
+            for (int candidate : snapshot.friends()[friend]) {
+                if (candidate != user && counts[candidate]++ == 0) {
+                    touched[touchedCount++] = candidate;
+                }
+            }
+        }
+        if (touchedCount == 0) {
+            return null;
+        }
+        for (int related : snapshot.neighbors()[user]) {
+            counts[related] = 0;
+        }
+
+        // Keep the top K ordered by count, then index, with insertion into a small sorted array
+        int[] best = new int[topK];
+        int[] bestCounts = new int[topK];
+        int size = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int candidate = touched[i];
+            int count = counts[candidate];
+            counts[candidate] = 0;
+            if (count == 0 || (size == topK && (count < bestCounts[size - 1]
+                    || (count == bestCounts[size - 1] && candidate > best[size - 1])))) {
+                continue;
+            }
+            int position = Math.min(size, topK - 1);
+            while (position > 0 && (bestCounts[position - 1] < count
+                    || (bestCounts[position - 1] == count && best[position - 1] > candidate))) {
+                best[position] = best[position - 1];
+                bestCounts[position] = bestCounts[position - 1];
+                position--;
+            }
+            best[position] = candidate;
+            bestCounts[position] = count;
+            size = Math.min(size + 1, topK);
+        }
+        if (size == 0) {
+            return null;
+        }
+        UUID[] userIds = new UUID[size];
+        int[] mutualFriends = new int[size];
+        for (int i = 0; i < size; i++) {
+            userIds[i] = snapshot.userIds()[best[i]];
+            mutualFriends[i] = bestCounts[i];
+        }
+        return new Ranked(userIds, mutualFriends);
+    }
+
+    /**
+     * Gets a user's suggestions, best first.
+     * Users the user became related to since the last refresh are skipped.
+     *
+     * @param userId The id of the user
+     * @param limit Maximum number of suggestions
+     * @return Suggested users with their mutual friend counts
+     */
+    public List<FriendSuggestionDto> suggest(UUID userId, int limit) {
+        Ranked ranked = suggestions.get(userId);
+        if (ranked == null) {
+            return List.of();
+        }
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < ranked.userIds.length && kept.size() < limit; i++) {
+            if (friendshipGraph.find(userId, ranked.userIds[i]).isEmpty()) {
+                kept.add(i);
+            }
+        }
+        if (kept.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, UserDto> profiles = new HashMap<>();
+        for (UserDto profile : userRepository.findProfilesByIdIn(kept.stream().map(i -> ranked.userIds[i]).toList())) {
+            profiles.put(profile.getId(), profile);
+        }
+        List<FriendSuggestionDto> result = new ArrayList<>(kept.size());
+        for (int i : kept) {
+            UserDto profile = profiles.get(ranked.userIds[i]);
+            if (profile != null) {
+                result.add(new FriendSuggestionDto(profile.getId(), profile.getUsername(), profile.getNickname(), ranked.mutualFriends[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Top suggestions of one user, best first.
+     */
+    private record Ranked(UUID[] userIds, int[] mutualFriends) {
+    }
+}
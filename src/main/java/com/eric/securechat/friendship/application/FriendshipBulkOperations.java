@@ -0,0 +1,227 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.BulkRelationshipAction;
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+import com.eric.securechat.friendship.domain.FriendshipDirection;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
+import com.eric.securechat.friendship.domain.FriendshipId;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.BulkRelationshipRequest;
+import com.eric.securechat.friendship.dto.BulkRelationshipResult;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.message.application.ConversationPurger;
+import com.eric.securechat.user.domain.UserIdentity;
+import com.eric.securechat.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies one relationship change (block, unblock or unfriend) to many users at once.
+ * Target users and their existing relationships are each resolved with a single query, all
+ * row changes go out as one JDBC batch in the caller's transaction, and conversation deletes
+ * for unfriended users run in the background after commit. Each statement re-checks the state
+ * it expects, so a relationship changed concurrently is reported as skipped instead of being
+ * overwritten. Graph updates and change events match the single-user operations.
+ */
+@Component
+public class FriendshipBulkOperations {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendshipBulkOperations.class);
+
+    private static final String BLOCK_SQL = "INSERT INTO friendship_pairs " +
+            "(user_low_id, user_high_id, direction, status, action_user_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'BLOCKED', ?, ?, ?) " +
+            "ON CONFLICT (user_low_id, user_high_id) DO UPDATE SET " +
+            "status = 'BLOCKED', action_user_id = EXCLUDED.action_user_id, updated_at = EXCLUDED.updated_at";
+    private static final String UNBLOCK_SQL = "UPDATE friendship_pairs SET status = 'ACCEPTED', action_user_id = NULL, updated_at = ? " +
+            "WHERE user_low_id = ? AND user_high_id = ? AND status = 'BLOCKED' AND action_user_id = ?";
+    private static final String UNFRIEND_SQL = "DELETE FROM friendship_pairs " +
+            "WHERE user_low_id = ? AND user_high_id = ? AND status = 'ACCEPTED'";
+
+    private final UserRepository userRepository;
+    private final FriendshipRepository friendshipRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FriendshipGraph friendshipGraph;
+    private final ConversationPurger conversationPurger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxTargets;
+
+    /**
+     * Constructor for FriendshipBulkOperations.
+     *
+     * @param userRepository Repository for resolving target users
+     * @param friendshipRepository Repository for friendship data operations
+     * @param jdbcTemplate Template for the batched row changes
+     * @param friendshipGraph In-memory friendship graph, updated after commit
+     * @param conversationPurger Background deleter for unfriended users' conversations
+     * @param eventPublisher Publisher for friendship change events
+     * @param maxTargets Maximum number of users per request
+     */
+    public FriendshipBulkOperations(UserRepository userRepository, FriendshipRepository friendshipRepository,
+                                    JdbcTemplate jdbcTemplate, FriendshipGraph friendshipGraph,
+                                    ConversationPurger conversationPurger, ApplicationEventPublisher eventPublisher,
+                                    @Value("${friendship.bulk.max-targets:200}") int maxTargets) {
+        this.userRepository = userRepository;
+        this.friendshipRepository = friendshipRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.friendshipGraph = friendshipGraph;
+        this.conversationPurger = conversationPurger;
+        this.eventPublisher = eventPublisher;
+        this.maxTargets = maxTargets;
+    }
+
+    /**
+     * Applies a change to every target user the change is valid for.
+     *
+     * @param actor The user making the change
+     * @param request The change and its target usernames
+     * @return Per-target outcome
+     * @throws IllegalArgumentException if the action or targets are missing or there are too many targets
+     */
+    @Transactional
+    public BulkRelationshipResult apply(UserIdentity actor, BulkRelationshipRequest request) {
+        if (request.action() == null || request.usernames() == null || request.usernames().isEmpty()) {
+            throw new IllegalArgumentException("action and usernames must be provided.");
+        }
+        LinkedHashSet<String> usernames = new LinkedHashSet<>(request.usernames());
+        if (usernames.size() > maxTargets) {
+            throw new IllegalArgumentException("At most " + maxTargets + " users can be changed at once.");
+        }
+
+        Map<String, String> skipped = new LinkedHashMap<>();
+        if (usernames.remove(actor.username())) {
+            skipped.put(actor.username(), "You cannot change your relationship with yourself.");
+        }
+        Map<String, UserIdentity> targets = new HashMap<>();
+        for (UserIdentity target : userRepository.findIdentitiesByUsernameIn(usernames)) {
+            targets.put(target.username(), target);
+        }
+        List<String> notFound = new ArrayList<>();
+        List<UserIdentity> found = new ArrayList<>();
+        for (String username : usernames) {
+            UserIdentity target = targets.get(username);
+            if (target == null) {
+                notFound.add(username);
+            } else {
+                found.add(target);
+            }
+        }
+
+        Map<UUID, FriendshipEdge> existing = new HashMap<>();
+        if (!found.isEmpty()) {
+            for (FriendshipEdge edge : friendshipRepository.findEdgesBetween(actor.id(), found.stream().map(UserIdentity::id).toList())) {
+                existing.put(edge.requesterId().equals(actor.id()) ? edge.addresseeId() : edge.requesterId(), edge);
+            }
+        }
+
+        List<UserIdentity> eligible = new ArrayList<>();
+        for (UserIdentity target : found) {
+            String reason = ineligibility(request.action(), actor, existing.get(target.id()));
+            if (reason != null) {
+                skipped.put(target.username(), reason);
+            } else {
+                eligible.add(target);
+            }
+        }
+
+        int[] counts = write(request.action(), actor, eligible, existing);
+        List<String> applied = new ArrayList<>();
+        List<UUID> changed = new ArrayList<>();
+        List<UUID> unfriended = new ArrayList<>();
+        for (int i = 0; i < eligible.size(); i++) {
+            UserIdentity target = eligible.get(i);
+            if (counts[i] == 0) {
+                skipped.put(target.username(), "The relationship changed in the meantime.");
+                continue;
+            }
+            applied.add(target.username());
+            changed.add(target.id());
+            publishChange(request.action(), actor, target);
+            if (request.action() == BulkRelationshipAction.UNFRIEND) {
+                unfriended.add(target.id());
+            }
+        }
+        friendshipGraph.refreshAfterCommit(actor.id(), changed);
+        conversationPurger.purgeAfterCommit(actor.id(), unfriended);
+
+        logger.info("User '{}' applied {} to {} users ({} skipped, {} not found).",
+                actor.username(), request.action(), applied.size(), skipped.size(), notFound.size());
+        return new BulkRelationshipResult(applied, skipped, notFound);
+    }
+
+    /**
+     * Checks a target against the rules of the single-user operation.
+     *
+     * @return Why the change does not apply, or null if it does
+     */
+    private static String ineligibility(BulkRelationshipAction action, UserIdentity actor, FriendshipEdge edge) {
+        return switch (action) {
+            case BLOCK -> edge != null && edge.status() == FriendshipStatus.BLOCKED && actor.id().equals(edge.actionUserId())
+                    ? "This user is already blocked." : null;
+            case UNBLOCK -> edge == null || edge.status() != FriendshipStatus.BLOCKED ? "This user is not blocked."
+                    : !actor.id().equals(edge.actionUserId()) ? "Only the user who initiated the block can unblock." : null;
+            case UNFRIEND -> edge == null || edge.status() != FriendshipStatus.ACCEPTED
+                    ? "You can only unfriend someone who is currently your friend." : null;
+        };
+    }
+
+    /**
+     * Sends the row changes of all eligible targets as one batch.
+     *
+     * @return Affected row count per target
+     */
+    private int[] write(BulkRelationshipAction action, UserIdentity actor, List<UserIdentity> targets, Map<UUID, FriendshipEdge> existing) {
+        if (targets.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(targets.size());
+        for (UserIdentity target : targets) {
+            FriendshipId pair = FriendshipId.between(actor.id(), target.id());
+            switch (action) {
+                case BLOCK -> {
+                    FriendshipEdge edge = existing.get(target.id());
+                    UUID requesterId = edge != null ? edge.requesterId() : actor.id();
+                    FriendshipDirection direction = requesterId.equals(pair.getUserLowId())
+                            ? FriendshipDirection.LOW_TO_HIGH : FriendshipDirection.HIGH_TO_LOW;
+                    rows.add(new Object[]{pair.getUserLowId(), pair.getUserHighId(), direction.name(), actor.id(), now, now});
+                }
+                case UNBLOCK -> rows.add(new Object[]{now, pair.getUserLowId(), pair.getUserHighId(), actor.id()});
+                case UNFRIEND -> rows.add(new Object[]{pair.getUserLowId(), pair.getUserHighId()});
+            }
+        }
+        String sql = switch (action) {
+            case BLOCK -> BLOCK_SQL;
+            case UNBLOCK -> UNBLOCK_SQL;
+            case UNFRIEND -> UNFRIEND_SQL;
+        };
+        return jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    /**
+     * Publishes the change event of an applied change.
+     */
+    private void publishChange(BulkRelationshipAction action, UserIdentity actor, UserIdentity target) {
+        FriendshipChangeType type = switch (action) {
+            case BLOCK -> FriendshipChangeType.BLOCKED;
+            case UNBLOCK -> FriendshipChangeType.UNBLOCKED;
+            case UNFRIEND -> FriendshipChangeType.UNFRIENDED;
+        };
+        eventPublisher.publishEvent(new FriendshipChangedEvent(type, actor.id(), actor.username(), target.id(), target.username()));
+    }
+}
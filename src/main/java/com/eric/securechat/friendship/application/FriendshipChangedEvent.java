@@ -0,0 +1,19 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+
+import java.util.UUID;
+
+/**
+ * Application event published by every friendship mutation.
+ * Listeners run after the mutation commits and use it to invalidate cached friend data.
+ *
+ * @param type What happened
+ * @param actorId The id of the user who made the change
+ * @param actorUsername The username of the user who made the change
+ * @param targetId The id of the other user of the relationship
+ * @param targetUsername The username of the other user of the relationship
+ */
+public record FriendshipChangedEvent(FriendshipChangeType type, UUID actorId, String actorUsername,
+                                     UUID targetId, String targetUsername) {
+}
@@ -0,0 +1,49 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.chat.application.WebSocketService;
+import com.eric.securechat.friendship.dto.FriendshipEventNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+/**
+ * Pushes friendship changes to the user on the other side of the change, so clients learn about
+ * requests, accepts, declines, blocks and unblocks without polling.
+ * Runs after the change commits, so users are never told about a change that was rolled back.
+ */
+@Component
+public class FriendshipEventNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendshipEventNotifier.class);
+
+    /**
+     * User destination that clients subscribe to for friendship changes.
+     */
+    public static final String FRIENDSHIP_EVENTS_QUEUE = "/queue/friendship-events";
+
+    private final WebSocketService webSocketService;
+
+    /**
+     * Constructor for FriendshipEventNotifier.
+     *
+     * @param webSocketService Service for WebSocket pushes
+     */
+    public FriendshipEventNotifier(WebSocketService webSocketService) {
+        this.webSocketService = webSocketService;
+    }
+
+    /**
+     * Sends the change to the user it was made to.
+     *
+     * @param event The friendship change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendshipChanged(FriendshipChangedEvent event) {
+        webSocketService.sendToUser(event.targetUsername(), FRIENDSHIP_EVENTS_QUEUE,
+                new FriendshipEventNotification(event.type(), event.actorUsername(), Instant.now()));
+        logger.debug("Notified '{}' that '{}' {} the friendship.", event.targetUsername(), event.actorUsername(), event.type());
+    }
+}
@@ -0,0 +1,329 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendshipEdge;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Process-wide, in-memory copy of the friendships table used to authorize hot paths such as
+ * message sends without a database round trip.
+ * Users are mapped once to dense int indexes; each user's adjacency is an immutable pair of
+ * sorted int arrays (neighbor index, packed edge), so a lookup is one map probe and a binary
+ * search over the user's neighbors without locking. Writers serialize on the graph and replace
+ * whole adjacency entries.
+ * The graph is loaded at startup and refreshed by every friendship mutation once its transaction
+ * commits. A refresh re-reads the changed rows and applies them under the graph lock, so when two
+ * transactions on the same pair run their callbacks out of commit order the later read still wins.
+ * Like the in-memory STOMP broker, it assumes a single application instance: changes
+ * made by another instance would never reach it.
+ */
+@Component
+@DependsOn("friendshipPairMigration")
+public class FriendshipGraph {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendshipGraph.class);
+
+    private static final FriendshipStatus[] STATUSES = FriendshipStatus.values();
+    private static final int STATUS_MASK = 0b111;
+    private static final int REQUESTER_IS_SELF = 1 << 3;
+    private static final int ACTION_SHIFT = 4;
+    private static final int ACTION_NONE = 0;
+    private static final int ACTION_SELF = 1;
+    private static final int ACTION_OTHER = 2;
+
+    private final FriendshipRepository friendshipRepository;
+    private volatile Graph graph = new Graph();
+
+    /**
+     * Constructor for FriendshipGraph.
+     *
+     * @param friendshipRepository Repository for friendship data operations
+     */
+    public FriendshipGraph(FriendshipRepository friendshipRepository) {
+        this.friendshipRepository = friendshipRepository;
+    }
+
+    /**
+     * Loads all friendships at startup, before any request can change them.
+     */
+    @PostConstruct
+    public void load() {
+        List<FriendshipEdge> edges = friendshipRepository.findAllEdges();
+        Graph loaded = new Graph();
+        for (FriendshipEdge edge : edges) {
+            loaded.put(edge);
+        }
+        synchronized (this) {
+            graph = loaded;
+        }
+        logger.info("Loaded {} friendships into the friendship graph.", edges.size());
+    }
+
+    /**
+     * Finds the relationship between two users.
+     *
+     * @param userId The first user
+     * @param otherUserId The second user
+     * @return Optional containing the friendship if one exists in either direction
+     */
+    public Optional<FriendshipEdge> find(UUID userId, UUID otherUserId) {
+        return Optional.ofNullable(graph.get(userId, otherUserId));
+    }
+
+    /**
+     * Copies the graph into plain arrays for batch analysis.
+     * Only adjacency references are copied under the lock; the arrays themselves are immutable.
+     *
+     * @return Users by dense index with their neighbors and accepted friends
+     */
+    public Snapshot snapshot() {
+        Graph current;
+        Adjacency[] adjacencies;
+        UUID[] userIds;
+        synchronized (this) {
+            current = graph;
+            userIds = new UUID[current.size];
+            adjacencies = new Adjacency[current.size];
+            for (Map.Entry<UUID, Integer> entry : current.indexes.entrySet()) {
+                userIds[entry.getValue()] = entry.getKey();
+                adjacencies[entry.getValue()] = current.adjacency.get(entry.getValue());
+            }
+        }
+        int[][] neighbors = new int[userIds.length][];
+        int[][] friends = new int[userIds.length][];
+        for (int i = 0; i < adjacencies.length; i++) {
+            Adjacency adjacency = Adjacency.orEmpty(adjacencies[i]);
+            neighbors[i] = adjacency.neighbors;
+            friends[i] = adjacency.withStatus(FriendshipStatus.ACCEPTED);
+        }
+        return new Snapshot(userIds, neighbors, friends);
+    }
+
+    /**
+     * Re-reads a friendship once the current transaction commits.
+     *
+     * @param userId The first user
+     * @param otherUserId The second user
+     */
+    public void refreshAfterCommit(UUID userId, UUID otherUserId) {
+        refreshAfterCommit(userId, List.of(otherUserId));
+    }
+
+    /**
+     * Re-reads the friendships between a user and several others once the current transaction commits.
+     *
+     * @param userId The user
+     * @param otherUserIds The other users
+     */
+    public void refreshAfterCommit(UUID userId, Collection<UUID> otherUserIds) {
+        if (otherUserIds.isEmpty()) {
+            return;
+        }
+        List<UUID> others = List.copyOf(otherUserIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(userId, others);
+                }
+            });
+        } else {
+            refresh(userId, others);
+        }
+    }
+
+    /**
+     * Reads and applies the current rows under the lock, so a refresh that reads later also applies later.
+     */
+    private synchronized void refresh(UUID userId, List<UUID> otherUserIds) {
+        Map<UUID, FriendshipEdge> current = new HashMap<>();
+        for (FriendshipEdge edge : friendshipRepository.findEdgesBetween(userId, otherUserIds)) {
+            current.put(edge.requesterId().equals(userId) ? edge.addresseeId() : edge.requesterId(), edge);
+        }
+        for (UUID otherUserId : otherUserIds) {
+            FriendshipEdge edge = current.get(otherUserId);
+            if (edge != null) {
+                graph.put(edge);
+            } else {
+                graph.remove(userId, otherUserId);
+            }
+        }
+    }
+
+    /**
+     * Packs the relationship as seen from one of its users into an int.
+     */
+    private static int pack(FriendshipEdge edge, UUID self) {
+        int action = edge.actionUserId() == null ? ACTION_NONE
+                : edge.actionUserId().equals(self) ? ACTION_SELF : ACTION_OTHER;
+        return edge.status().ordinal()
+                | (edge.requesterId().equals(self) ? REQUESTER_IS_SELF : 0)
+                | action << ACTION_SHIFT;
+    }
+
+    private static FriendshipEdge unpack(int packed, UUID self, UUID other) {
+        boolean requesterIsSelf = (packed & REQUESTER_IS_SELF) != 0;
+        int action = packed >>> ACTION_SHIFT;
+        return new FriendshipEdge(
+                requesterIsSelf ? self : other,
+                requesterIsSelf ? other : self,
+                STATUSES[packed & STATUS_MASK],
+                action == ACTION_SELF ? self : action == ACTION_OTHER ? other : null);
+    }
+
+    /**
+     * Point-in-time copy of the graph. Index i of each array describes the same user;
+     * neighbor lists hold dense indexes, sorted ascending, and must not be modified.
+     *
+     * @param userIds User ids by dense index
+     * @param neighbors Indexes of every user each user has a relationship with, in any status
+     * @param friends Indexes of each user's accepted friends
+     */
+    public record Snapshot(UUID[] userIds, int[][] neighbors, int[][] friends) {
+    }
+
+    /**
+     * Index table and adjacency lists. Mutated only under the FriendshipGraph lock or before publication.
+     */
+    private static final class Graph {
+        private final Map<UUID, Integer> indexes = new ConcurrentHashMap<>();
+        private volatile AtomicReferenceArray<Adjacency> adjacency = new AtomicReferenceArray<>(1024);
+        private int size;
+
+        FriendshipEdge get(UUID userId, UUID otherUserId) {
+            Integer self = indexes.get(userId);
+            Integer other = indexes.get(otherUserId);
+            if (self == null || other == null) {
+                return null;
+            }
+            Adjacency neighbors = adjacency.get(self);
+            int position = neighbors == null ? -1 : Arrays.binarySearch(neighbors.neighbors, other);
+            return position < 0 ? null : unpack(neighbors.edges[position], userId, otherUserId);
+        }
+
+        void put(FriendshipEdge edge) {
+            int requester = indexOf(edge.requesterId());
+            int addressee = indexOf(edge.addresseeId());
+            AtomicReferenceArray<Adjacency> table = adjacency;
+            table.set(requester, Adjacency.orEmpty(table.get(requester)).with(addressee, pack(edge, edge.requesterId())));
+            table.set(addressee, Adjacency.orEmpty(table.get(addressee)).with(requester, pack(edge, edge.addresseeId())));
+        }
+
+        void remove(UUID userId, UUID otherUserId) {
+            Integer self = indexes.get(userId);
+            Integer other = indexes.get(otherUserId);
+            if (self == null || other == null) {
+                return;
+            }
+            AtomicReferenceArray<Adjacency> table = adjacency;
+            table.set(self, Adjacency.orEmpty(table.get(self)).without(other));
+            table.set(other, Adjacency.orEmpty(table.get(other)).without(self));
+        }
+
+        private int indexOf(UUID userId) {
+            Integer existing = indexes.get(userId);
+            if (existing != null) {
+                return existing;
+            }
+            int index = size++;
+            if (index == adjacency.length()) {
+                AtomicReferenceArray<Adjacency> grown = new AtomicReferenceArray<>(adjacency.length() * 2);
+                for (int i = 0; i < index; i++) {
+                    grown.set(i, adjacency.get(i));
+                }
+                adjacency = grown;
+            }
+            indexes.put(userId, index);
+            return index;
+        }
+    }
+
+    /**
+     * Immutable adjacency list of one user: sorted neighbor indexes with their packed edges.
+     */
+    private static final class Adjacency {
+        private static final Adjacency EMPTY = new Adjacency(new int[0], new int[0]);
+
+        private final int[] neighbors;
+        private final int[] edges;
+
+        private Adjacency(int[] neighbors, int[] edges) {
+            this.neighbors = neighbors;
+            this.edges = edges;
+        }
+
+        static Adjacency orEmpty(Adjacency adjacency) {
+            return adjacency == null ? EMPTY : adjacency;
+        }
+
+        Adjacency with(int neighbor, int edge) {
+            int position = Arrays.binarySearch(neighbors, neighbor);
+            if (position >= 0) {
+                int[] updatedEdges = edges.clone();
+                updatedEdges[position] = edge;
+                return new Adjacency(neighbors, updatedEdges);
+            }
+            int insertAt = -position - 1;
+            int[] grownNeighbors = new int[neighbors.length + 1];
+            int[] grownEdges = new int[edges.length + 1];
+            System.arraycopy(neighbors, 0, grownNeighbors, 0, insertAt);
+            System.arraycopy(edges, 0, grownEdges, 0, insertAt);
+            grownNeighbors[insertAt] = neighbor;
+            grownEdges[insertAt] = edge;
+            System.arraycopy(neighbors, insertAt, grownNeighbors, insertAt + 1, neighbors.length - insertAt);
+            System.arraycopy(edges, insertAt, grownEdges, insertAt + 1, edges.length - insertAt);
+            return new Adjacency(grownNeighbors, grownEdges);
+        }
+
+        int[] withStatus(FriendshipStatus status) {
+            int count = 0;
+            for (int edge : edges) {
+                if ((edge & STATUS_MASK) == status.ordinal()) {
+                    count++;
+                }
+            }
+            if (count == neighbors.length) {
+                return neighbors;
+            }
+            int[] matching = new int[count];
+            int next = 0;
+            for (int i = 0; i < edges.length; i++) {
+                if ((edges[i] & STATUS_MASK) == status.ordinal()) {
+                    matching[next++] = neighbors[i];
+                }
+            }
+            return matching;
+        }
+
+        Adjacency without(int neighbor) {
+            int position = Arrays.binarySearch(neighbors, neighbor);
+            if (position < 0) {
+                return this;
+            }
+            int[] shrunkNeighbors = new int[neighbors.length - 1];
+            int[] shrunkEdges = new int[edges.length - 1];
+            System.arraycopy(neighbors, 0, shrunkNeighbors, 0, position);
+            System.arraycopy(edges, 0, shrunkEdges, 0, position);
+            System.arraycopy(neighbors, position + 1, shrunkNeighbors, position, neighbors.length - position - 1);
+            System.arraycopy(edges, position + 1, shrunkEdges, position, edges.length - position - 1);
+            return new Adjacency(shrunkNeighbors, shrunkEdges);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendshipDirection;
+import com.eric.securechat.friendship.domain.FriendshipId;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One-time migration from the legacy {@code friendships} table, keyed by (requester, addressee) in
+ * request order, to {@code friendship_pairs}, keyed by the canonical (low id, high id) pair with a
+ * direction column. Runs at startup when the legacy table exists and the new one is still empty;
+ * if both directions of a pair exist, the row with the strongest status (BLOCKED, then ACCEPTED)
+ * wins, and the older row breaks ties. Pairs are canonicalized with {@link FriendshipId#between},
+ * so migrated keys match the ones the application builds. The legacy table is left in place and
+ * can be dropped once the migration is verified.
+ */
+@Component
+public class FriendshipPairMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendshipPairMigration.class);
+
+    private static final String SELECT_LEGACY_SQL = "SELECT requester_id, addressee_id, status, action_user_id, created_at, updated_at " +
+            "FROM friendships";
+
+    private static final String INSERT_SQL = "INSERT INTO friendship_pairs " +
+            "(user_low_id, user_high_id, direction, status, action_user_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_low_id, user_high_id) DO NOTHING";
+
+    /**
+     * A row of the legacy friendships table.
+     */
+    record LegacyFriendship(UUID requesterId, UUID addresseeId, FriendshipStatus status, UUID actionUserId,
+                            LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    private final FriendshipRepository friendshipRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    /**
+     * Constructor for FriendshipPairMigration.
+     * Depends on the repository so that Hibernate has created the new table first.
+     *
+     * @param friendshipRepository Repository for friendship data operations
+     * @param jdbcTemplate Template for the migration statements
+     * @param transactionManager Transaction manager for the copy
+     * @param enabled Whether the migration may run
+     */
+    public FriendshipPairMigration(FriendshipRepository friendshipRepository, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${friendship.pair-migration.enabled:true}") boolean enabled) {
+        this.friendshipRepository = friendshipRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Copies legacy friendships into canonical pairs if that has not happened yet.
+     */
+    @PostConstruct
+    void migrate() {
+        if (!enabled || friendshipRepository.count() > 0) {
+            return;
+        }
+        Boolean legacyTableExists = jdbcTemplate.queryForObject("SELECT to_regclass('friendships') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacyTableExists)) {
+            return;
+        }
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<LegacyFriendship> legacy = jdbcTemplate.query(SELECT_LEGACY_SQL, (rs, rowNum) -> new LegacyFriendship(
+                    rs.getObject("requester_id", UUID.class),
+                    rs.getObject("addressee_id", UUID.class),
+                    FriendshipStatus.valueOf(rs.getString("status")),
+                    rs.getObject("action_user_id", UUID.class),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getObject("updated_at", LocalDateTime.class)));
+            List<Object[]> rows = toPairRows(legacy);
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            return rows.size();
+        });
+        logger.info("Migrated {} legacy friendships to canonical pairs. The 'friendships' table is no longer used.", migrated);
+    }
+
+    /**
+     * Collapses legacy rows to one row per canonical pair.
+     *
+     * @param legacy Rows of the legacy table
+     * @return Insert parameters for friendship_pairs, one row per pair
+     */
+    static List<Object[]> toPairRows(List<LegacyFriendship> legacy) {
+        Map<FriendshipId, LegacyFriendship> winners = new LinkedHashMap<>();
+        for (LegacyFriendship row : legacy) {
+            winners.merge(FriendshipId.between(row.requesterId(), row.addresseeId()), row,
+                    (current, candidate) -> outranks(candidate, current) ? candidate : current);
+        }
+        List<Object[]> rows = new ArrayList<>(winners.size());
+        winners.forEach((id, row) -> rows.add(new Object[]{
+                id.getUserLowId(),
+                id.getUserHighId(),
+                (FriendshipId.isLow(row.requesterId(), row.addresseeId())
+                        ? FriendshipDirection.LOW_TO_HIGH : FriendshipDirection.HIGH_TO_LOW).name(),
+                row.status().name(),
+                row.actionUserId(),
+                row.createdAt(),
+                row.updatedAt()}));
+        return rows;
+    }
+
+    private static boolean outranks(LegacyFriendship candidate, LegacyFriendship current) {
+        int byStatus = Integer.compare(rank(candidate.status()), rank(current.status()));
+        return byStatus != 0 ? byStatus < 0 : candidate.createdAt().isBefore(current.createdAt());
+    }
+
+    private static int rank(FriendshipStatus status) {
+        return switch (status) {
+            case BLOCKED -> 0;
+            case ACCEPTED -> 1;
+            default -> 2;
+        };
+    }
+}
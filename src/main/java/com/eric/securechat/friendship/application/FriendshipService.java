@@ -1,12 +1,19 @@
 package com.eric.securechat.friendship.application;
 
-import com.eric.securechat.friendship.dto.FriendRequestViewDto;
+import com.eric.securechat.friendship.dto.BulkRelationshipRequest;
+import com.eric.securechat.friendship.dto.BulkRelationshipResult;
+import com.eric.securechat.friendship.dto.FriendListDelta;
 import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.dto.FriendSuggestionDto;
+import com.eric.securechat.friendship.dto.PendingRequestPage;
+import com.eric.securechat.friendship.dto.VersionedFriendList;
 import com.eric.securechat.friendship.domain.Friendship;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
 import com.eric.securechat.user.domain.User;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Service interface for managing friendship relationships between users.
@@ -15,12 +22,22 @@ import java.util.Optional;
 public interface FriendshipService {
 
     /**
-     * Retrieves all pending friend requests for the current user.
+     * Retrieves a page of pending friend requests for the current user, newest first.
      * 
      * @param currentUsername The username of the current logged-in user
-     * @return List of pending friend request DTOs
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param limit Maximum number of requests, capped at 100
+     * @return The page of pending friend request DTOs
      */
-    List<FriendRequestViewDto> getPendingRequests(String currentUsername);
+    PendingRequestPage getPendingRequests(String currentUsername, String cursor, int limit);
+
+    /**
+     * Counts the pending friend requests of the current user.
+     * 
+     * @param currentUsername The username of the current logged-in user
+     * @return The number of pending requests
+     */
+    long countPendingRequests(String currentUsername);
 
     /**
      * Sends a friend request from one user to another.
@@ -60,6 +77,42 @@ public interface FriendshipService {
      */
     List<FriendStatusDto> getFriendsList(String username);
 
+    /**
+     * Retrieves the friend list for a user together with a version that changes
+     * whenever the list does.
+     * 
+     * @param username The username to get friends for
+     * @return The friend list and its version
+     */
+    VersionedFriendList getVersionedFriendsList(String username);
+
+    /**
+     * Retrieves the changes to a user's friend list since a client-supplied version.
+     * 
+     * @param username The username to get changes for
+     * @param since The friend list version the client is at, 0 for none
+     * @return The changes, or the full list if the client has to resync
+     */
+    FriendListDelta getFriendListChanges(String username, long since);
+
+    /**
+     * Retrieves "people you may know" suggestions ranked by mutual friend count.
+     * 
+     * @param username The username to get suggestions for
+     * @param limit Maximum number of suggestions, capped at 50
+     * @return Suggested users with their mutual friend counts, best first
+     */
+    List<FriendSuggestionDto> getSuggestions(String username, int limit);
+
+    /**
+     * Blocks, unblocks or unfriends many users at once.
+     * 
+     * @param currentUsername The username of the user making the change
+     * @param request The change and its target usernames
+     * @return Per-target outcome
+     */
+    BulkRelationshipResult applyBulk(String currentUsername, BulkRelationshipRequest request);
+
     /**
      * Removes a user from the current user's friend list.
      * 
@@ -99,4 +152,14 @@ public interface FriendshipService {
      * @return Optional containing the friendship if it exists, empty otherwise
      */
     Optional<Friendship> findFriendshipRelation(User user1, User user2);
+
+    /**
+     * Finds the relationship between two users from the in-memory friendship graph.
+     * Intended for hot authorization checks such as message sends; never touches the database.
+     * 
+     * @param userId The first user's id
+     * @param otherUserId The second user's id
+     * @return Optional containing the relationship if it exists, empty otherwise
+     */
+    Optional<FriendshipEdge> findRelation(UUID userId, UUID otherUserId);
 }
@@ -1,24 +1,42 @@
 package com.eric.securechat.friendship.application;
 
 import com.eric.securechat.friendship.dto.FriendRequestViewDto;
+import com.eric.securechat.common.ratelimit.RateLimiter;
+import com.eric.securechat.friendship.dto.BulkRelationshipRequest;
+import com.eric.securechat.friendship.dto.BulkRelationshipResult;
+import com.eric.securechat.friendship.dto.FriendListDelta;
 import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.dto.FriendSuggestionDto;
+import com.eric.securechat.friendship.dto.PendingRequestPage;
+import com.eric.securechat.friendship.dto.VersionedFriendList;
 import com.eric.securechat.friendship.domain.Friendship;
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
 import com.eric.securechat.friendship.domain.FriendshipId;
 import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.user.application.UserIdentityCache;
+import com.eric.securechat.user.domain.UserIdentity;
 import com.eric.securechat.user.domain.User;
 import com.eric.securechat.friendship.repository.FriendshipRepository;
 import com.eric.securechat.message.repository.MessageRepository;
-import com.eric.securechat.user.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.UUID;
 
 /**
  * Implementation of FriendshipService for managing user friendship relationships.
@@ -29,21 +47,61 @@ import java.util.stream.Stream;
 @Slf4j
 public class FriendshipServiceImpl implements FriendshipService {
 
-    private final UserRepository userRepository;
+    /**
+     * Keyset start for the first page of pending requests: sorts after every stored request.
+     */
+    private static final LocalDateTime LAST_REQUEST_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final UUID LAST_REQUESTER_ID = new UUID(-1L, -1L);
+
+    /**
+     * Pending request order: newest first, ties broken by requester id as PostgreSQL orders uuids.
+     */
+    private static final Comparator<FriendRequestViewDto> NEWEST_FIRST = Comparator
+            .comparing(FriendRequestViewDto::sentAt)
+            .thenComparing(FriendRequestViewDto::requesterId,
+                    (a, b) -> a.equals(b) ? 0 : FriendshipId.isLow(a, b) ? -1 : 1)
+            .reversed();
+
+    private final UserIdentityCache userIdentityCache;
     private final FriendshipRepository friendshipRepository;
     private final MessageRepository messageRepository;
+    private final FriendshipGraph friendshipGraph;
+    private final FriendListCache friendListCache;
+    private final FriendListChangeLog friendListChangeLog;
+    private final FriendSuggestionIndex friendSuggestionIndex;
+    private final FriendshipBulkOperations friendshipBulkOperations;
+    private final RateLimiter rateLimiter;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructor for FriendshipServiceImpl.
      *
-     * @param userRepository         Repository for user data operations
+     * @param userIdentityCache      Cache resolving usernames to user references
      * @param friendshipRepository   Repository for friendship data operations
      * @param messageRepository      Repository for message data operations
+     * @param friendshipGraph        In-memory friendship graph, updated after every mutation commits
+     * @param friendListCache        Versioned per-user friend list cache
+     * @param friendListChangeLog    Per-user friend list change log for delta sync
+     * @param friendSuggestionIndex  Precomputed mutual-friend suggestions
+     * @param friendshipBulkOperations Bulk block, unblock and unfriend
+     * @param rateLimiter            Per-user limit on friend requests
+     * @param eventPublisher         Publisher for friendship change events
      */
-    public FriendshipServiceImpl(UserRepository userRepository, FriendshipRepository friendshipRepository, @Lazy MessageRepository messageRepository) {
-        this.userRepository = userRepository;
+    public FriendshipServiceImpl(UserIdentityCache userIdentityCache, FriendshipRepository friendshipRepository,
+                                 @Lazy MessageRepository messageRepository, FriendshipGraph friendshipGraph,
+                                 FriendListCache friendListCache, FriendListChangeLog friendListChangeLog,
+                                 FriendSuggestionIndex friendSuggestionIndex, FriendshipBulkOperations friendshipBulkOperations,
+                                 RateLimiter rateLimiter, ApplicationEventPublisher eventPublisher) {
+        this.userIdentityCache = userIdentityCache;
         this.friendshipRepository = friendshipRepository;
         this.messageRepository = messageRepository;
+        this.friendshipGraph = friendshipGraph;
+        this.friendListCache = friendListCache;
+        this.friendListChangeLog = friendListChangeLog;
+        this.friendSuggestionIndex = friendSuggestionIndex;
+        this.friendshipBulkOperations = friendshipBulkOperations;
+        this.rateLimiter = rateLimiter;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -66,8 +124,16 @@ public class FriendshipServiceImpl implements FriendshipService {
         }
 
         User requester = findUserByUsername(requesterUsername);
+        rateLimiter.acquireFriendRequest(requester.getId());
         User addressee = findUserByUsername(addresseeUsername);
 
+        // Blocked pairs are answered from the friendship graph, before the friendship row is fetched
+        Optional<FriendshipEdge> known = friendshipGraph.find(requester.getId(), addressee.getId());
+        if (known.isPresent() && known.get().status() == FriendshipStatus.BLOCKED) {
+            log.warn("Cannot send request from '{}' to '{}'. The relationship is BLOCKED.", requesterUsername, addresseeUsername);
+            throw blockedRequest(addressee.getId().equals(known.get().actionUserId()));
+        }
+
         Optional<Friendship> existingFriendshipOpt = findFriendshipRelation(requester, addressee);
 
         if (existingFriendshipOpt.isPresent()) {
@@ -77,11 +143,8 @@ public class FriendshipServiceImpl implements FriendshipService {
                     requesterUsername, addresseeUsername, status);
 
             if (status == FriendshipStatus.BLOCKED) {
-                if (existingFriendship.getActionUser() != null && existingFriendship.getActionUser().equals(addressee)) {
-                    throw new IllegalStateException("You are blocked by this user and cannot send a friend request.");
-                } else {
-                    throw new IllegalStateException("You have blocked this user. Please unblock them to send a request.");
-                }
+                throw blockedRequest(existingFriendship.getActionUser() != null
+                        && existingFriendship.getActionUser().getId().equals(addressee.getId()));
             }
             if (status == FriendshipStatus.ACCEPTED) {
                 throw new IllegalStateException("You are already friends.");
@@ -93,7 +156,15 @@ public class FriendshipServiceImpl implements FriendshipService {
         friendship.setActionUser(requester);
 
         log.info("Friend request from '{}' to '{}' created successfully.", requesterUsername, addresseeUsername);
-        return friendshipRepository.save(friendship);
+        Friendship saved = saveAndSyncGraph(friendship);
+        publishChange(FriendshipChangeType.REQUESTED, requester, requesterUsername, addressee, addresseeUsername);
+        return saved;
+    }
+
+    private static IllegalStateException blockedRequest(boolean blockedByAddressee) {
+        return new IllegalStateException(blockedByAddressee
+                ? "You are blocked by this user and cannot send a friend request."
+                : "You have blocked this user. Please unblock them to send a request.");
     }
 
     /**
@@ -113,14 +184,14 @@ public class FriendshipServiceImpl implements FriendshipService {
         User requester = findUserByUsername(requesterUsername);
         User addressee = findUserByUsername(currentUserUsername);
 
-        FriendshipId friendshipId = new FriendshipId(requester.getId(), addressee.getId());
-        Friendship friendship = friendshipRepository.findById(friendshipId)
+        Friendship friendship = friendshipRepository.findById(FriendshipId.between(requester.getId(), addressee.getId()))
+                .filter(found -> found.getRequesterId().equals(requester.getId()))
                 .orElseThrow(() -> new IllegalStateException("Friend request from '" + requesterUsername + "' not found."));
 
         if (friendship.getStatus() != FriendshipStatus.PENDING) {
             throw new IllegalStateException("This friend request is not pending. Current status: " + friendship.getStatus());
         }
-        if (!friendship.getAddressee().equals(addressee)) {
+        if (!friendship.getAddresseeId().equals(addressee.getId())) {
             throw new SecurityException("You are not authorized to accept this request.");
         }
 
@@ -128,7 +199,9 @@ public class FriendshipServiceImpl implements FriendshipService {
         friendship.setActionUser(addressee);
 
         log.info("User '{}' successfully accepted the friend request from '{}'.", currentUserUsername, requesterUsername);
-        return friendshipRepository.save(friendship);
+        Friendship saved = saveAndSyncGraph(friendship);
+        publishChange(FriendshipChangeType.ACCEPTED, addressee, currentUserUsername, requester, requesterUsername);
+        return saved;
     }
 
     /**
@@ -148,19 +221,21 @@ public class FriendshipServiceImpl implements FriendshipService {
         User requester = findUserByUsername(requesterUsername);
         User addressee = findUserByUsername(currentUserUsername);
 
-        FriendshipId friendshipId = new FriendshipId(requester.getId(), addressee.getId());
-        Friendship friendship = friendshipRepository.findById(friendshipId)
+        Friendship friendship = friendshipRepository.findById(FriendshipId.between(requester.getId(), addressee.getId()))
+                .filter(found -> found.getRequesterId().equals(requester.getId()))
                 .orElseThrow(() -> new IllegalStateException("Friend request from '" + requesterUsername + "' not found."));
 
         if (friendship.getStatus() != FriendshipStatus.PENDING) {
             throw new IllegalStateException("This request is not pending.");
         }
-        if (!friendship.getAddressee().equals(addressee)) {
+        if (!friendship.getAddresseeId().equals(addressee.getId())) {
             throw new SecurityException("You are not authorized to decline this request.");
         }
 
         friendshipRepository.delete(friendship);
+        friendshipGraph.refreshAfterCommit(requester.getId(), addressee.getId());
         log.info("Friend request from '{}' was declined and removed by '{}'.", requesterUsername, currentUserUsername);
+        publishChange(FriendshipChangeType.DECLINED, addressee, currentUserUsername, requester, requesterUsername);
 
         friendship.setStatus(FriendshipStatus.DECLINED);
         return friendship;
@@ -195,7 +270,9 @@ public class FriendshipServiceImpl implements FriendshipService {
         messageRepository.deleteConversation(currentUser.getId(), friendToUnfriend.getId());
 
         friendshipRepository.delete(friendship);
+        friendshipGraph.refreshAfterCommit(currentUser.getId(), friendToUnfriend.getId());
         log.info("User '{}' successfully unfriended '{}'.", currentUsername, friendUsername);
+        publishChange(FriendshipChangeType.UNFRIENDED, currentUser, currentUsername, friendToUnfriend, friendUsername);
 
         return friendship;
     }
@@ -224,21 +301,15 @@ public class FriendshipServiceImpl implements FriendshipService {
             friendship = friendshipOpt.get();
         } else {
             log.info("No existing relationship found. Creating new BLOCKED relationship for '{}' and '{}'.", blockerUsername, blockedUsername);
-            User requester, addressee;
-            if (blocker.getId().toString().compareTo(blocked.getId().toString()) < 0) {
-                requester = blocker;
-                addressee = blocked;
-            } else {
-                requester = blocked;
-                addressee = blocker;
-            }
-            friendship = new Friendship(requester, addressee);
+            friendship = new Friendship(blocker, blocked);
         }
 
         friendship.setStatus(FriendshipStatus.BLOCKED);
         friendship.setActionUser(blocker);
 
-        return friendshipRepository.save(friendship);
+        Friendship saved = saveAndSyncGraph(friendship);
+        publishChange(FriendshipChangeType.BLOCKED, blocker, blockerUsername, blocked, blockedUsername);
+        return saved;
     }
 
     /**
@@ -250,55 +321,131 @@ public class FriendshipServiceImpl implements FriendshipService {
      */
     @Override
     public List<FriendStatusDto> getFriendsList(String username) {
+        return getVersionedFriendsList(username).friends();
+    }
+
+    /**
+     * Retrieves the friend list for a user together with its version.
+     * Served from the friend list cache; a miss runs a single projection query.
+     *
+     * @param username The username to get friends for
+     * @return The friend list and its version
+     */
+    @Override
+    public VersionedFriendList getVersionedFriendsList(String username) {
         log.debug("Fetching friend and blocked list for user '{}'", username);
         User currentUser = findUserByUsername(username);
+        return friendListCache.get(username, currentUser.getId());
+    }
 
-        List<Friendship> acceptedFriendships = friendshipRepository.findAllByUserAndStatus(currentUser, FriendshipStatus.ACCEPTED);
-        List<Friendship> blockedFriendships = friendshipRepository.findAllByUserAndStatus(currentUser, FriendshipStatus.BLOCKED);
-
-        List<Friendship> allRelations = Stream.concat(acceptedFriendships.stream(), blockedFriendships.stream())
-                .collect(Collectors.toList());
-
-        return allRelations.stream()
-                .map(friendship -> {
-                    User otherUser = friendship.getRequester().equals(currentUser) ? friendship.getAddressee() : friendship.getRequester();
-                    return new FriendStatusDto(
-                            otherUser.getId(),
-                            otherUser.getUsername(),
-                            otherUser.getNickname(),
-                            friendship.getStatus(),
-                            otherUser.getEd25519PublicKey(),
-                            otherUser.getX25519PublicKey()
-                    );
-                })
-                .collect(Collectors.toList());
+    /**
+     * Retrieves the changes to a user's friend list since a client-supplied version.
+     *
+     * @param username The username to get changes for
+     * @param since The friend list version the client is at, 0 for none
+     * @return The changes, or the full list if the client has to resync
+     */
+    @Override
+    public FriendListDelta getFriendListChanges(String username, long since) {
+        User currentUser = findUserByUsername(username);
+        return friendListChangeLog.changesSince(currentUser.getId(), since);
+    }
+
+    /**
+     * Retrieves "people you may know" suggestions ranked by mutual friend count.
+     * Served from the precomputed suggestion index, checked against the friendship graph.
+     *
+     * @param username The username to get suggestions for
+     * @param limit Maximum number of suggestions, capped at 50
+     * @return Suggested users with their mutual friend counts, best first
+     */
+    @Override
+    public List<FriendSuggestionDto> getSuggestions(String username, int limit) {
+        User currentUser = findUserByUsername(username);
+        return friendSuggestionIndex.suggest(currentUser.getId(), Math.min(Math.max(limit, 1), 50));
     }
 
     /**
-     * Retrieves all pending friend requests for the current user.
+     * Blocks, unblocks or unfriends many users at once.
+     * Targets the change does not apply to are skipped with a reason instead of failing the request.
+     *
+     * @param currentUsername The username of the user making the change
+     * @param request The change and its target usernames
+     * @return Per-target outcome
+     */
+    @Override
+    public BulkRelationshipResult applyBulk(String currentUsername, BulkRelationshipRequest request) {
+        User currentUser = findUserByUsername(currentUsername);
+        return friendshipBulkOperations.apply(new UserIdentity(currentUser.getId(), currentUsername), request);
+    }
+
+    /**
+     * Retrieves a page of pending friend requests for the current user, newest first.
+     * Requests sent to the user as the high and as the low side of a pair live in separate
+     * index ranges; both are read in index order with a keyset condition and merged.
      *
      * @param currentUsername The username of the current logged-in user
-     * @return List of pending friend request DTOs
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param limit Maximum number of requests, capped at 100
+     * @return The page of pending friend request DTOs
      */
     @Override
     @Transactional(readOnly = true)
-    public List<FriendRequestViewDto> getPendingRequests(String currentUsername) {
+    public PendingRequestPage getPendingRequests(String currentUsername, String cursor, int limit) {
         log.debug("Fetching pending friend requests for user '{}'", currentUsername);
         User currentUser = findUserByUsername(currentUsername);
+        int pageSize = Math.min(Math.max(limit, 1), 100);
+
+        LocalDateTime before = LAST_REQUEST_TIME;
+        UUID beforeRequesterId = LAST_REQUESTER_ID;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            before = LocalDateTime.parse(position[0]);
+            beforeRequesterId = UUID.fromString(position[1]);
+        }
 
-        List<Friendship> pendingFriendships = friendshipRepository.findByAddresseeAndStatus(currentUser, FriendshipStatus.PENDING);
-
-        return pendingFriendships.stream()
-                .map(friendship -> {
-                    User requester = friendship.getRequester();
-                    return new FriendRequestViewDto(
-                            requester.getId(),
-                            requester.getUsername(),
-                            requester.getNickname(),
-                            friendship.getCreatedAt()
-                    );
-                })
-                .collect(Collectors.toList());
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+        List<FriendRequestViewDto> merged = new ArrayList<>(friendshipRepository.findPendingSentToHigh(currentUser.getId(), before, beforeRequesterId, fetch));
+        merged.addAll(friendshipRepository.findPendingSentToLow(currentUser.getId(), before, beforeRequesterId, fetch));
+        merged.sort(NEWEST_FIRST);
+
+        if (merged.size() <= pageSize) {
+            return new PendingRequestPage(merged, null);
+        }
+        List<FriendRequestViewDto> page = List.copyOf(merged.subList(0, pageSize));
+        FriendRequestViewDto last = page.get(pageSize - 1);
+        return new PendingRequestPage(page, encodeCursor(last.sentAt() + "|" + last.requesterId()));
+    }
+
+    /**
+     * Counts the pending friend requests of the current user.
+     *
+     * @param currentUsername The username of the current logged-in user
+     * @return The number of pending requests
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long countPendingRequests(String currentUsername) {
+        User currentUser = findUserByUsername(currentUsername);
+        return friendshipRepository.countPendingReceived(currentUser.getId());
+    }
+
+    private static String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            LocalDateTime.parse(position[0]);
+            UUID.fromString(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
     }
 
     /**
@@ -325,7 +472,7 @@ public class FriendshipServiceImpl implements FriendshipService {
             throw new IllegalStateException("This user is not blocked.");
         }
 
-        if (friendship.getActionUser() == null || !friendship.getActionUser().equals(currentUser)) {
+        if (friendship.getActionUser() == null || !friendship.getActionUser().getId().equals(currentUser.getId())) {
             log.warn("Security check failed: User '{}' tried to unblock '{}', but the original blocker was '{}'.",
                     currentUserUsername, blockedUsername,
                     friendship.getActionUser() != null ? friendship.getActionUser().getUsername() : "unknown");
@@ -334,7 +481,8 @@ public class FriendshipServiceImpl implements FriendshipService {
 
         friendship.setStatus(FriendshipStatus.ACCEPTED);
         friendship.setActionUser(null);
-        Friendship updatedFriendship = friendshipRepository.save(friendship);
+        Friendship updatedFriendship = saveAndSyncGraph(friendship);
+        publishChange(FriendshipChangeType.UNBLOCKED, currentUser, currentUserUsername, userToUnblock, blockedUsername);
 
         log.info("User '{}' successfully unblocked user '{}'. Their friendship status has been restored to ACCEPTED.",
                 currentUserUsername, blockedUsername);
@@ -344,7 +492,7 @@ public class FriendshipServiceImpl implements FriendshipService {
 
     /**
      * Finds friendship relationship between two users.
-     * Uses bidirectional query to check both directions.
+     * Friendships are keyed by the canonical (low id, high id) pair, so this is a single primary key lookup.
      *
      * @param user1 The first user
      * @param user2 The second user
@@ -353,18 +501,50 @@ public class FriendshipServiceImpl implements FriendshipService {
     @Override
     @Transactional(readOnly = true)
     public Optional<Friendship> findFriendshipRelation(User user1, User user2) {
-        return friendshipRepository.findFriendshipBetweenUsers(user1, user2);
+        return friendshipRepository.findById(FriendshipId.between(user1.getId(), user2.getId()));
+    }
+
+    /**
+     * Finds the relationship between two users from the in-memory friendship graph.
+     *
+     * @param userId The first user's id
+     * @param otherUserId The second user's id
+     * @return Optional containing the relationship if it exists, empty otherwise
+     */
+    @Override
+    public Optional<FriendshipEdge> findRelation(UUID userId, UUID otherUserId) {
+        return friendshipGraph.find(userId, otherUserId);
+    }
+
+    /**
+     * Saves a friendship and refreshes it in the friendship graph after commit.
+     *
+     * @param friendship The friendship to save
+     * @return The saved friendship
+     */
+    private Friendship saveAndSyncGraph(Friendship friendship) {
+        Friendship saved = friendshipRepository.save(friendship);
+        friendshipGraph.refreshAfterCommit(saved.getRequesterId(), saved.getAddresseeId());
+        return saved;
+    }
+
+    /**
+     * Publishes a friendship change; listeners run after the transaction commits.
+     */
+    private void publishChange(FriendshipChangeType type, User actor, String actorUsername, User target, String targetUsername) {
+        eventPublisher.publishEvent(new FriendshipChangedEvent(type, actor.getId(), actorUsername, target.getId(), targetUsername));
     }
 
     /**
      * Helper method to find user by username with unified error handling.
+     * Returns an unloaded reference resolved through the identity cache; associations
+     * loaded later in the same transaction resolve to the same instance.
      *
      * @param username The username to search for
-     * @return User entity
+     * @return Reference to the User entity
      * @throws UsernameNotFoundException if user is not found
      */
     private User findUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        return userIdentityCache.reference(username, name -> new UsernameNotFoundException("User not found: " + name));
     }
 }
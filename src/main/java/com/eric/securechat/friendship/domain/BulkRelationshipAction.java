@@ -0,0 +1,10 @@
+package com.eric.securechat.friendship.domain;
+
+/**
+ * Enum representing the relationship changes that can be applied to many users at once.
+ */
+public enum BulkRelationshipAction {
+    BLOCK,
+    UNBLOCK,
+    UNFRIEND
+}
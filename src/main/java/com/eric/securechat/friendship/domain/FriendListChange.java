@@ -0,0 +1,18 @@
+package com.eric.securechat.friendship.domain;
+
+import java.util.UUID;
+
+/**
+ * Change log entry joined with the other user's current profile and keys.
+ *
+ * @param version The owner's friend list version after the change
+ * @param userId The other user's id
+ * @param username The other user's username
+ * @param nickname The other user's nickname
+ * @param status The relationship's new status, or null if it was removed
+ * @param ed25519PublicKey The other user's Ed25519 public key
+ * @param x25519PublicKey The other user's X25519 public key
+ */
+public record FriendListChange(long version, UUID userId, String username, String nickname, FriendshipStatus status,
+                               String ed25519PublicKey, String x25519PublicKey) {
+}
@@ -0,0 +1,43 @@
+package com.eric.securechat.friendship.domain;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+/**
+ * Current friend list version of a user, i.e. the version of the user's latest
+ * {@link FriendshipChange}. Incrementing it locks the row, which orders concurrent changes
+ * of the same user by commit.
+ */
+@Entity
+@Table(name = "friend_list_versions")
+public class FriendListVersion {
+
+    /**
+     * The user the version belongs to.
+     */
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * The version of the user's latest change.
+     */
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected FriendListVersion() {
+    }
+
+    // Getters
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
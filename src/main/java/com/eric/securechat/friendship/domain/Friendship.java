@@ -8,16 +8,22 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Entity representing friendship relationships between users.
- * Uses composite primary key to ensure unique relationships.
+ * Uses a canonical (low id, high id) composite primary key, so there is exactly one row per pair
+ * of users and any relation check is a single primary key lookup. The direction column records
+ * which of the two sent the request. The addressee of a request is the high user for LOW_TO_HIGH
+ * and the low user for HIGH_TO_LOW, so each side has its own inbox index.
  */
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "friendships", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"requester_id", "addressee_id"})})
+@Table(name = "friendship_pairs", indexes = {
+        @Index(name = "idx_friendship_pairs_high_inbox", columnList = "user_high_id, direction, status, created_at, user_low_id"),
+        @Index(name = "idx_friendship_pairs_low_inbox", columnList = "user_low_id, direction, status, created_at, user_high_id")
+})
 public class Friendship {
 
     /**
@@ -27,20 +33,27 @@ public class Friendship {
     private FriendshipId id;
 
     /**
-     * The user who sent the friend request.
+     * The user with the lower id.
      */
     @ManyToOne(fetch = FetchType.LAZY)
-    @MapsId("requesterId")
-    @JoinColumn(name = "requester_id")
-    private User requester;
+    @MapsId("userLowId")
+    @JoinColumn(name = "user_low_id")
+    private User userLow;
 
     /**
-     * The user who received the friend request.
+     * The user with the higher id.
      */
     @ManyToOne(fetch = FetchType.LAZY)
-    @MapsId("addresseeId")
-    @JoinColumn(name = "addressee_id")
-    private User addressee;
+    @MapsId("userHighId")
+    @JoinColumn(name = "user_high_id")
+    private User userHigh;
+
+    /**
+     * Which user of the pair sent the request.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FriendshipDirection direction;
 
     /**
      * Current status of the friendship relationship.
@@ -77,9 +90,57 @@ public class Friendship {
      * @param addressee The user receiving the friend request
      */
     public Friendship(User requester, User addressee) {
-        this.id = new FriendshipId(requester.getId(), addressee.getId());
-        this.requester = requester;
-        this.addressee = addressee;
+        this.id = FriendshipId.between(requester.getId(), addressee.getId());
+        boolean requesterIsLow = this.id.getUserLowId().equals(requester.getId());
+        this.userLow = requesterIsLow ? requester : addressee;
+        this.userHigh = requesterIsLow ? addressee : requester;
+        this.direction = requesterIsLow ? FriendshipDirection.LOW_TO_HIGH : FriendshipDirection.HIGH_TO_LOW;
         this.status = FriendshipStatus.PENDING;
     }
+
+    /**
+     * Gets the user who sent the friend request.
+     * 
+     * @return The requester
+     */
+    public User getRequester() {
+        return direction == FriendshipDirection.LOW_TO_HIGH ? userLow : userHigh;
+    }
+
+    /**
+     * Gets the user who received the friend request.
+     * 
+     * @return The addressee
+     */
+    public User getAddressee() {
+        return direction == FriendshipDirection.LOW_TO_HIGH ? userHigh : userLow;
+    }
+
+    /**
+     * Gets the requester's id without loading the user.
+     * 
+     * @return The requester's id
+     */
+    public UUID getRequesterId() {
+        return direction == FriendshipDirection.LOW_TO_HIGH ? id.getUserLowId() : id.getUserHighId();
+    }
+
+    /**
+     * Gets the addressee's id without loading the user.
+     * 
+     * @return The addressee's id
+     */
+    public UUID getAddresseeId() {
+        return direction == FriendshipDirection.LOW_TO_HIGH ? id.getUserHighId() : id.getUserLowId();
+    }
+
+    /**
+     * Gets the other user of the pair.
+     * 
+     * @param userId The id of one user of the pair
+     * @return The other user
+     */
+    public User getOtherUser(UUID userId) {
+        return id.getUserLowId().equals(userId) ? userHigh : userLow;
+    }
 }
@@ -0,0 +1,105 @@
+package com.eric.securechat.friendship.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entry of a user's friend list change log.
+ * Records the state a relationship was left in after a change that affects the friend list;
+ * a null status means the relationship was removed from the list. Versions are per user, start
+ * at 1 and have no gaps, so a client can tell whether it has seen every change since its version.
+ */
+@Entity
+@Table(name = "friendship_changes", indexes = @Index(name = "idx_friendship_changes_owner_version", columnList = "owner_id, version", unique = true))
+public class FriendshipChange {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    /**
+     * The user whose friend list changed.
+     */
+    @Column(name = "owner_id", nullable = false)
+    private UUID ownerId;
+
+    /**
+     * The owner's friend list version after this change.
+     */
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * The other user of the relationship.
+     */
+    @Column(name = "other_user_id", nullable = false)
+    private UUID otherUserId;
+
+    /**
+     * The relationship's new status, or null if it was removed from the friend list.
+     */
+    @Enumerated(EnumType.STRING)
+    private FriendshipStatus status;
+
+    /**
+     * When the change was recorded.
+     */
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private Instant changedAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected FriendshipChange() {
+    }
+
+    /**
+     * Constructor for FriendshipChange.
+     *
+     * @param ownerId The user whose friend list changed
+     * @param version The owner's friend list version after this change
+     * @param otherUserId The other user of the relationship
+     * @param status The relationship's new status, or null if it was removed
+     */
+    public FriendshipChange(UUID ownerId, long version, UUID otherUserId, FriendshipStatus status) {
+        this.ownerId = ownerId;
+        this.version = version;
+        this.otherUserId = otherUserId;
+        this.status = status;
+    }
+
+    /**
+     * Sets the change timestamp before persisting the entity.
+     */
+    @PrePersist
+    protected void onCreate() {
+        changedAt = Instant.now();
+    }
+
+    // Getters
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public UUID getOtherUserId() {
+        return otherUserId;
+    }
+
+    public FriendshipStatus getStatus() {
+        return status;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,13 @@
+package com.eric.securechat.friendship.domain;
+
+/**
+ * Enum representing the kinds of changes to a friendship relationship.
+ */
+public enum FriendshipChangeType {
+    REQUESTED,
+    ACCEPTED,
+    DECLINED,
+    UNFRIENDED,
+    BLOCKED,
+    UNBLOCKED
+}
@@ -0,0 +1,16 @@
+package com.eric.securechat.friendship.domain;
+
+/**
+ * Enum representing which side of a canonical friendship pair sent the request.
+ * Friendship rows are keyed by (low user id, high user id); the direction keeps who asked whom.
+ */
+public enum FriendshipDirection {
+    /**
+     * The user with the lower id sent the request.
+     */
+    LOW_TO_HIGH,
+    /**
+     * The user with the higher id sent the request.
+     */
+    HIGH_TO_LOW
+}
@@ -0,0 +1,15 @@
+package com.eric.securechat.friendship.domain;
+
+import java.util.UUID;
+
+/**
+ * Id-only view of a friendship: both users, the status and who acted last.
+ * Used by the in-memory friendship graph and wherever a check does not need the entity.
+ *
+ * @param requesterId The id of the user who sent the request
+ * @param addresseeId The id of the user who received the request
+ * @param status The friendship status
+ * @param actionUserId The id of the user who performed the last action, may be null
+ */
+public record FriendshipEdge(UUID requesterId, UUID addresseeId, FriendshipStatus status, UUID actionUserId) {
+}
@@ -11,6 +11,8 @@ import java.util.UUID;
 /**
  * Composite primary key for Friendship entity.
  * Must implement Serializable and provide equals/hashCode methods.
+ * The pair is canonical: {@code userLowId} always sorts before {@code userHighId}, so the
+ * relationship between two users has exactly one key regardless of who sent the request.
  */
 @Data
 @NoArgsConstructor
@@ -19,6 +21,34 @@ import java.util.UUID;
 @Embeddable
 public class FriendshipId implements Serializable {
 
-    private UUID requesterId;
-    private UUID addresseeId;
+    private UUID userLowId;
+    private UUID userHighId;
+
+    /**
+     * Builds the canonical key of the relationship between two users.
+     *
+     * @param userId One user's id
+     * @param otherUserId The other user's id
+     * @return The key with the lower id first
+     */
+    public static FriendshipId between(UUID userId, UUID otherUserId) {
+        return isLow(userId, otherUserId) ? new FriendshipId(userId, otherUserId) : new FriendshipId(otherUserId, userId);
+    }
+
+    /**
+     * Checks whether a user is the low side of a pair.
+     * Ids are compared as unsigned bytes, the same order PostgreSQL uses for uuid columns,
+     * so keys built here match rows migrated with LEAST/GREATEST.
+     *
+     * @param userId The user to check
+     * @param otherUserId The other user of the pair
+     * @return true if {@code userId} sorts first
+     */
+    public static boolean isLow(UUID userId, UUID otherUserId) {
+        int mostSignificant = Long.compareUnsigned(userId.getMostSignificantBits(), otherUserId.getMostSignificantBits());
+        if (mostSignificant != 0) {
+            return mostSignificant < 0;
+        }
+        return Long.compareUnsigned(userId.getLeastSignificantBits(), otherUserId.getLeastSignificantBits()) < 0;
+    }
 }
@@ -0,0 +1,14 @@
+package com.eric.securechat.friendship.dto;
+
+import com.eric.securechat.friendship.domain.BulkRelationshipAction;
+
+import java.util.List;
+
+/**
+ * DTO for applying one relationship change to many users.
+ *
+ * @param action The change to apply
+ * @param usernames The users to apply it to
+ */
+public record BulkRelationshipRequest(BulkRelationshipAction action, List<String> usernames) {
+}
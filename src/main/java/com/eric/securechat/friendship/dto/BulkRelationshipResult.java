@@ -0,0 +1,14 @@
+package com.eric.securechat.friendship.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk relationship change, per target user.
+ *
+ * @param applied Usernames the change was applied to
+ * @param skipped Usernames the change did not apply to, with the reason
+ * @param notFound Usernames that do not exist
+ */
+public record BulkRelationshipResult(List<String> applied, Map<String, String> skipped, List<String> notFound) {
+}
@@ -0,0 +1,16 @@
+package com.eric.securechat.friendship.dto;
+
+import java.util.List;
+
+/**
+ * Changes to a user's friend list since a client-supplied version.
+ * When {@code resync} is set, the client's version could not be brought up to date from the
+ * change log and {@code changed} holds the complete list, which replaces the client's copy.
+ *
+ * @param version The friend list version the client is at after applying this response
+ * @param resync Whether {@code changed} is the complete friend list
+ * @param changed Relations that were added or changed status, with the other user's current profile and keys
+ * @param removed Usernames of users that are no longer in the friend list
+ */
+public record FriendListDelta(long version, boolean resync, List<FriendStatusDto> changed, List<String> removed) {
+}
@@ -0,0 +1,14 @@
+package com.eric.securechat.friendship.dto;
+
+import java.util.UUID;
+
+/**
+ * DTO for a "people you may know" suggestion.
+ *
+ * @param id The suggested user's id
+ * @param username The suggested user's username
+ * @param nickname The suggested user's nickname
+ * @param mutualFriends The number of accepted friends both users have in common
+ */
+public record FriendSuggestionDto(UUID id, String username, String nickname, int mutualFriends) {
+}
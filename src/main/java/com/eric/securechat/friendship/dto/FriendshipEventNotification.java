@@ -0,0 +1,15 @@
+package com.eric.securechat.friendship.dto;
+
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+
+import java.time.Instant;
+
+/**
+ * WebSocket payload telling a user that another user changed their relationship,
+ * e.g. sent them a friend request or accepted theirs.
+ */
+public record FriendshipEventNotification(
+        FriendshipChangeType type,
+        String username,
+        Instant occurredAt
+) {}
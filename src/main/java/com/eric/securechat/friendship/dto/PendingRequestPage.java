@@ -0,0 +1,12 @@
+package com.eric.securechat.friendship.dto;
+
+import java.util.List;
+
+/**
+ * One page of pending friend requests, newest first.
+ *
+ * @param requests The requests on this page
+ * @param nextCursor Cursor for the next page, or null if this is the last page
+ */
+public record PendingRequestPage(List<FriendRequestViewDto> requests, String nextCursor) {
+}
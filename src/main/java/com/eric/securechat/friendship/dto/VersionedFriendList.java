@@ -0,0 +1,10 @@
+package com.eric.securechat.friendship.dto;
+
+import java.util.List;
+
+/**
+ * Friend list together with its version, which the API sends as the ETag.
+ * The version changes whenever a relationship of the user or a friend's public key changes.
+ */
+public record VersionedFriendList(List<FriendStatusDto> friends, String version) {
+}
@@ -0,0 +1,69 @@
+package com.eric.securechat.friendship.repository;
+
+import com.eric.securechat.friendship.domain.FriendListChange;
+import com.eric.securechat.friendship.domain.FriendshipChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for the friend list change log.
+ */
+@Repository
+public interface FriendshipChangeRepository extends JpaRepository<FriendshipChange, UUID> {
+
+    /**
+     * Increments a user's friend list version, creating it on the first change.
+     * The version row stays locked until the calling transaction ends.
+     *
+     * @param userId The id of the user
+     * @return The new version
+     */
+    @Query(value = "INSERT INTO friend_list_versions (user_id, version) VALUES (:userId, 1) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET version = friend_list_versions.version + 1 " +
+                   "RETURNING version", nativeQuery = true)
+    long incrementVersion(@Param("userId") UUID userId);
+
+    /**
+     * Finds a user's current friend list version.
+     *
+     * @param userId The id of the user
+     * @return Optional containing the version if the user's friend list ever changed
+     */
+    @Query("SELECT v.version FROM FriendListVersion v WHERE v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") UUID userId);
+
+    /**
+     * Finds a user's changes after a version, oldest first, with the other user's current profile and keys.
+     *
+     * @param ownerId The id of the user
+     * @param since The version the client is at
+     * @param pageable Limits the number of changes returned
+     * @return Changes ordered by version
+     */
+    @Query("SELECT new com.eric.securechat.friendship.domain.FriendListChange(" +
+           "c.version, o.id, o.username, o.nickname, c.status, o.ed25519PublicKey, o.x25519PublicKey) " +
+           "FROM FriendshipChange c JOIN User o ON o.id = c.otherUserId " +
+           "WHERE c.ownerId = :ownerId AND c.version > :since ORDER BY c.version")
+    List<FriendListChange> findChangesSince(@Param("ownerId") UUID ownerId, @Param("since") long since, Pageable pageable);
+
+    /**
+     * Deletes changes recorded before a point in time.
+     *
+     * @param before The cut-off time
+     * @return The number of deleted rows
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FriendshipChange c WHERE c.changedAt < :before")
+    int deleteRecordedBefore(@Param("before") Instant before);
+}
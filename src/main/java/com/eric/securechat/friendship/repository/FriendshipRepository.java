@@ -1,16 +1,21 @@
 package com.eric.securechat.friendship.repository;
 
 import com.eric.securechat.friendship.domain.Friendship;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
 import com.eric.securechat.friendship.domain.FriendshipId;
 import com.eric.securechat.friendship.domain.FriendshipStatus;
-import com.eric.securechat.user.domain.User;
+import com.eric.securechat.friendship.dto.FriendRequestViewDto;
+import com.eric.securechat.friendship.dto.FriendStatusDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Repository interface for Friendship entity operations.
@@ -20,54 +25,110 @@ import java.util.Optional;
 public interface FriendshipRepository extends JpaRepository<Friendship, FriendshipId> {
 
     /**
-     * Finds a friendship request by requester and addressee.
-     * This query is directional (one-way).
-     *
-     * @param requester The user who sent the request
-     * @param addressee The user who received the request
-     * @return Optional containing the friendship if found, empty otherwise
+     * Finds a page of pending requests sent to the high user of a pair, newest first,
+     * with the requester's profile. Keyset pagination: only requests sorting after the
+     * given (created at, requester id) position are returned.
+     * 
+     * @param addresseeId The id of the user who received the requests
+     * @param before Creation time of the last request already returned
+     * @param beforeRequesterId Requester id of the last request already returned
+     * @param pageable Limits the number of requests returned
+     * @return Pending requests ordered by creation time and requester id, descending
+     */
+    @Query("SELECT new com.eric.securechat.friendship.dto.FriendRequestViewDto(r.id, r.username, r.nickname, f.createdAt) " +
+           "FROM Friendship f JOIN f.userLow r " +
+           "WHERE f.id.userHighId = :addresseeId " +
+           "AND f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.LOW_TO_HIGH " +
+           "AND f.status = com.eric.securechat.friendship.domain.FriendshipStatus.PENDING " +
+           "AND (f.createdAt < :before OR (f.createdAt = :before AND f.id.userLowId < :beforeRequesterId)) " +
+           "ORDER BY f.createdAt DESC, f.id.userLowId DESC")
+    List<FriendRequestViewDto> findPendingSentToHigh(@Param("addresseeId") UUID addresseeId, @Param("before") LocalDateTime before,
+                                                     @Param("beforeRequesterId") UUID beforeRequesterId, Pageable pageable);
+
+    /**
+     * Finds a page of pending requests sent to the low user of a pair, newest first,
+     * with the requester's profile. Counterpart of {@link #findPendingSentToHigh}.
+     * 
+     * @param addresseeId The id of the user who received the requests
+     * @param before Creation time of the last request already returned
+     * @param beforeRequesterId Requester id of the last request already returned
+     * @param pageable Limits the number of requests returned
+     * @return Pending requests ordered by creation time and requester id, descending
      */
-    Optional<Friendship> findByRequesterAndAddressee(User requester, User addressee);
+    @Query("SELECT new com.eric.securechat.friendship.dto.FriendRequestViewDto(r.id, r.username, r.nickname, f.createdAt) " +
+           "FROM Friendship f JOIN f.userHigh r " +
+           "WHERE f.id.userLowId = :addresseeId " +
+           "AND f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.HIGH_TO_LOW " +
+           "AND f.status = com.eric.securechat.friendship.domain.FriendshipStatus.PENDING " +
+           "AND (f.createdAt < :before OR (f.createdAt = :before AND f.id.userHighId < :beforeRequesterId)) " +
+           "ORDER BY f.createdAt DESC, f.id.userHighId DESC")
+    List<FriendRequestViewDto> findPendingSentToLow(@Param("addresseeId") UUID addresseeId, @Param("before") LocalDateTime before,
+                                                    @Param("beforeRequesterId") UUID beforeRequesterId, Pageable pageable);
 
     /**
-     * Finds friendship relationship between two users.
-     * Checks both directions since requester and addressee can be swapped.
-     *
-     * @param user1 The first user
-     * @param user2 The second user
-     * @return Optional containing the friendship if found, empty otherwise
+     * Counts the pending requests a user has received.
+     * 
+     * @param addresseeId The id of the user who received the requests
+     * @return The number of pending requests
      */
-    @Query("SELECT f FROM Friendship f WHERE " +
-            "(f.requester = :user1 AND f.addressee = :user2) OR " +
-            "(f.requester = :user2 AND f.addressee = :user1)")
-    Optional<Friendship> findFriendshipBetweenUsers(@Param("user1") User user1, @Param("user2") User user2);
+    @Query("SELECT COUNT(f) FROM Friendship f WHERE " +
+           "((f.id.userHighId = :addresseeId AND f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.LOW_TO_HIGH) OR " +
+           "(f.id.userLowId = :addresseeId AND f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.HIGH_TO_LOW)) " +
+           "AND f.status = com.eric.securechat.friendship.domain.FriendshipStatus.PENDING")
+    long countPendingReceived(@Param("addresseeId") UUID addresseeId);
 
     /**
-     * Finds friendships where the user is the requester with specified status.
+     * Finds the usernames of the other users in a user's friendships with specified statuses.
+     * Reads only the username column instead of loading friendships and users.
      * 
-     * @param requester The user who sent the requests
-     * @param status The friendship status to filter by
-     * @return List of friendships matching the criteria
+     * @param userId The id of the user to find friends for
+     * @param statuses The friendship statuses to filter by
+     * @return Usernames of the other side of each matching friendship
      */
-    List<Friendship> findByRequesterAndStatus(User requester, FriendshipStatus status);
-    
+    @Query("SELECT CASE WHEN l.id = :userId THEN h.username ELSE l.username END " +
+           "FROM Friendship f JOIN f.userLow l JOIN f.userHigh h " +
+           "WHERE (l.id = :userId OR h.id = :userId) AND f.status IN :statuses")
+    List<String> findFriendUsernames(@Param("userId") UUID userId, @Param("statuses") Collection<FriendshipStatus> statuses);
+
+    /**
+     * Builds a user's friend list with the other user's profile and keys in a single query.
+     * 
+     * @param userId The id of the user to list friends for
+     * @param statuses The friendship statuses to include
+     * @return One entry per matching friendship, ordered by username
+     */
+    @Query("SELECT new com.eric.securechat.friendship.dto.FriendStatusDto(" +
+           "o.id, o.username, o.nickname, f.status, o.ed25519PublicKey, o.x25519PublicKey) " +
+           "FROM Friendship f JOIN User o ON " +
+           "((f.id.userLowId = :userId AND o.id = f.id.userHighId) OR (f.id.userHighId = :userId AND o.id = f.id.userLowId)) " +
+           "WHERE f.status IN :statuses ORDER BY o.username")
+    List<FriendStatusDto> findFriendList(@Param("userId") UUID userId, @Param("statuses") Collection<FriendshipStatus> statuses);
+
     /**
-     * Finds friendships where the user is the addressee with specified status.
+     * Lists every friendship as ids and status, for loading the in-memory friendship graph.
      * 
-     * @param addressee The user who received the requests
-     * @param status The friendship status to filter by
-     * @return List of friendships matching the criteria
+     * @return All friendships without their users
      */
-    List<Friendship> findByAddresseeAndStatus(User addressee, FriendshipStatus status);
+    @Query("SELECT new com.eric.securechat.friendship.domain.FriendshipEdge(" +
+           "CASE WHEN f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.LOW_TO_HIGH THEN f.id.userLowId ELSE f.id.userHighId END, " +
+           "CASE WHEN f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.LOW_TO_HIGH THEN f.id.userHighId ELSE f.id.userLowId END, " +
+           "f.status, a.id) " +
+           "FROM Friendship f LEFT JOIN f.actionUser a")
+    List<FriendshipEdge> findAllEdges();
 
     /**
-     * Finds all friendships for a user with specified status.
-     * Checks both requester and addressee roles for the user.
+     * Lists the friendships between a user and several others as ids and status.
      * 
-     * @param user The user to find friendships for
-     * @param status The friendship status to filter by
-     * @return List of friendships matching the criteria
+     * @param userId The id of the user
+     * @param otherUserIds The ids of the other users
+     * @return The existing friendships, in no particular order
      */
-    @Query("SELECT f FROM Friendship f WHERE (f.requester = :user OR f.addressee = :user) AND f.status = :status")
-    List<Friendship> findAllByUserAndStatus(@Param("user") User user, @Param("status") FriendshipStatus status);
+    @Query("SELECT new com.eric.securechat.friendship.domain.FriendshipEdge(" +
+           "CASE WHEN f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.LOW_TO_HIGH THEN f.id.userLowId ELSE f.id.userHighId END, " +
+           "CASE WHEN f.direction = com.eric.securechat.friendship.domain.FriendshipDirection.LOW_TO_HIGH THEN f.id.userHighId ELSE f.id.userLowId END, " +
+           "f.status, a.id) " +
+           "FROM Friendship f LEFT JOIN f.actionUser a " +
+           "WHERE (f.id.userLowId = :userId AND f.id.userHighId IN :otherUserIds) " +
+           "OR (f.id.userHighId = :userId AND f.id.userLowId IN :otherUserIds)")
+    List<FriendshipEdge> findEdgesBetween(@Param("userId") UUID userId, @Param("otherUserIds") Collection<UUID> otherUserIds);
 }
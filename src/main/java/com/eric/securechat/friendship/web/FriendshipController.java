@@ -1,8 +1,13 @@
 package com.eric.securechat.friendship.web;
 
+import com.eric.securechat.common.exception.RateLimitExceededException;
+import com.eric.securechat.friendship.dto.BulkRelationshipRequest;
+import com.eric.securechat.friendship.dto.FriendListDelta;
 import com.eric.securechat.friendship.dto.FriendRequestDto;
-import com.eric.securechat.friendship.dto.FriendRequestViewDto;
+import com.eric.securechat.friendship.dto.PendingRequestPage;
 import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.dto.FriendSuggestionDto;
+import com.eric.securechat.friendship.dto.VersionedFriendList;
 import com.eric.securechat.friendship.domain.Friendship;
 import com.eric.securechat.friendship.application.FriendshipService;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +18,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.security.Principal;
 import java.util.List;
@@ -55,6 +61,8 @@ public class FriendshipController {
 
             return ResponseEntity.status(201).body(Map.of("message", "Friend request sent successfully."));
 
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -115,31 +123,75 @@ public class FriendshipController {
     }
 
     /**
-     * Endpoint to retrieve all pending friend requests for the current user.
+     * Endpoint to retrieve a page of pending friend requests for the current user, newest first.
      * 
+     * @param cursor The nextCursor of the previous page, omitted for the first page
+     * @param limit Maximum number of requests per page
      * @param principal The current authenticated user
-     * @return ResponseEntity containing a list of pending friend request DTOs
+     * @return ResponseEntity containing the page of pending friend request DTOs
      */
     @GetMapping("/requests/pending")
-    public ResponseEntity<List<FriendRequestViewDto>> getPendingRequests(Principal principal) {
+    public ResponseEntity<PendingRequestPage> getPendingRequests(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "50") int limit,
+                                                                 Principal principal) {
         String currentUsername = principal.getName();
-        List<FriendRequestViewDto> requests = friendshipService.getPendingRequests(currentUsername);
+        PendingRequestPage requests = friendshipService.getPendingRequests(currentUsername, cursor, limit);
         return ResponseEntity.ok(requests);
     }
 
+    /**
+     * Endpoint to count the pending friend requests of the current user, e.g. for a badge.
+     * 
+     * @param principal The current authenticated user
+     * @return ResponseEntity containing the number of pending requests
+     */
+    @GetMapping("/requests/pending/count")
+    public ResponseEntity<Map<String, Long>> countPendingRequests(Principal principal) {
+        return ResponseEntity.ok(Map.of("count", friendshipService.countPendingRequests(principal.getName())));
+    }
+
     /**
      * Endpoint to retrieve the current user's friend list with friendship status.
+     * The list version is sent as ETag; a request whose If-None-Match still matches gets 304 without a body.
      * 
+     * @param webRequest The current request, used for the conditional GET
      * @return ResponseEntity containing a list of friends with their status
      */
     @GetMapping("/my-friends")
-    public ResponseEntity<List<FriendStatusDto>> getMyFriends() {
+    public ResponseEntity<List<FriendStatusDto>> getMyFriends(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
 
-        List<FriendStatusDto> friendsWithStatus = friendshipService.getFriendsList(currentUsername);
+        VersionedFriendList friendsWithStatus = friendshipService.getVersionedFriendsList(currentUsername);
+        if (webRequest.checkNotModified(friendsWithStatus.version())) {
+            return null;
+        }
 
-        return ResponseEntity.ok(friendsWithStatus);
+        return ResponseEntity.ok().eTag(friendsWithStatus.version()).body(friendsWithStatus.friends());
+    }
+
+    /**
+     * Endpoint to retrieve the changes to the current user's friend list since a known version.
+     * 
+     * @param since The friend list version the client is at, 0 for none
+     * @param principal The current authenticated user
+     * @return ResponseEntity containing the changes, or the full list if the client has to resync
+     */
+    @GetMapping("/my-friends/changes")
+    public ResponseEntity<FriendListDelta> getMyFriendChanges(@RequestParam(defaultValue = "0") long since, Principal principal) {
+        return ResponseEntity.ok(friendshipService.getFriendListChanges(principal.getName(), since));
+    }
+
+    /**
+     * Endpoint to retrieve "people you may know" suggestions for the current user.
+     * 
+     * @param limit Maximum number of suggestions
+     * @param principal The current authenticated user
+     * @return ResponseEntity containing suggested users ranked by mutual friend count
+     */
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<FriendSuggestionDto>> getSuggestions(@RequestParam(defaultValue = "10") int limit, Principal principal) {
+        return ResponseEntity.ok(friendshipService.getSuggestions(principal.getName(), limit));
     }
 
     /**
@@ -191,6 +243,22 @@ public class FriendshipController {
         }
     }
 
+    /**
+     * Endpoint to block, unblock or unfriend many users at once.
+     * 
+     * @param request The change and its target usernames
+     * @param principal The current authenticated user
+     * @return ResponseEntity with the outcome per user or an error response
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> applyBulk(@RequestBody BulkRelationshipRequest request, Principal principal) {
+        try {
+            return ResponseEntity.ok(friendshipService.applyBulk(principal.getName(), request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Endpoint to unblock a previously blocked user.
      * 
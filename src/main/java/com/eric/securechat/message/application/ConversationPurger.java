@@ -0,0 +1,147 @@
+package com.eric.securechat.message.application;
+
+import com.eric.securechat.message.domain.ConversationPurge;
+import com.eric.securechat.message.repository.ConversationPurgeRepository;
+import com.eric.securechat.message.repository.MessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes conversation histories in the background, one conversation per transaction.
+ * Used by bulk relationship changes, so that the request only pays for the relationship rows
+ * and a large history never holds the request's transaction open.
+ * Only messages sent up to the moment the change committed are deleted, so a conversation the
+ * users start again after re-friending survives a purge that is still queued.
+ * Each purge is also recorded in the caller's transaction and the record is deleted with the
+ * messages. Purges the background thread never finished, because a delete failed or the
+ * application stopped, are retried from those records; a retry deletes messages up to the time
+ * the purge was recorded, just before the change committed.
+ */
+@Component
+public class ConversationPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationPurger.class);
+
+    private final MessageRepository messageRepository;
+    private final ConversationPurgeRepository purgeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retryDelay;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "conversation-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for ConversationPurger.
+     *
+     * @param messageRepository Repository for message data operations
+     * @param purgeRepository Repository for recorded purges
+     * @param transactionManager Transaction manager, one transaction per conversation
+     * @param retryDelay How old a recorded purge must be before it is retried
+     */
+    public ConversationPurger(MessageRepository messageRepository,
+                              ConversationPurgeRepository purgeRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${message.purge.retry-delay:PT5M}") Duration retryDelay) {
+        this.messageRepository = messageRepository;
+        this.purgeRepository = purgeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Records the conversations between a user and others for deletion in the current transaction and
+     * deletes them once it commits, up to the commit time. Nothing is deleted if the transaction rolls back.
+     *
+     * @param userId The user whose conversations are deleted
+     * @param otherUserIds The other users of the conversations
+     */
+    public void purgeAfterCommit(UUID userId, List<UUID> otherUserIds) {
+        if (otherUserIds.isEmpty()) {
+            return;
+        }
+        Instant recordedAt = Instant.now();
+        List<ConversationPurge> purges = purgeRepository.saveAll(otherUserIds.stream()
+                .map(otherUserId -> new ConversationPurge(userId, otherUserId, recordedAt))
+                .toList());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    Instant committedAt = Instant.now();
+                    executor.execute(() -> purge(userId, purges, committedAt));
+                }
+            });
+        } else {
+            executor.execute(() -> purge(userId, purges, recordedAt));
+        }
+    }
+
+    /**
+     * Retries recorded purges that the background thread did not finish.
+     */
+    @Scheduled(fixedDelayString = "${message.purge.retry-delay:PT5M}")
+    public void retryPending() {
+        List<ConversationPurge> pending = purgeRepository.findByUpToBeforeOrderByUpTo(Instant.now().minus(retryDelay));
+        int deleted = 0;
+        for (ConversationPurge purge : pending) {
+            if (delete(purge, purge.getUpTo())) {
+                deleted++;
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Retried {} pending conversation purges, {} succeeded.", pending.size(), deleted);
+        }
+    }
+
+    private void purge(UUID userId, List<ConversationPurge> purges, Instant upTo) {
+        int deleted = 0;
+        for (ConversationPurge purge : purges) {
+            if (delete(purge, upTo)) {
+                deleted++;
+            }
+        }
+        logger.info("Deleted {} of {} conversations of user {}.", deleted, purges.size(), userId);
+    }
+
+    private boolean delete(ConversationPurge purge, Instant upTo) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                messageRepository.deleteConversationUpTo(purge.getUserId(), purge.getOtherUserId(), upTo);
+                purgeRepository.deleteById(purge.getId());
+            });
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to delete the conversation between {} and {}.", purge.getUserId(), purge.getOtherUserId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Lets queued purges finish before shutdown.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Conversation purges were still running at shutdown.");
+        }
+    }
+}
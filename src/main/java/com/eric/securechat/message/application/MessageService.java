@@ -1,20 +1,21 @@
 package com.eric.securechat.message.application;
 
-import com.eric.securechat.message.dto.MessageResponse;
+import com.eric.securechat.common.exception.RateLimitExceededException;
+import com.eric.securechat.common.ratelimit.RateLimiter;
 import com.eric.securechat.message.dto.SendMessageRequest;
 import com.eric.securechat.user.exception.UserNotFoundException;
 import com.eric.securechat.friendship.application.FriendshipService;
-import com.eric.securechat.friendship.domain.Friendship;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
 import com.eric.securechat.friendship.domain.FriendshipStatus;
 import com.eric.securechat.message.domain.Message;
 import com.eric.securechat.message.domain.MessageType;
-import com.eric.securechat.user.domain.User;
+import com.eric.securechat.user.application.UserIdentityCache;
+import com.eric.securechat.user.domain.UserIdentity;
 import com.eric.securechat.message.repository.MessageRepository;
 import com.eric.securechat.user.repository.UserRepository;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,31 +33,37 @@ public class MessageService {
 
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
+    private final UserIdentityCache userIdentityCache;
     private final FriendshipService friendshipService;
-    private final SimpMessagingTemplate messagingTemplate;
     private final ModelMapper modelMapper;
+    private final RateLimiter rateLimiter;
 
     /**
      * Constructor for MessageService.
      * 
      * @param messageRepository Repository for message data operations
      * @param userRepository Repository for user data operations
+     * @param userIdentityCache Cache resolving usernames to user ids
      * @param friendshipService Service for friendship validation
-     * @param messagingTemplate Template for WebSocket messaging
      * @param modelMapper Mapper for object transformations
+     * @param rateLimiter Per-user limit on message sends
      */
-    public MessageService(MessageRepository messageRepository, UserRepository userRepository, FriendshipService friendshipService, SimpMessagingTemplate messagingTemplate, ModelMapper modelMapper) {
+    public MessageService(MessageRepository messageRepository, UserRepository userRepository, UserIdentityCache userIdentityCache,
+                          FriendshipService friendshipService, ModelMapper modelMapper,
+                          RateLimiter rateLimiter) {
         this.messageRepository = messageRepository;
         this.userRepository = userRepository;
+        this.userIdentityCache = userIdentityCache;
         this.friendshipService = friendshipService;
-        this.messagingTemplate = messagingTemplate;
         this.modelMapper = modelMapper;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
      * Sends a message from one user to another with friendship validation.
      * Validates that both users exist and have an accepted friendship status.
-     * Saves the message to database and sends real-time notification via WebSocket.
+     * Saves the message to database; the caller pushes it to the receiver once the transaction has committed.
+     * Users are resolved through the identity cache and attached as references, so no user row is loaded.
      * 
      * @param senderUsername The username of the message sender
      * @param request The message request containing receiver and content details
@@ -64,27 +71,29 @@ public class MessageService {
      * @throws UserNotFoundException if sender or receiver is not found
      * @throws IllegalArgumentException if sender and receiver are the same
      * @throws IllegalStateException if friendship validation fails
+     * @throws RateLimitExceededException if the sender sent too many messages recently
      */
     @Transactional
     public Message sendMessage(String senderUsername, SendMessageRequest request) {
         logger.info("Attempting to send message from '{}' to '{}'. Type: {}",
                 senderUsername, request.receiverUsername(), request.messageType());
 
-        User sender = userRepository.findByUsername(senderUsername)
-                .orElseThrow(() -> new UserNotFoundException("Authenticated sender user not found: " + senderUsername));
+        UserIdentity sender = userIdentityCache.require(senderUsername,
+                name -> new UserNotFoundException("Authenticated sender user not found: " + name));
+        rateLimiter.acquireMessage(sender.id());
 
-        User receiver = userRepository.findByUsername(request.receiverUsername())
-                .orElseThrow(() -> new UserNotFoundException("Receiver user not found: " + request.receiverUsername()));
+        UserIdentity receiver = userIdentityCache.require(request.receiverUsername(),
+                name -> new UserNotFoundException("Receiver user not found: " + name));
 
-        if (sender.getId().equals(receiver.getId())) {
+        if (sender.id().equals(receiver.id())) {
             throw new IllegalArgumentException("Sender and receiver cannot be the same person.");
         }
 
         checkFriendshipStatus(sender, receiver);
 
         Message message = new Message();
-        message.setSender(sender);
-        message.setReceiver(receiver);
+        message.setSender(userRepository.getReferenceById(sender.id()));
+        message.setReceiver(userRepository.getReferenceById(receiver.id()));
         message.setEncryptedContent(request.encryptedContent());
         message.setMessageType(request.messageType());
         message.setNonce(request.nonce());
@@ -98,28 +107,7 @@ public class MessageService {
         }
 
         Message savedMessage = messageRepository.save(message);
-        logger.info("Message from '{}' to '{}' saved successfully.", sender.getUsername(), receiver.getUsername());
-
-        MessageResponse messageToSend = new MessageResponse(
-                savedMessage.getId(),
-                savedMessage.getSender().getUsername(),
-                savedMessage.getReceiver().getUsername(),
-                savedMessage.getEncryptedContent(),
-                savedMessage.getMessageType(),
-                savedMessage.getTimestamp(),
-                savedMessage.getFileUrl(),
-                savedMessage.getOriginalFilename(),
-                savedMessage.getNonce()
-        );
-
-        String destination = "/queue/messages";
-        logger.info("Pushing real-time message to user '{}' at destination '{}'", receiver.getUsername(), destination);
-        messagingTemplate.convertAndSendToUser(
-                receiver.getUsername(),
-                destination,
-                messageToSend
-        );
-        logger.info("Message successfully pushed via WebSocket to {}", receiver.getUsername());
+        logger.info("Message from '{}' to '{}' saved successfully.", sender.username(), receiver.username());
 
         return savedMessage;
     }
@@ -136,50 +124,49 @@ public class MessageService {
      */
     @Transactional(readOnly = true)
     public List<Message> getConversation(String currentUsername, String otherUsername) {
-        User currentUser = userRepository.findByUsername(currentUsername)
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + currentUsername));
+        UserIdentity currentUser = userIdentityCache.require(currentUsername, name -> new UserNotFoundException("User not found: " + name));
 
-        User otherUser = userRepository.findByUsername(otherUsername)
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + otherUsername));
+        UserIdentity otherUser = userIdentityCache.require(otherUsername, name -> new UserNotFoundException("User not found: " + name));
 
         checkFriendshipStatus(currentUser, otherUser);
 
-        return messageRepository.findConversation(currentUser.getId(), otherUser.getId());
+        return messageRepository.findConversation(currentUser.id(), otherUser.id());
     }
 
     /**
      * Validates the friendship status between two users.
      * Ensures that users have an accepted friendship status and are not blocked.
+     * Answered from the in-memory friendship graph, so the send path does not query friendships.
      * 
      * @param userOne The first user
      * @param userTwo The second user
      * @throws IllegalStateException if users are not friends or if relationship is blocked
      */
-    private void checkFriendshipStatus(User userOne, User userTwo) {
-        Optional<Friendship> friendshipOpt = friendshipService.findFriendshipRelation(userOne, userTwo);
+    private void checkFriendshipStatus(UserIdentity userOne, UserIdentity userTwo) {
+        Optional<FriendshipEdge> friendshipOpt = friendshipService.findRelation(userOne.id(), userTwo.id());
 
         if (friendshipOpt.isEmpty()) {
-            logger.warn("Action denied between '{}' and '{}'. Reason: They are not friends.", userOne.getUsername(), userTwo.getUsername());
+            logger.warn("Action denied between '{}' and '{}'. Reason: They are not friends.", userOne.username(), userTwo.username());
             throw new IllegalStateException("You are not friends with this user.");
         }
 
-        Friendship friendship = friendshipOpt.get();
-        if (friendship.getStatus() == FriendshipStatus.BLOCKED) {
-            String blockerUsername = friendship.getActionUser().getUsername();
-            logger.warn("Action denied between '{}' and '{}'. Reason: Relationship is BLOCKED by '{}'.", userOne.getUsername(), userTwo.getUsername(), blockerUsername);
+        FriendshipEdge friendship = friendshipOpt.get();
+        if (friendship.status() == FriendshipStatus.BLOCKED) {
+            String blockerUsername = userOne.id().equals(friendship.actionUserId()) ? userOne.username() : userTwo.username();
+            logger.warn("Action denied between '{}' and '{}'. Reason: Relationship is BLOCKED by '{}'.", userOne.username(), userTwo.username(), blockerUsername);
 
-            if (userOne.getUsername().equals(blockerUsername)) {
+            if (userOne.username().equals(blockerUsername)) {
                 throw new IllegalStateException("You have blocked this user. Unblock them to interact.");
             } else {
                 throw new IllegalStateException("You cannot interact with this user as you have been blocked.");
             }
         }
 
-        if (friendship.getStatus() != FriendshipStatus.ACCEPTED) {
-            logger.warn("Action denied between '{}' and '{}'. Reason: Friendship status is {}.", userOne.getUsername(), userTwo.getUsername(), friendship.getStatus());
-            throw new IllegalStateException("Your friendship is not active. Status: " + friendship.getStatus());
+        if (friendship.status() != FriendshipStatus.ACCEPTED) {
+            logger.warn("Action denied between '{}' and '{}'. Reason: Friendship status is {}.", userOne.username(), userTwo.username(), friendship.status());
+            throw new IllegalStateException("Your friendship is not active. Status: " + friendship.status());
         }
 
-        logger.debug("Friendship check passed between '{}' and '{}'. Status: ACCEPTED.", userOne.getUsername(), userTwo.getUsername());
+        logger.debug("Friendship check passed between '{}' and '{}'. Status: ACCEPTED.", userOne.username(), userTwo.username());
     }
 }
@@ -0,0 +1,74 @@
+package com.eric.securechat.message.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Conversation purge that has been requested but not carried out yet.
+ * Written in the transaction that ends the relationship and deleted together with the messages,
+ * so a purge that was queued when the application stopped is still found afterwards.
+ */
+@Entity
+@Table(name = "conversation_purges", indexes = @Index(name = "idx_conversation_purges_up_to", columnList = "up_to"))
+public class ConversationPurge {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    /**
+     * The user whose conversation is deleted.
+     */
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /**
+     * The other user of the conversation.
+     */
+    @Column(name = "other_user_id", nullable = false)
+    private UUID otherUserId;
+
+    /**
+     * Messages sent at or before this time are deleted.
+     */
+    @Column(name = "up_to", nullable = false)
+    private Instant upTo;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected ConversationPurge() {
+    }
+
+    /**
+     * Constructor for ConversationPurge.
+     *
+     * @param userId The user whose conversation is deleted
+     * @param otherUserId The other user of the conversation
+     * @param upTo Messages sent at or before this time are deleted
+     */
+    public ConversationPurge(UUID userId, UUID otherUserId, Instant upTo) {
+        this.userId = userId;
+        this.otherUserId = otherUserId;
+        this.upTo = upTo;
+    }
+
+    // Getters
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getOtherUserId() {
+        return otherUserId;
+    }
+
+    public Instant getUpTo() {
+        return upTo;
+    }
+}
@@ -0,0 +1,25 @@
+package com.eric.securechat.message.repository;
+
+import com.eric.securechat.message.domain.ConversationPurge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for ConversationPurge entity operations.
+ * Provides data access methods for conversation purges that have not run yet.
+ */
+@Repository
+public interface ConversationPurgeRepository extends JpaRepository<ConversationPurge, UUID> {
+
+    /**
+     * Finds purges recorded before a point in time.
+     *
+     * @param cutoff Purges up to this time are returned
+     * @return Pending purges, oldest first
+     */
+    List<ConversationPurge> findByUpToBeforeOrderByUpTo(Instant cutoff);
+}
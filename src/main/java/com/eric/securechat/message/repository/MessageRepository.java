@@ -1,11 +1,13 @@
 package com.eric.securechat.message.repository;
 
 import com.eric.securechat.message.domain.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -40,6 +42,20 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
             "(m.sender.id = :user2Id AND m.receiver.id = :user1Id)")
     void deleteConversation(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id);
 
+    /**
+     * Deletes the messages exchanged between two users up to a point in time.
+     *
+     * @param user1Id The ID of the first user
+     * @param user2Id The ID of the second user
+     * @param upTo Messages sent at or before this time are deleted
+     * @return The number of deleted messages
+     */
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.timestamp <= :upTo AND (" +
+            "(m.sender.id = :user1Id AND m.receiver.id = :user2Id) OR " +
+            "(m.sender.id = :user2Id AND m.receiver.id = :user1Id))")
+    int deleteConversationUpTo(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id, @Param("upTo") Instant upTo);
+
     /**
      * Finds messages containing specific text in their encrypted content.
      *
@@ -48,4 +64,20 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
      */
     @Query("SELECT m FROM Message m WHERE m.encryptedContent LIKE %:text%")
     List<Message> findMessagesContainingText(@Param("text") String text);
+
+    /**
+     * Finds messages received by a user after a point in time, oldest first.
+     * Sender and receiver are fetched in the same query so the results can be mapped outside a transaction.
+     *
+     * @param receiverUsername The username of the receiver
+     * @param since Only messages strictly newer than this instant are returned
+     * @param pageable Limit for the number of messages returned
+     * @return Messages received since the given instant
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver r " +
+            "WHERE r.username = :receiverUsername AND m.timestamp > :since " +
+            "ORDER BY m.timestamp ASC")
+    List<Message> findReceivedSince(@Param("receiverUsername") String receiverUsername,
+                                    @Param("since") Instant since,
+                                    Pageable pageable);
 }
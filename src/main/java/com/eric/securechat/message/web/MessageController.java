@@ -56,10 +56,11 @@ public class MessageController {
 
         Message savedMessage = messageService.sendMessage(senderUsername, request);
 
+        // Sender and receiver are unloaded references; their usernames are already known
         MessageResponse response = new MessageResponse(
                 savedMessage.getId(),
-                savedMessage.getSender().getUsername(),
-                savedMessage.getReceiver().getUsername(),
+                senderUsername,
+                request.receiverUsername(),
                 savedMessage.getEncryptedContent(),
                 savedMessage.getMessageType(),
                 savedMessage.getTimestamp(),
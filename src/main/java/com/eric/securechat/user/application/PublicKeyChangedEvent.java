@@ -0,0 +1,25 @@
+package com.eric.securechat.user.application;
+
+import java.util.UUID;
+
+/**
+ * Application event published when a user uploads a new public key.
+ * Listeners run after the upload commits and notify the user's friends.
+ *
+ * @param userId The id of the user whose key changed
+ * @param username The username of the user whose key changed
+ * @param keyType The key type, {@link #X25519} or {@link #ED25519}
+ * @param publicKey The new encoded public key
+ */
+public record PublicKeyChangedEvent(UUID userId, String username, String keyType, String publicKey) {
+
+    /**
+     * Key type of the X25519 key-agreement key.
+     */
+    public static final String X25519 = "X25519";
+
+    /**
+     * Key type of the Ed25519 signing key.
+     */
+    public static final String ED25519 = "ED25519";
+}
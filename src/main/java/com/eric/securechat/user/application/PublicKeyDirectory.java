@@ -0,0 +1,154 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.common.cache.LruCache;
+import com.eric.securechat.user.domain.UserPublicKeys;
+import com.eric.securechat.user.dto.PublicKeyEntryDto;
+import com.eric.securechat.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory directory of users' public keys with precomputed fingerprints.
+ * Cache misses of a batch are loaded together in a single query. Entries are evicted on
+ * {@link UserChangedEvent}, which key uploads publish after their transaction commits; a load that
+ * overlaps such an eviction is served but not cached, so a replaced key is never cached again.
+ * Entries also expire after a TTL, bounding how long any missed eviction could serve an old key.
+ */
+@Component
+public class PublicKeyDirectory {
+
+    private static final Base64.Encoder FINGERPRINT_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final UserRepository userRepository;
+    private final LruCache<String, PublicKeyEntryDto> entries;
+
+    /**
+     * Constructor for PublicKeyDirectory.
+     *
+     * @param userRepository Repository for user data operations
+     * @param maxEntries Maximum number of cached users
+     * @param ttl How long an entry is served before it is reloaded
+     */
+    public PublicKeyDirectory(UserRepository userRepository,
+                              @Value("${user.public-keys.cache.max-entries:50000}") int maxEntries,
+                              @Value("${user.public-keys.cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.entries = new LruCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Gets the keys of a single user.
+     *
+     * @param username The username
+     * @return Optional containing the user's entry if the user exists
+     */
+    public Optional<PublicKeyEntryDto> find(String username) {
+        return Optional.ofNullable(findAll(List.of(username)).get(username));
+    }
+
+    /**
+     * Gets the keys of several users, loading all cache misses in one query.
+     *
+     * @param usernames Distinct usernames to look up
+     * @return Entries by username; unknown usernames are absent
+     */
+    public Map<String, PublicKeyEntryDto> findAll(Collection<String> usernames) {
+        Map<String, PublicKeyEntryDto> found = new HashMap<>();
+        Map<String, LruCache.Load> misses = new HashMap<>();
+        for (String username : usernames) {
+            PublicKeyEntryDto entry = entries.get(username);
+            if (entry != null) {
+                found.put(username, entry);
+            } else {
+                misses.put(username, entries.beginLoad(username));
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        try {
+            for (UserPublicKeys keys : userRepository.findPublicKeysByUsernameIn(misses.keySet())) {
+                PublicKeyEntryDto entry = toEntry(keys);
+                entries.completeLoad(keys.username(), misses.remove(keys.username()), entry);
+                found.put(keys.username(), entry);
+            }
+        } finally {
+            // Unknown usernames, or every miss if the query failed
+            misses.forEach((username, load) -> entries.completeLoad(username, load, null));
+        }
+        return found;
+    }
+
+    /**
+     * Evicts a changed user once its transaction has committed.
+     *
+     * @param event The user change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        entries.invalidate(event.username());
+    }
+
+    /**
+     * Computes the fingerprint of a public key: the unpadded Base64URL SHA-256 of its encoded form.
+     *
+     * @param publicKey The encoded public key, may be null
+     * @return The fingerprint, or null if no key is set
+     */
+    public static String fingerprint(String publicKey) {
+        if (publicKey == null || publicKey.isBlank()) {
+            return null;
+        }
+        return FINGERPRINT_ENCODER.encodeToString(sha256(publicKey));
+    }
+
+    /**
+     * Computes a short, order-sensitive digest over several values, used for entry and result versions.
+     *
+     * @param parts The values to combine; nulls are allowed
+     * @return The digest
+     */
+    public static String version(Collection<String> parts) {
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            joined.append(part == null ? "-" : part).append('\n');
+        }
+        byte[] hash = sha256(joined.toString());
+        return FINGERPRINT_ENCODER.encodeToString(Arrays.copyOf(hash, 12));
+    }
+
+    private static PublicKeyEntryDto toEntry(UserPublicKeys keys) {
+        String x25519Fingerprint = fingerprint(keys.x25519PublicKey());
+        String ed25519Fingerprint = fingerprint(keys.ed25519PublicKey());
+        return new PublicKeyEntryDto(
+                keys.username(),
+                keys.x25519PublicKey(),
+                x25519Fingerprint,
+                keys.ed25519PublicKey(),
+                ed25519Fingerprint,
+                version(Arrays.asList(keys.username(), x25519Fingerprint, ed25519Fingerprint))
+        );
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
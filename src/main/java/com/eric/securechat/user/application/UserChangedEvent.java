@@ -0,0 +1,13 @@
+package com.eric.securechat.user.application;
+
+import java.util.UUID;
+
+/**
+ * Application event published whenever a user account is created or modified.
+ * Listeners use it to invalidate cached user data.
+ *
+ * @param userId The id of the changed user
+ * @param username The username of the changed user
+ */
+public record UserChangedEvent(UUID userId, String username) {
+}
@@ -1,48 +1,101 @@
 package com.eric.securechat.user.application;
 
-import com.eric.securechat.user.exception.UserNotFoundException;
+import com.eric.securechat.common.cache.LruCache;
 import com.eric.securechat.user.domain.User;
 import com.eric.securechat.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Collections;
 
 /**
  * Implementation of Spring Security's UserDetailsService.
  * Loads user details for authentication and authorization.
+ * Credentials are cached in memory and evicted whenever the account changes.
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    /**
+     * Meter counting how each authenticated request resolved its user; "database" is the only source that costs a query.
+     */
+    public static final String USER_LOOKUPS_METER = "security.auth.user_lookups";
+
+    /**
+     * Cached credentials. A fresh UserDetails is built from them on every call because
+     * Spring Security erases the password of the instance it authenticated.
+     */
+    private record CachedCredentials(String username, String password) {
+    }
+
     private final UserRepository userRepository;
+    private final LruCache<String, CachedCredentials> cache;
+    private final Counter cacheLookups;
+    private final Counter databaseLookups;
 
     /**
      * Constructor for UserDetailsServiceImpl.
-     * 
+     *
      * @param userRepository Repository for user data operations
+     * @param meterRegistry Registry for lookup metrics
+     * @param maxEntries Maximum number of cached users
      */
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, MeterRegistry meterRegistry,
+                                  @Value("${security.user-details-cache.max-entries:10000}") int maxEntries) {
         this.userRepository = userRepository;
+        this.cache = new LruCache<>(maxEntries);
+        this.cacheLookups = Counter.builder(USER_LOOKUPS_METER)
+                .tag("source", "cache")
+                .description("User lookups answered from the user-details cache")
+                .register(meterRegistry);
+        this.databaseLookups = Counter.builder(USER_LOOKUPS_METER)
+                .tag("source", "database")
+                .description("User lookups that queried the users table")
+                .register(meterRegistry);
     }
 
     /**
      * Loads user details by username for Spring Security authentication.
-     * 
+     *
      * @param username The username to load user details for
      * @return UserDetails object for Spring Security
-     * @throws UserNotFoundException if user is not found
+     * @throws UsernameNotFoundException if user is not found; the authentication provider then still
+     *         runs a dummy password check, so unknown and known usernames take the same time
      */
     @Override
     public UserDetails loadUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
+        CachedCredentials credentials = cache.get(username);
+        if (credentials != null) {
+            cacheLookups.increment();
+        } else {
+            databaseLookups.increment();
+            credentials = cache.get(username, name -> {
+                User user = userRepository.findByUsername(name)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + name));
+                return new CachedCredentials(user.getUsername(), user.getPassword());
+            });
+        }
 
         return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
+                credentials.username(),
+                credentials.password(),
                 Collections.emptyList()
         );
     }
+
+    /**
+     * Evicts a changed account once its transaction has committed.
+     *
+     * @param event The user change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidate(event.username());
+    }
 }
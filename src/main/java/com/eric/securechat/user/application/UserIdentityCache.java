@@ -0,0 +1,80 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.common.cache.LruCache;
+import com.eric.securechat.user.domain.User;
+import com.eric.securechat.user.domain.UserIdentity;
+import com.eric.securechat.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Shared, bounded cache resolving usernames to user ids.
+ * Services use it instead of loading full User rows when they only need to address a user,
+ * and pass {@link #reference} proxies into repositories. Entries are evicted on {@link UserChangedEvent}.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final UserRepository userRepository;
+    private final LruCache<String, UserIdentity> identities;
+
+    /**
+     * Constructor for UserIdentityCache.
+     *
+     * @param userRepository Repository for user data operations
+     * @param maxEntries Maximum number of cached identities
+     */
+    public UserIdentityCache(UserRepository userRepository,
+                             @Value("${user.identity-cache.max-entries:50000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.identities = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Resolves a username to its identity.
+     *
+     * @param username The username to resolve
+     * @return Optional containing the identity if the user exists
+     */
+    public Optional<UserIdentity> find(String username) {
+        return Optional.ofNullable(identities.get(username,
+                name -> userRepository.findIdentityByUsername(name).orElse(null)));
+    }
+
+    /**
+     * Resolves a username to its identity, failing if the user does not exist.
+     *
+     * @param username The username to resolve
+     * @param notFound Builds the exception thrown for unknown usernames
+     * @return The user's identity
+     */
+    public UserIdentity require(String username, Function<String, ? extends RuntimeException> notFound) {
+        return find(username).orElseThrow(() -> notFound.apply(username));
+    }
+
+    /**
+     * Resolves a username to an uninitialized User reference for use in queries and associations.
+     * Only the id of the returned proxy may be read without triggering a load.
+     *
+     * @param username The username to resolve
+     * @param notFound Builds the exception thrown for unknown usernames
+     * @return A reference to the user
+     */
+    public User reference(String username, Function<String, ? extends RuntimeException> notFound) {
+        return userRepository.getReferenceById(require(username, notFound).id());
+    }
+
+    /**
+     * Evicts a changed user once its transaction has committed.
+     *
+     * @param event The user change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        identities.invalidate(event.username());
+    }
+}
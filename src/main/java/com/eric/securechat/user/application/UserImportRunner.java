@@ -0,0 +1,55 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.user.dto.UserImportRecord;
+import com.eric.securechat.user.dto.UserImportResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Runs a bulk user import at startup when {@code user.import.file} points to a JSON array of
+ * {@link UserImportRecord}s. Intended for one-off migrations of an existing user base.
+ */
+@Component
+@ConditionalOnProperty(name = "user.import.file")
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportRunner.class);
+
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final String importFile;
+
+    /**
+     * Constructor for UserImportRunner.
+     *
+     * @param userImportService Service performing the import
+     * @param objectMapper Mapper for reading the import file
+     * @param importFile Path of the JSON file to import
+     */
+    public UserImportRunner(UserImportService userImportService, ObjectMapper objectMapper,
+                            @Value("${user.import.file}") String importFile) {
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+        this.importFile = importFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<UserImportRecord> records = objectMapper.readValue(new File(importFile), new TypeReference<>() {
+        });
+        logger.info("Importing {} users from '{}'.", records.size(), importFile);
+        UserImportResult result = userImportService.importUsers(records);
+        logger.info("User import finished: {} imported, {} already taken, {} invalid.",
+                result.imported(), result.taken().size(), result.invalid().size());
+    }
+}
@@ -0,0 +1,165 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.common.security.BoundedPasswordEncoder;
+import com.eric.securechat.user.dto.UserImportRecord;
+import com.eric.securechat.user.dto.UserImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk user import for migrating an existing user base.
+ * Records are processed in chunks: plaintext passwords of a chunk are hashed in parallel on the
+ * password hashing executor, then the chunk is written with one JDBC batch of insert-on-conflict
+ * statements in its own transaction. Existing usernames are skipped, never overwritten.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO users (id, username, nickname, password, created_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (username) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    /**
+     * Constructor for UserImportService.
+     *
+     * @param jdbcTemplate Template for batched inserts
+     * @param transactionManager Transaction manager, one transaction per chunk
+     * @param passwordEncoder Encoder for plaintext passwords
+     * @param eventPublisher Publisher for registration events
+     * @param batchSize Number of users per chunk
+     */
+    public UserImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher,
+                             @Value("${user.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports users, skipping incomplete records and usernames that already exist.
+     *
+     * @param records The users to import
+     * @return Counts of imported users and the skipped usernames
+     */
+    public UserImportResult importUsers(List<UserImportRecord> records) {
+        List<String> taken = new ArrayList<>();
+        List<String> invalid = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<UserImportRecord> valid = new ArrayList<>();
+        for (UserImportRecord record : records) {
+            if (!isValid(record)) {
+                invalid.add(record.username());
+            } else if (!seen.add(record.username())) {
+                taken.add(record.username());
+            } else {
+                valid.add(record);
+            }
+        }
+
+        int imported = 0;
+        for (int start = 0; start < valid.size(); start += batchSize) {
+            imported += importChunk(valid.subList(start, Math.min(start + batchSize, valid.size())), taken);
+            logger.info("Imported {} of {} users.", imported, valid.size());
+        }
+        return new UserImportResult(imported, taken, invalid);
+    }
+
+    /**
+     * Hashes and inserts one chunk of users.
+     *
+     * @param chunk Valid records with distinct usernames
+     * @param taken Collects usernames that already exist
+     * @return The number of inserted users
+     */
+    private int importChunk(List<UserImportRecord> chunk, List<String> taken) {
+        List<String> passwords = encodePasswords(chunk);
+        Instant now = Instant.now();
+        List<UUID> ids = new ArrayList<>(chunk.size());
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserImportRecord record = chunk.get(i);
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            rows.add(new Object[]{id, record.username(), nickname(record), passwords.get(i), Timestamp.from(now)});
+        }
+
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+
+        int inserted = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            UserImportRecord record = chunk.get(i);
+            if (counts[i] == 0) {
+                taken.add(record.username());
+            } else {
+                inserted++;
+                eventPublisher.publishEvent(new UserRegisteredEvent(ids.get(i), record.username(), nickname(record)));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Returns the encoded password of every record, hashing the plaintext ones in parallel.
+     */
+    private List<String> encodePasswords(List<UserImportRecord> chunk) {
+        List<String> plaintext = new ArrayList<>();
+        for (UserImportRecord record : chunk) {
+            if (record.passwordHash() == null) {
+                plaintext.add(record.password());
+            }
+        }
+        List<String> hashed;
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            hashed = bounded.encodeAll(plaintext);
+        } else {
+            hashed = plaintext.stream().map(passwordEncoder::encode).toList();
+        }
+
+        List<String> encoded = new ArrayList<>(chunk.size());
+        int next = 0;
+        for (UserImportRecord record : chunk) {
+            encoded.add(record.passwordHash() != null ? record.passwordHash() : hashed.get(next++));
+        }
+        return encoded;
+    }
+
+    private static boolean isValid(UserImportRecord record) {
+        if (record.username() == null || record.username().isBlank()
+                || record.username().length() < 3 || record.username().length() > 20) {
+            return false;
+        }
+        if (record.passwordHash() != null) {
+            return record.passwordHash().startsWith("$2");
+        }
+        return record.password() != null && record.password().length() >= 6;
+    }
+
+    private static String nickname(UserImportRecord record) {
+        return record.nickname() == null || record.nickname().isBlank() ? record.username() : record.nickname().trim();
+    }
+}
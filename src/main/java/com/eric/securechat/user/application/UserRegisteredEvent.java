@@ -0,0 +1,14 @@
+package com.eric.securechat.user.application;
+
+import java.util.UUID;
+
+/**
+ * Application event published when a new user account is created.
+ * Listeners use it to add the user to in-memory indexes.
+ *
+ * @param userId The id of the new user
+ * @param username The username of the new user
+ * @param nickname The nickname of the new user
+ */
+public record UserRegisteredEvent(UUID userId, String username, String nickname) {
+}
@@ -0,0 +1,281 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.user.dto.UserDto;
+import com.eric.securechat.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trie over usernames and nicknames for type-ahead user search.
+ * Each user is indexed under their lower-cased username, their nickname and every word of the
+ * nickname. Exact prefix matches are returned first; queries of three or more characters are then
+ * topped up with prefixes within one edit of the query.
+ * The trie is loaded at startup and extended on {@link UserRegisteredEvent}. Usernames and
+ * nicknames never change after registration, so it needs no other maintenance on a single instance.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int FUZZY_MIN_QUERY_LENGTH = 3;
+    private static final int MAX_EDITS = 1;
+
+    private final UserRepository userRepository;
+    private final Timer searchTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+
+    /**
+     * Constructor for UserSearchIndex.
+     *
+     * @param userRepository Repository for user data operations
+     * @param meterRegistry Registry for the search latency timer
+     */
+    public UserSearchIndex(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.searchTimer = Timer.builder("user.search")
+                .description("Time spent answering a user search from the in-memory index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the trie from all users at startup.
+     */
+    @PostConstruct
+    public void load() {
+        List<UserDto> users = userRepository.findAllProfiles();
+        Node loaded = new Node();
+        for (UserDto user : users) {
+            insert(loaded, user);
+        }
+        lock.writeLock().lock();
+        try {
+            root = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} users for search.", users.size());
+    }
+
+    /**
+     * Adds a newly registered user once the registration has committed.
+     *
+     * @param event The registration event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        UserDto user = new UserDto(event.userId(), event.username(), event.nickname());
+        lock.writeLock().lock();
+        try {
+            insert(root, user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds users whose username, nickname or a nickname word starts with the query.
+     *
+     * @param query The search text
+     * @param limit Maximum number of results
+     * @param excludeUsername A user to leave out of the results, typically the caller; may be null
+     * @return Matching users, exact prefix matches first
+     */
+    public List<UserDto> search(String query, int limit, String excludeUsername) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return searchTimer.record(() -> {
+            Collector collector = new Collector(limit, excludeUsername);
+            lock.readLock().lock();
+            try {
+                Node node = root;
+                for (int i = 0; i < key.length() && node != null; i++) {
+                    node = node.child(key.charAt(i));
+                }
+                if (node != null) {
+                    collectAll(node, collector);
+                }
+                if (!collector.isFull() && key.length() >= FUZZY_MIN_QUERY_LENGTH) {
+                    int[] firstRow = new int[key.length() + 1];
+                    for (int i = 0; i < firstRow.length; i++) {
+                        firstRow[i] = i;
+                    }
+                    for (int i = 0; i < root.size && !collector.isFull(); i++) {
+                        collectFuzzy(root.children[i], root.keys[i], key, firstRow, collector);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return collector.results();
+        });
+    }
+
+    /**
+     * Indexes a user under their username, nickname and nickname words.
+     */
+    private static void insert(Node root, UserDto user) {
+        insertKey(root, normalize(user.getUsername()), user);
+        String nickname = normalize(user.getNickname());
+        insertKey(root, nickname, user);
+        for (String word : nickname.split("\\s+")) {
+            if (!word.equals(nickname)) {
+                insertKey(root, word, user);
+            }
+        }
+    }
+
+    private static void insertKey(Node root, String key, UserDto user) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.addUser(user);
+    }
+
+    /**
+     * Collects every user in a subtree in key order, shorter keys first.
+     */
+    private static boolean collectAll(Node node, Collector collector) {
+        for (int i = 0; i < node.userCount; i++) {
+            if (!collector.add(node.users[i])) {
+                return false;
+            }
+        }
+        for (int i = 0; i < node.size; i++) {
+            if (!collectAll(node.children[i], collector)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Walks the trie with one row of the Levenshtein matrix per node, pruning subtrees that can no
+     * longer come within {@link #MAX_EDITS} of the query. Once the whole query matches a key
+     * prefix within the budget, the entire subtree is a match.
+     */
+    private static void collectFuzzy(Node node, char c, String query, int[] previousRow, Collector collector) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int best = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previousRow[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), substitution);
+            best = Math.min(best, row[i]);
+        }
+        if (row[row.length - 1] <= MAX_EDITS) {
+            collectAll(node, collector);
+            return;
+        }
+        if (best > MAX_EDITS) {
+            return;
+        }
+        for (int i = 0; i < node.size && !collector.isFull(); i++) {
+            collectFuzzy(node.children[i], node.keys[i], query, row, collector);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trie node with children kept in sorted parallel arrays, which is far smaller than a map per node.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private UserDto[] users;
+        private int userCount;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, size, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, 0, size, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            size++;
+            return child;
+        }
+
+        void addUser(UserDto user) {
+            for (int i = 0; i < userCount; i++) {
+                if (users[i].getId().equals(user.getId())) {
+                    return;
+                }
+            }
+            if (users == null) {
+                users = new UserDto[1];
+            } else if (userCount == users.length) {
+                users = Arrays.copyOf(users, userCount * 2);
+            }
+            users[userCount++] = user;
+        }
+    }
+
+    /**
+     * Accumulates distinct users up to the limit.
+     */
+    private static final class Collector {
+        private final int limit;
+        private final String excludeUsername;
+        private final Map<UUID, UserDto> results = new LinkedHashMap<>();
+
+        Collector(int limit, String excludeUsername) {
+            this.limit = limit;
+            this.excludeUsername = excludeUsername;
+        }
+
+        boolean add(UserDto user) {
+            if (!user.getUsername().equals(excludeUsername)) {
+                results.putIfAbsent(user.getId(), user);
+            }
+            return !isFull();
+        }
+
+        boolean isFull() {
+            return results.size() >= limit;
+        }
+
+        List<UserDto> results() {
+            return List.copyOf(results.values());
+        }
+    }
+}
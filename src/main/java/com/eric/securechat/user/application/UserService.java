@@ -1,14 +1,28 @@
 package com.eric.securechat.user.application;
 
 import com.eric.securechat.auth.dto.RegisterRequest;
+import com.eric.securechat.user.dto.PublicKeyDirectoryResponse;
+import com.eric.securechat.user.dto.PublicKeyEntryDto;
 import com.eric.securechat.user.dto.UserDto;
 import com.eric.securechat.user.domain.User;
+import com.eric.securechat.user.domain.UserIdentity;
 import com.eric.securechat.user.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
 /**
  * Service for handling user-related operations including registration, profile management,
  * and cryptographic key management for end-to-end encryption.
@@ -18,42 +32,65 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PublicKeyDirectory publicKeyDirectory;
+    private final UserSearchIndex userSearchIndex;
+    private final int maxKeyBatchSize;
 
     /**
      * Constructor for UserService.
      * 
      * @param userRepository Repository for user data operations
      * @param passwordEncoder Service for password encryption
+     * @param eventPublisher Publisher for user change events
+     * @param publicKeyDirectory Cache of users' public keys
+     * @param userSearchIndex In-memory index for user search
+     * @param maxKeyBatchSize Maximum number of usernames per batch key lookup
      */
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher,
+                       PublicKeyDirectory publicKeyDirectory, UserSearchIndex userSearchIndex, @Value("${user.public-keys.max-batch:100}") int maxKeyBatchSize) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.publicKeyDirectory = publicKeyDirectory;
+        this.userSearchIndex = userSearchIndex;
+        this.maxKeyBatchSize = maxKeyBatchSize;
     }
 
     /**
      * Registers a new user with validation and password encryption.
      * Performs defensive validation to ensure data integrity.
+     * The password is hashed first and the user is then inserted with a single insert-on-conflict
+     * statement, so concurrent registrations of the same username cannot both succeed and the
+     * loser gets a "taken" error rather than a constraint violation.
+     * A blank nickname defaults to the username.
      * 
      * @param registerRequest The registration request containing user credentials
-     * @return The created user entity
+     * @return The identity of the created user
      * @throws IllegalStateException if username is already taken
      * @throws IllegalArgumentException if validation fails
      */
-    @Transactional
-    public User registerUser(RegisterRequest registerRequest) {
+    public UserIdentity registerUser(RegisterRequest registerRequest) {
         validateRegistrationRequest(registerRequest);
 
-        if (userRepository.findByUsername(registerRequest.username()).isPresent()) {
-            throw new IllegalStateException("Username already taken");
+        String nickname = registerRequest.nickname();
+        if (nickname == null || nickname.trim().isEmpty()) {
+            nickname = registerRequest.username();
+        } else {
+            nickname = nickname.trim();
         }
+        String encodedPassword = passwordEncoder.encode(registerRequest.password());
 
-        User newUser = new User();
-        newUser.setUsername(registerRequest.username());
-        newUser.setNickname(registerRequest.nickname());
-        newUser.setPassword(passwordEncoder.encode(registerRequest.password()));
+        UUID id = UUID.randomUUID();
+        int inserted = userRepository.insertIfUsernameAvailable(id, registerRequest.username(), nickname, encodedPassword, Instant.now());
+        if (inserted == 0) {
+            throw new IllegalStateException("Error: Username is already taken!");
+        }
 
-        return userRepository.save(newUser);
+        eventPublisher.publishEvent(new UserChangedEvent(id, registerRequest.username()));
+        eventPublisher.publishEvent(new UserRegisteredEvent(id, registerRequest.username(), nickname));
+        return new UserIdentity(id, registerRequest.username());
     }
 
     /**
@@ -86,8 +123,26 @@ public class UserService {
         return new UserDto(user.getId(), user.getUsername(), user.getNickname());
     }
 
+    /**
+     * Searches users by username or nickname prefix for type-ahead discovery.
+     * Served from the in-memory index without touching the database.
+     * 
+     * @param query The search text
+     * @param limit Maximum number of results, capped at 50
+     * @param currentUsername The searching user, left out of the results
+     * @return Matching user profiles
+     * @throws IllegalArgumentException if the query is blank
+     */
+    public List<UserDto> searchUsers(String query, int limit, String currentUsername) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be blank");
+        }
+        return userSearchIndex.search(query, Math.min(Math.max(limit, 1), 50), currentUsername);
+    }
+
     /**
      * Updates a user's X25519 public key for end-to-end encryption.
+     * Friends are notified over WebSocket once the change commits.
      * 
      * @param username The username of the user to update
      * @param x25519PublicKey The X25519 public key to set
@@ -99,10 +154,13 @@ public class UserService {
                 .orElseThrow(() -> new IllegalStateException("User not found: " + username));
         user.setX25519PublicKey(x25519PublicKey);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+        eventPublisher.publishEvent(new PublicKeyChangedEvent(user.getId(), user.getUsername(), PublicKeyChangedEvent.X25519, x25519PublicKey));
     }
 
     /**
      * Updates a user's Ed25519 public key for digital signatures.
+     * Friends are notified over WebSocket once the change commits.
      * 
      * @param username The username of the user to update
      * @param ed25519PublicKey The Ed25519 public key to set
@@ -114,6 +172,8 @@ public class UserService {
                 .orElseThrow(() -> new IllegalStateException("User not found: " + username));
         user.setEd25519PublicKey(ed25519PublicKey);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+        eventPublisher.publishEvent(new PublicKeyChangedEvent(user.getId(), user.getUsername(), PublicKeyChangedEvent.ED25519, ed25519PublicKey));
     }
 
     /**
@@ -124,14 +184,13 @@ public class UserService {
      * @throws IllegalArgumentException if user is not found
      * @throws IllegalStateException if user has not uploaded a key
      */
-    @Transactional(readOnly = true)
     public String getUserX25519Key(String username) {
-        User user = userRepository.findByUsername(username)
+        PublicKeyEntryDto entry = publicKeyDirectory.find(username)
                 .orElseThrow(() -> new IllegalArgumentException("User '" + username + "' not found."));
-        if (user.getX25519PublicKey() == null || user.getX25519PublicKey().isBlank()) {
+        if (entry.x25519Fingerprint() == null) {
             throw new IllegalStateException("User '" + username + "' has not uploaded a X25519 public key yet.");
         }
-        return user.getX25519PublicKey();
+        return entry.x25519PublicKey();
     }
 
     /**
@@ -142,13 +201,58 @@ public class UserService {
      * @throws IllegalArgumentException if user is not found
      * @throws IllegalStateException if user has not uploaded a key
      */
-    @Transactional(readOnly = true)
     public String getUserEd25519Key(String username) {
-        User user = userRepository.findByUsername(username)
+        PublicKeyEntryDto entry = publicKeyDirectory.find(username)
                 .orElseThrow(() -> new IllegalArgumentException("User '" + username + "' not found."));
-        if (user.getEd25519PublicKey() == null || user.getEd25519PublicKey().isBlank()) {
+        if (entry.ed25519Fingerprint() == null) {
             throw new IllegalStateException("User '" + username + "' has not uploaded an Ed25519 public key yet.");
         }
-        return user.getEd25519PublicKey();
+        return entry.ed25519PublicKey();
+    }
+
+    /**
+     * Retrieves the public keys of several users at once.
+     * Entries whose version is in {@code knownVersions} are reported as unchanged instead of being
+     * returned again. The result version covers every requested user, whether known or not.
+     * 
+     * @param usernames The usernames to look up; duplicates and blanks are ignored
+     * @param knownVersions Entry versions the client already holds, may be empty
+     * @return The changed entries, unchanged and unknown usernames, and the result version
+     * @throws IllegalArgumentException if no usernames or more than the batch limit are given
+     */
+    public PublicKeyDirectoryResponse getPublicKeys(Collection<String> usernames, Set<String> knownVersions) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (username != null && !username.isBlank()) {
+                requested.add(username.trim());
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one username is required");
+        }
+        if (requested.size() > maxKeyBatchSize) {
+            throw new IllegalArgumentException("At most " + maxKeyBatchSize + " usernames can be requested at once");
+        }
+
+        Map<String, PublicKeyEntryDto> found = publicKeyDirectory.findAll(requested);
+        List<PublicKeyEntryDto> keys = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+        List<String> versions = new ArrayList<>(requested.size());
+        for (String username : requested) {
+            PublicKeyEntryDto entry = found.get(username);
+            if (entry == null) {
+                notFound.add(username);
+                versions.add(username);
+            } else {
+                versions.add(entry.version());
+                if (knownVersions.contains(entry.version())) {
+                    unchanged.add(username);
+                } else {
+                    keys.add(entry);
+                }
+            }
+        }
+        return new PublicKeyDirectoryResponse(keys, unchanged, notFound, PublicKeyDirectory.version(versions));
     }
 }
@@ -0,0 +1,13 @@
+package com.eric.securechat.user.domain;
+
+import java.util.UUID;
+
+/**
+ * Immutable id/username pair of a user.
+ * Enough to address a user in queries and messages without loading the full row and its public keys.
+ *
+ * @param id The user id
+ * @param username The username
+ */
+public record UserIdentity(UUID id, String username) {
+}
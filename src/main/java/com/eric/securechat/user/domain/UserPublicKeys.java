@@ -0,0 +1,11 @@
+package com.eric.securechat.user.domain;
+
+/**
+ * Username and public keys of a user, read without the credentials and profile columns.
+ *
+ * @param username The username
+ * @param x25519PublicKey The X25519 public key, null if not uploaded
+ * @param ed25519PublicKey The Ed25519 public key, null if not uploaded
+ */
+public record UserPublicKeys(String username, String x25519PublicKey, String ed25519PublicKey) {
+}
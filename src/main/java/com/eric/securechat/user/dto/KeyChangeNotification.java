@@ -0,0 +1,15 @@
+package com.eric.securechat.user.dto;
+
+import java.time.Instant;
+
+/**
+ * WebSocket payload telling a user that one of their friends uploaded a new public key.
+ * Carries the key itself so clients can update their session keys without re-fetching.
+ */
+public record KeyChangeNotification(
+        String username,
+        String keyType,
+        String publicKey,
+        String fingerprint,
+        Instant changedAt
+) {}
@@ -0,0 +1,16 @@
+package com.eric.securechat.user.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for a batch public key lookup.
+ * Contains the entries the client does not already know, the usernames whose known version is
+ * still current, and the usernames that do not exist. {@code version} covers the whole result
+ * and is also sent as the ETag.
+ */
+public record PublicKeyDirectoryResponse(
+        List<PublicKeyEntryDto> keys,
+        List<String> unchanged,
+        List<String> notFound,
+        String version
+) {}
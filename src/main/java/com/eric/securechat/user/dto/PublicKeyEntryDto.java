@@ -0,0 +1,15 @@
+package com.eric.securechat.user.dto;
+
+/**
+ * DTO for one user's public keys in the key directory.
+ * Each key carries a SHA-256 fingerprint, and {@code version} fingerprints the whole entry
+ * so clients can tell whether anything about the user's keys has changed.
+ */
+public record PublicKeyEntryDto(
+        String username,
+        String x25519PublicKey,
+        String x25519Fingerprint,
+        String ed25519PublicKey,
+        String ed25519Fingerprint,
+        String version
+) {}
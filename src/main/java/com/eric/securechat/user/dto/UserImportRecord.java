@@ -0,0 +1,13 @@
+package com.eric.securechat.user.dto;
+
+/**
+ * One user to import during a migration.
+ * Either {@code password} (hashed on import) or {@code passwordHash} (an existing BCrypt hash,
+ * stored as is) must be set. A blank nickname defaults to the username.
+ */
+public record UserImportRecord(
+        String username,
+        String nickname,
+        String password,
+        String passwordHash
+) {}
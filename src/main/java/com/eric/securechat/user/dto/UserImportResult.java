@@ -0,0 +1,13 @@
+package com.eric.securechat.user.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import.
+ *
+ * @param imported Number of users inserted
+ * @param taken Usernames skipped because they already exist
+ * @param invalid Usernames skipped because the record was incomplete
+ */
+public record UserImportResult(int imported, List<String> taken, List<String> invalid) {
+}
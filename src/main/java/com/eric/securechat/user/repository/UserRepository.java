@@ -1,9 +1,19 @@
 package com.eric.securechat.user.repository;
 
 import com.eric.securechat.user.domain.User;
+import com.eric.securechat.user.domain.UserIdentity;
+import com.eric.securechat.user.domain.UserPublicKeys;
+import com.eric.securechat.user.dto.UserDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,4 +31,69 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @return Optional containing the user if found, empty otherwise
      */
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Finds the id of a user by username without loading the rest of the row.
+     * 
+     * @param username The username to search for
+     * @return Optional containing the user's identity if found, empty otherwise
+     */
+    @Query("SELECT new com.eric.securechat.user.domain.UserIdentity(u.id, u.username) FROM User u WHERE u.username = :username")
+    Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
+
+    /**
+     * Finds the ids of several users by username in one query.
+     * 
+     * @param usernames The usernames to search for
+     * @return Identities of the users that exist, in no particular order
+     */
+    @Query("SELECT new com.eric.securechat.user.domain.UserIdentity(u.id, u.username) FROM User u WHERE u.username IN :usernames")
+    List<UserIdentity> findIdentitiesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Finds the public keys of several users in one query.
+     * 
+     * @param usernames The usernames to look up
+     * @return Keys of the users that exist, in no particular order
+     */
+    @Query("SELECT new com.eric.securechat.user.domain.UserPublicKeys(u.username, u.x25519PublicKey, u.ed25519PublicKey) " +
+           "FROM User u WHERE u.username IN :usernames")
+    List<UserPublicKeys> findPublicKeysByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Lists the id, username and nickname of every user, for building in-memory indexes.
+     * 
+     * @return Profiles of all users
+     */
+    @Query("SELECT new com.eric.securechat.user.dto.UserDto(u.id, u.username, u.nickname) FROM User u")
+    List<UserDto> findAllProfiles();
+
+    /**
+     * Lists the id, username and nickname of the given users.
+     * 
+     * @param ids The ids of the users
+     * @return Profiles of the users that exist, in no particular order
+     */
+    @Query("SELECT new com.eric.securechat.user.dto.UserDto(u.id, u.username, u.nickname) FROM User u WHERE u.id IN :ids")
+    List<UserDto> findProfilesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Inserts a user unless the username is already taken, in a single statement.
+     * Concurrent registrations of the same username are resolved by the unique constraint
+     * instead of failing with a constraint violation.
+     * 
+     * @param id The id of the new user
+     * @param username The username
+     * @param nickname The nickname
+     * @param password The encoded password
+     * @param createdAt The creation timestamp
+     * @return 1 if the user was inserted, 0 if the username is taken
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO users (id, username, nickname, password, created_at) " +
+                   "VALUES (:id, :username, :nickname, :password, :createdAt) " +
+                   "ON CONFLICT (username) DO NOTHING", nativeQuery = true)
+    int insertIfUsernameAvailable(@Param("id") UUID id, @Param("username") String username, @Param("nickname") String nickname,
+                                  @Param("password") String password, @Param("createdAt") Instant createdAt);
+}
@@ -1,6 +1,7 @@
 package com.eric.securechat.user.web;
 
 import com.eric.securechat.user.application.UserService;
+import com.eric.securechat.user.dto.PublicKeyDirectoryResponse;
 import com.eric.securechat.user.dto.UserDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,8 +16,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST Controller for handling user profile and cryptographic key operations.
@@ -61,6 +65,28 @@ public class UserController {
         return ResponseEntity.ok(userDto);
     }
 
+    /**
+     * Endpoint to search users by username or nickname for adding friends.
+     * 
+     * @param userDetails Spring Security provided current logged-in user information
+     * @param q The search text, matched as a prefix
+     * @param limit Maximum number of results
+     * @return ResponseEntity containing matching user profiles
+     */
+    @Operation(summary = "Search users", description = "Type-ahead search over usernames and nicknames. Prefix matches come first, followed by close matches for queries of 3 or more characters.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed"),
+            @ApiResponse(responseCode = "400", description = "Blank query"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized access")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDto>> searchUsers(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Parameter(description = "Search text") @RequestParam String q,
+            @Parameter(description = "Maximum number of results, at most 50") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, limit, userDetails.getUsername()));
+    }
+
     /**
      * Endpoint to upload the current user's X25519 public key for end-to-end encryption.
      * 
@@ -134,4 +160,37 @@ public class UserController {
             @Parameter(description = "Username") @PathVariable String username) {
         return ResponseEntity.ok(Map.of("ed25519PublicKey", userService.getUserEd25519Key(username)));
     }
+
+    /**
+     * Endpoint to retrieve the public keys of several users in one request.
+     * Supports conditional requests: if the If-None-Match header carries the ETag of a previous
+     * response for the same usernames and nothing changed, 304 Not Modified is returned.
+     * Entry versions passed in {@code known} are reported as unchanged instead of being sent again.
+     * 
+     * @param usernames The usernames to look up
+     * @param known Entry versions the client already holds
+     * @param webRequest The current request, used for the ETag check
+     * @return ResponseEntity containing the changed entries, or 304 if the whole result is unchanged
+     */
+    @Operation(summary = "Get public keys of several users",
+            description = "Retrieve X25519 and Ed25519 public keys with fingerprints for up to 100 users. Supports If-None-Match and known entry versions.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Keys retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PublicKeyDirectoryResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Keys unchanged since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "No usernames or too many usernames"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized access")
+    })
+    @GetMapping("/public-keys")
+    public ResponseEntity<PublicKeyDirectoryResponse> getPublicKeys(
+            @Parameter(description = "Usernames, comma separated or repeated") @RequestParam List<String> usernames,
+            @Parameter(description = "Entry versions already held by the client") @RequestParam(required = false) Set<String> known,
+            WebRequest webRequest) {
+        PublicKeyDirectoryResponse response = userService.getPublicKeys(usernames, known == null ? Set.of() : known);
+        if (webRequest.checkNotModified(response.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(response.version()).body(response);
+    }
 }
@@ -0,0 +1,150 @@
+package com.eric.securechat.auth.application;
+
+import com.eric.securechat.auth.dto.LoginRequest;
+import com.eric.securechat.common.config.PasswordHashingProperties;
+import com.eric.securechat.common.exception.PasswordHashingRejectedException;
+import com.eric.securechat.common.security.BoundedPasswordEncoder;
+import com.eric.securechat.common.security.JwtService;
+import com.eric.securechat.user.application.UserDetailsServiceImpl;
+import com.eric.securechat.user.application.UserService;
+import com.eric.securechat.user.domain.User;
+import com.eric.securechat.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests how login failures surface through the real Spring Security provider chain.
+ */
+class AuthServiceLoginTests {
+
+    private static final PasswordEncoder BCRYPT = new BCryptPasswordEncoder(4);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger matchesCalls = new AtomicInteger();
+    private volatile boolean blockHashing;
+    private BoundedPasswordEncoder passwordEncoder;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setTimeout(Duration.ofSeconds(5));
+        passwordEncoder = new BoundedPasswordEncoder(new CountingEncoder(), properties, meterRegistry);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(
+                new UserDetailsServiceImpl(userRepository, new SimpleMeterRegistry(), 100));
+        provider.setPasswordEncoder(passwordEncoder);
+
+        authService = new AuthService(userRepository, mock(UserService.class), mock(JwtService.class),
+                new ProviderManager(provider), mock(TokenRevocationService.class));
+
+        User alice = new User();
+        alice.setUsername("alice");
+        alice.setPassword(BCRYPT.encode("correct-password"));
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void wrongPasswordIsBadCredentials() {
+        assertThrows(BadCredentialsException.class, () -> authService.login(new LoginRequest("alice", "wrong-password")));
+    }
+
+    @Test
+    void unknownUserIsBadCredentialsAfterADummyPasswordCheck() {
+        assertThrows(BadCredentialsException.class, () -> authService.login(new LoginRequest("mallory", "any-password")));
+
+        assertEquals(1, matchesCalls.get());
+    }
+
+    @Test
+    void saturatedHashingIsRejectedNotBadCredentials() {
+        saturate();
+
+        assertThrows(PasswordHashingRejectedException.class, () -> authService.login(new LoginRequest("alice", "correct-password")));
+    }
+
+    @Test
+    void saturatedHashingIsRejectedForUnknownUsersToo() {
+        saturate();
+
+        assertThrows(PasswordHashingRejectedException.class, () -> authService.login(new LoginRequest("mallory", "any-password")));
+    }
+
+    /**
+     * Occupies the single hashing thread and the single queue slot until the test ends.
+     */
+    private void saturate() {
+        blockHashing = true;
+        for (int i = 0; i < 2; i++) {
+            Thread thread = new Thread(() -> passwordEncoder.encode("filler"));
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("security.password.hash.queued").gauge().value() < 1) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Hashing executor did not saturate");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * BCrypt that can be held on a latch and counts password checks.
+     */
+    private final class CountingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            awaitRelease();
+            return BCRYPT.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            awaitRelease();
+            matchesCalls.incrementAndGet();
+            return BCRYPT.matches(rawPassword, encodedPassword);
+        }
+
+        private void awaitRelease() {
+            if (!blockHashing) {
+                return;
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
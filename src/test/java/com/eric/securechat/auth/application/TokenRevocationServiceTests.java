@@ -0,0 +1,94 @@
+package com.eric.securechat.auth.application;
+
+import com.eric.securechat.auth.domain.RevokedToken;
+import com.eric.securechat.auth.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory token revocation list.
+ */
+class TokenRevocationServiceTests {
+
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+
+    @Test
+    void revokedTokensAreRejectedAndOthersAccepted() {
+        TokenRevocationService service = new TokenRevocationService(revokedTokenRepository, 100);
+        String jti = UUID.randomUUID().toString();
+
+        assertTrue(service.revoke(jti, Instant.now().plus(Duration.ofHours(1))));
+
+        assertTrue(service.isRevoked(jti));
+        assertFalse(service.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(service.isRevoked(null));
+    }
+
+    @Test
+    void revokingTwicePersistsOnce() {
+        TokenRevocationService service = new TokenRevocationService(revokedTokenRepository, 100);
+        String jti = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+
+        assertTrue(service.revoke(jti, expiresAt));
+        assertFalse(service.revoke(jti, expiresAt));
+
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void loadsPersistedRevocationsAtStartup() {
+        String jti = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findByExpiresAtAfter(any()))
+                .thenReturn(List.of(new RevokedToken(jti, Instant.now().plus(Duration.ofHours(1)))));
+        TokenRevocationService service = new TokenRevocationService(revokedTokenRepository, 100);
+
+        service.load();
+
+        assertTrue(service.isRevoked(jti));
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredRevocations() {
+        TokenRevocationService service = new TokenRevocationService(revokedTokenRepository, 100);
+        String expired = UUID.randomUUID().toString();
+        String live = UUID.randomUUID().toString();
+        service.revoke(expired, Instant.now().minusSeconds(1));
+        service.revoke(live, Instant.now().plus(Duration.ofHours(1)));
+
+        service.purgeExpired();
+
+        assertFalse(service.isRevoked(expired));
+        assertTrue(service.isRevoked(live));
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    void manyRevocationsBeyondTheFilterSizeAreAllFound() {
+        TokenRevocationService service = new TokenRevocationService(revokedTokenRepository, 10);
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String jti = i % 2 == 0 ? UUID.randomUUID().toString() : "legacy-" + i;
+            service.revoke(jti, Instant.now().plus(Duration.ofHours(1)));
+            revoked.add(jti);
+        }
+
+        for (String jti : revoked) {
+            assertTrue(service.isRevoked(jti), jti);
+        }
+        assertFalse(service.isRevoked(UUID.randomUUID().toString()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.eric.securechat.chat.application;
+
+import com.eric.securechat.chat.config.WebSocketReplayProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the per-user replay buffer.
+ */
+class ReplayBufferTests {
+
+    private static final String PRIVATE = "/queue/private";
+    private static final String NOTIFICATIONS = "/queue/notifications";
+
+    @Test
+    void sequencesIncreaseAndEncodeTheClock() {
+        ReplayBuffer buffer = buffer(16);
+        long before = System.currentTimeMillis();
+
+        long first = buffer.record("alice", PRIVATE, "a");
+        long second = buffer.record("alice", PRIVATE, "b");
+
+        assertTrue(second > first);
+        assertTrue(ReplayBuffer.toEpochMillis(first) >= before);
+        assertTrue(ReplayBuffer.toEpochMillis(second) <= System.currentTimeMillis());
+    }
+
+    @Test
+    void replaysMissedPushesOfTheSubscribedDestination() {
+        ReplayBuffer buffer = buffer(16);
+        long seen = buffer.record("alice", PRIVATE, "a");
+        buffer.record("alice", PRIVATE, "b");
+        buffer.record("alice", NOTIFICATIONS, "n");
+        buffer.record("alice", PRIVATE, "c");
+
+        ReplayBuffer.Replay replay = buffer.since("alice", PRIVATE, seen);
+
+        assertTrue(replay.complete());
+        assertEquals(List.of("b", "c"), replay.entries().stream().map(ReplayBuffer.Entry::payload).toList());
+    }
+
+    @Test
+    void upToDateClientGetsNothing() {
+        ReplayBuffer buffer = buffer(16);
+        long last = buffer.record("alice", PRIVATE, "a");
+
+        ReplayBuffer.Replay replay = buffer.since("alice", PRIVATE, last);
+
+        assertTrue(replay.complete());
+        assertTrue(replay.entries().isEmpty());
+    }
+
+    @Test
+    void gapLargerThanTheRingIsIncomplete() {
+        ReplayBuffer buffer = buffer(4);
+        long seen = buffer.record("alice", PRIVATE, "a");
+        for (int i = 0; i < 4; i++) {
+            buffer.record("alice", PRIVATE, "m" + i);
+        }
+
+        ReplayBuffer.Replay replay = buffer.since("alice", PRIVATE, seen);
+
+        assertFalse(replay.complete());
+        assertEquals(4, replay.entries().size());
+    }
+
+    @Test
+    void unknownUserNeedsTheDatabaseFallback() {
+        ReplayBuffer.Replay replay = buffer(4).since("bob", PRIVATE, 0);
+
+        assertFalse(replay.complete());
+        assertTrue(replay.entries().isEmpty());
+    }
+
+    private static ReplayBuffer buffer(int capacity) {
+        WebSocketReplayProperties properties = new WebSocketReplayProperties();
+        properties.setCapacity(capacity);
+        properties.setRetention(Duration.ofMinutes(10));
+        return new ReplayBuffer(properties);
+    }
+}
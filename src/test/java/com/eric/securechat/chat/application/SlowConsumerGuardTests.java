@@ -0,0 +1,115 @@
+package com.eric.securechat.chat.application;
+
+import com.eric.securechat.chat.config.WebSocketTransportProperties;
+import com.eric.securechat.chat.config.WebSocketTransportProperties.SlowConsumerPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for per-session outbound queue limits.
+ */
+class SlowConsumerGuardTests {
+
+    private static final String SESSION_ID = "session-1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final WebSocketHandler delegate = mock(WebSocketHandler.class);
+
+    @Test
+    void dropsFramesBeyondThePendingLimit() throws Exception {
+        SlowConsumerGuard guard = guard(SlowConsumerPolicy.DROP);
+        connect(guard);
+
+        assertNotNull(guard.preSend(frame("a"), channel));
+        assertNotNull(guard.preSend(frame("b"), channel));
+        assertNull(guard.preSend(frame("c"), channel));
+
+        assertEquals(1, meterRegistry.get("chat.websocket.slow_consumer.dropped").counter().count());
+        assertEquals(2, meterRegistry.get("chat.websocket.outbound.pending.bytes").gauge().value());
+        verify(session, never()).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void writtenFramesFreeTheirSlot() throws Exception {
+        SlowConsumerGuard guard = guard(SlowConsumerPolicy.DROP);
+        WebSocketSession tracked = connect(guard);
+        guard.preSend(frame("a"), channel);
+        guard.preSend(frame("b"), channel);
+
+        tracked.sendMessage(new TextMessage("MESSAGE\ndestination:/user/queue/private\n\na\u0000"));
+
+        assertNotNull(guard.preSend(frame("c"), channel));
+        assertEquals(2, meterRegistry.get("chat.websocket.outbound.pending.bytes").gauge().value());
+    }
+
+    @Test
+    void disconnectPolicyClosesTheSlowSession() throws Exception {
+        SlowConsumerGuard guard = guard(SlowConsumerPolicy.DISCONNECT);
+        connect(guard);
+        guard.preSend(frame("a"), channel);
+        guard.preSend(frame("b"), channel);
+
+        assertNull(guard.preSend(frame("c"), channel));
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void closingASessionReleasesItsPendingBytes() throws Exception {
+        SlowConsumerGuard guard = guard(SlowConsumerPolicy.DROP);
+        when(session.getId()).thenReturn(SESSION_ID);
+        WebSocketHandler handler = guard.decorate(delegate);
+        handler.afterConnectionEstablished(session);
+        guard.preSend(frame("abc"), channel);
+        assertEquals(3, meterRegistry.get("chat.websocket.outbound.pending.bytes").gauge().value());
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertEquals(0, meterRegistry.get("chat.websocket.outbound.pending.bytes").gauge().value());
+    }
+
+    private SlowConsumerGuard guard(SlowConsumerPolicy policy) {
+        WebSocketTransportProperties properties = new WebSocketTransportProperties();
+        properties.setMaxPendingMessages(2);
+        properties.setSlowConsumerPolicy(policy);
+        return new SlowConsumerGuard(properties, meterRegistry);
+    }
+
+    /**
+     * Opens the session through the guard and returns the session the STOMP handler writes to.
+     */
+    private WebSocketSession connect(SlowConsumerGuard guard) throws Exception {
+        when(session.getId()).thenReturn(SESSION_ID);
+        when(session.isOpen()).thenReturn(true);
+        guard.decorate(delegate).afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> tracked = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionEstablished(tracked.capture());
+        return tracked.getValue();
+    }
+
+    private static Message<byte[]> frame(String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        return MessageBuilder.createMessage(payload.getBytes(), accessor.getMessageHeaders());
+    }
+}
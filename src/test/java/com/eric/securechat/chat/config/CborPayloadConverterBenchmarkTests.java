@@ -0,0 +1,82 @@
+package com.eric.securechat.chat.config;
+
+import com.eric.securechat.message.domain.MessageType;
+import com.eric.securechat.message.dto.MessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares bytes per frame and serialization time of the CBOR chat payload encoding against JSON.
+ * Runs only with the benchmark profile ({@code mvn test -Pbenchmark}).
+ */
+@Tag("benchmark")
+class CborPayloadConverterBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(CborPayloadConverterBenchmarkTests.class);
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = CborPayloadConverter.createObjectMapper();
+
+    @Test
+    void cborFramesAreSmallerThanJson() throws Exception {
+        for (int ciphertextBytes : new int[]{64, 512, 4096}) {
+            MessageResponse response = sampleResponse(ciphertextBytes);
+
+            int jsonSize = jsonMapper.writeValueAsBytes(response).length;
+            int cborSize = cborMapper.writeValueAsBytes(response).length;
+            long jsonNanos = nanosPerWrite(jsonMapper, response);
+            long cborNanos = nanosPerWrite(cborMapper, response);
+
+            logger.info("ciphertext={} B | json={} B {} ns/op | cbor={} B {} ns/op | saved={}%",
+                    ciphertextBytes, jsonSize, jsonNanos, cborSize, cborNanos,
+                    String.format("%.1f", 100.0 * (jsonSize - cborSize) / jsonSize));
+
+            assertTrue(cborSize < jsonSize);
+        }
+    }
+
+    private long nanosPerWrite(ObjectMapper mapper, Object value) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static MessageResponse sampleResponse(int ciphertextBytes) {
+        return new MessageResponse(
+                UUID.randomUUID(),
+                "alice",
+                "bob",
+                randomBase64Url(ciphertextBytes),
+                MessageType.TEXT,
+                Instant.now(),
+                null,
+                null,
+                randomBase64Url(12)
+        );
+    }
+
+    private static String randomBase64Url(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,121 @@
+package com.eric.securechat.chat.config;
+
+import com.eric.securechat.chat.domain.ChatMessage;
+import com.eric.securechat.message.domain.MessageType;
+import com.eric.securechat.message.dto.MessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the CBOR chat payload encoding and the content types it claims.
+ */
+class CborPayloadConverterTests {
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = CborPayloadConverter.createObjectMapper();
+    private final CborPayloadConverter converter = new CborPayloadConverter();
+
+    @Test
+    void cborSavesAtLeastTheBase64OverheadOfTheCiphertext() throws Exception {
+        for (int ciphertextBytes : new int[]{64, 512, 4096}) {
+            MessageResponse response = sampleResponse(ciphertextBytes);
+
+            int jsonSize = jsonMapper.writeValueAsBytes(response).length;
+            int cborSize = cborMapper.writeValueAsBytes(response).length;
+            int base64Overhead = response.encryptedContent().length() - ciphertextBytes;
+
+            assertTrue(jsonSize - cborSize >= base64Overhead,
+                    "ciphertext=" + ciphertextBytes + " json=" + jsonSize + " cbor=" + cborSize);
+        }
+    }
+
+    @Test
+    void chatMessageRoundTripsThroughCbor() throws Exception {
+        ChatMessage message = new ChatMessage();
+        message.setSenderUsername("alice");
+        message.setReceiverUsername("bob");
+        message.setEncryptedContent(randomBase64Url(128));
+        message.setNonce(randomBase64Url(12));
+        message.setMessageType(ChatMessage.MessageType.TEXT);
+        message.setTimestamp(Instant.parse("2025-01-01T00:00:00Z"));
+
+        ChatMessage decoded = cborMapper.readValue(cborMapper.writeValueAsBytes(message), ChatMessage.class);
+
+        assertEquals(message.getEncryptedContent(), decoded.getEncryptedContent());
+        assertEquals(message.getNonce(), decoded.getNonce());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+    }
+
+    @Test
+    void nonBase64CiphertextIsKeptAsText() throws Exception {
+        ChatMessage message = new ChatMessage();
+        message.setEncryptedContent("not base64url!");
+        message.setNonce("YWJj=");
+
+        ChatMessage decoded = cborMapper.readValue(cborMapper.writeValueAsBytes(message), ChatMessage.class);
+
+        assertEquals("not base64url!", decoded.getEncryptedContent());
+        assertEquals("YWJj=", decoded.getNonce());
+    }
+
+    @Test
+    void decodesFramesWithTheCborContentType() throws Exception {
+        ChatMessage message = new ChatMessage();
+        message.setSenderUsername("alice");
+        message.setEncryptedContent(randomBase64Url(32));
+
+        Object decoded = converter.fromMessage(frame(cborMapper.writeValueAsBytes(message), CborPayloadConverter.CBOR_MIME_TYPE), ChatMessage.class);
+
+        assertNotNull(decoded);
+        assertEquals("alice", ((ChatMessage) decoded).getSenderUsername());
+    }
+
+    @Test
+    void ignoresOctetStreamFramesWithoutTheCborFormat() {
+        byte[] binary = {0x00, 0x01, 0x02, 0x03};
+
+        assertNull(converter.fromMessage(frame(binary, new MimeType("application", "octet-stream")), ChatMessage.class));
+        assertNull(converter.fromMessage(frame(binary, new MimeType("application", "octet-stream", Map.of("format", "protobuf"))), ChatMessage.class));
+        assertNull(converter.toMessage(new ChatMessage(), new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, new MimeType("application", "octet-stream")))));
+    }
+
+    private static Message<byte[]> frame(byte[] payload, MimeType contentType) {
+        return MessageBuilder.withPayload(payload).setHeader(MessageHeaders.CONTENT_TYPE, contentType).build();
+    }
+
+    private static MessageResponse sampleResponse(int ciphertextBytes) {
+        return new MessageResponse(
+                UUID.randomUUID(),
+                "alice",
+                "bob",
+                randomBase64Url(ciphertextBytes),
+                MessageType.TEXT,
+                Instant.now(),
+                null,
+                null,
+                randomBase64Url(12)
+        );
+    }
+
+    private static String randomBase64Url(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
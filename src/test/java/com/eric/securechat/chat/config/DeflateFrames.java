@@ -0,0 +1,99 @@
+package com.eric.securechat.chat.config;
+
+import com.eric.securechat.message.domain.MessageType;
+import com.eric.securechat.message.dto.MessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Sample STOMP chat frames and a permessage-deflate simulation shared by the deflate tests.
+ */
+final class DeflateFrames {
+
+    private static final ObjectMapper JSON_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private DeflateFrames() {
+    }
+
+    /**
+     * Compresses every frame the way the extension does (raw deflate, sync flush per message)
+     * and returns the average compressed size and average time per frame of the last round.
+     */
+    static long[] compress(List<byte[]> frames, int level, boolean contextTakeover, int rounds) {
+        byte[] buffer = new byte[64 * 1024];
+        long totalBytes = 0;
+        long totalNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            Deflater deflater = new Deflater(level, true);
+            totalBytes = 0;
+            long start = System.nanoTime();
+            for (byte[] frame : frames) {
+                if (!contextTakeover) {
+                    deflater.reset();
+                }
+                deflater.setInput(frame);
+                int written;
+                do {
+                    written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    totalBytes += written;
+                } while (written == buffer.length);
+                // The extension strips the trailing empty block (00 00 ff ff) from every message
+                totalBytes -= 4;
+            }
+            totalNanos = System.nanoTime() - start;
+            deflater.end();
+        }
+        return new long[]{totalBytes / frames.size(), totalNanos / frames.size()};
+    }
+
+    /**
+     * Builds MESSAGE frames carrying JSON chat payloads with random ciphertext.
+     */
+    static List<byte[]> sampleFrames(int count, int ciphertextBytes) throws Exception {
+        SecureRandom random = new SecureRandom();
+        List<byte[]> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] ciphertext = new byte[ciphertextBytes];
+            byte[] nonce = new byte[12];
+            random.nextBytes(ciphertext);
+            random.nextBytes(nonce);
+            MessageResponse response = new MessageResponse(
+                    UUID.randomUUID(),
+                    "alice",
+                    "bob",
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(ciphertext),
+                    MessageType.TEXT,
+                    Instant.now(),
+                    null,
+                    null,
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(nonce)
+            );
+            String body = JSON_MAPPER.writeValueAsString(response);
+            String frame = "MESSAGE\n"
+                    + "destination:/user/queue/private\n"
+                    + "content-type:application/json\n"
+                    + "subscription:sub-0\n"
+                    + "message-id:" + UUID.randomUUID() + "-" + i + "\n"
+                    + "content-length:" + body.length() + "\n\n"
+                    + body + "\0";
+            frames.add(frame.getBytes(StandardCharsets.UTF_8));
+        }
+        return frames;
+    }
+
+    /**
+     * Average size of the frames in bytes.
+     */
+    static int averageSize(List<byte[]> frames) {
+        return frames.stream().mapToInt(frame -> frame.length).sum() / frames.size();
+    }
+}
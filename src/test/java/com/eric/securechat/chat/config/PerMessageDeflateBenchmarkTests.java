@@ -0,0 +1,44 @@
+package com.eric.securechat.chat.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures bandwidth saved against CPU spent per frame for permessage-deflate on typical STOMP chat frames.
+ * Compresses a stream of frames with and without context takeover, at several compression levels and frame sizes.
+ * Runs only with the benchmark profile ({@code mvn test -Pbenchmark}).
+ */
+@Tag("benchmark")
+class PerMessageDeflateBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerMessageDeflateBenchmarkTests.class);
+
+    private static final int FRAMES = 2_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void reportsSavingsPerFrame() throws Exception {
+        for (int ciphertextBytes : new int[]{32, 256, 2048}) {
+            List<byte[]> frames = DeflateFrames.sampleFrames(FRAMES, ciphertextBytes);
+            int rawBytes = DeflateFrames.averageSize(frames);
+
+            for (int level : new int[]{Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION}) {
+                for (boolean contextTakeover : new boolean[]{true, false}) {
+                    long[] result = DeflateFrames.compress(frames, level, contextTakeover, ROUNDS);
+                    logger.info("ciphertext={} B | level={} takeover={} | raw={} B deflated={} B saved={}% | {} ns/frame",
+                            ciphertextBytes, level, contextTakeover, rawBytes, result[0],
+                            String.format("%.1f", 100.0 * (rawBytes - result[0]) / rawBytes), result[1]);
+
+                    assertTrue(result[0] < rawBytes);
+                }
+            }
+        }
+    }
+}
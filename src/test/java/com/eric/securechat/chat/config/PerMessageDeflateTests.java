@@ -0,0 +1,38 @@
+package com.eric.securechat.chat.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the compression permessage-deflate gives on typical STOMP chat frames.
+ */
+class PerMessageDeflateTests {
+
+    private static final int FRAMES = 200;
+
+    @Test
+    void deflateSavesAtLeastAFifthOfEveryFrameSize() throws Exception {
+        for (int ciphertextBytes : new int[]{32, 256, 2048}) {
+            List<byte[]> frames = DeflateFrames.sampleFrames(FRAMES, ciphertextBytes);
+            int rawBytes = DeflateFrames.averageSize(frames);
+
+            long deflated = DeflateFrames.compress(frames, Deflater.DEFAULT_COMPRESSION, true, 1)[0];
+
+            assertTrue(deflated * 5 <= rawBytes * 4, "ciphertext=" + ciphertextBytes + " raw=" + rawBytes + " deflated=" + deflated);
+        }
+    }
+
+    @Test
+    void contextTakeoverCompressesRepeatedKeysBetter() throws Exception {
+        List<byte[]> frames = DeflateFrames.sampleFrames(FRAMES, 64);
+
+        long withTakeover = DeflateFrames.compress(frames, Deflater.DEFAULT_COMPRESSION, true, 1)[0];
+        long withoutTakeover = DeflateFrames.compress(frames, Deflater.DEFAULT_COMPRESSION, false, 1)[0];
+
+        assertTrue(withTakeover < withoutTakeover);
+    }
+}
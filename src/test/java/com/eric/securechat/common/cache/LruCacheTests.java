@@ -0,0 +1,107 @@
+package com.eric.securechat.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for LruCache eviction, expiry and loads that race with invalidations.
+ */
+class LruCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void loadsAndCachesMisses() {
+        LruCache<String, String> cache = new LruCache<>(10);
+
+        assertEquals("loaded", cache.get("a", key -> "loaded"));
+        assertEquals("loaded", cache.get("a", key -> "reloaded"));
+    }
+
+    @Test
+    void doesNotCacheNullResults() {
+        LruCache<String, String> cache = new LruCache<>(10);
+
+        assertNull(cache.get("a", key -> null));
+        assertEquals("loaded", cache.get("a", key -> "loaded"));
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationIsNotCached() {
+        LruCache<String, String> cache = new LruCache<>(10);
+
+        String value = cache.get("a", key -> {
+            // The value changes and its invalidation runs while the old value is being read
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void invalidateAllCancelsLoadsOfEveryKey() {
+        LruCache<String, String> cache = new LruCache<>(10);
+        LruCache.Load first = cache.beginLoad("a");
+        LruCache.Load second = cache.beginLoad("b");
+
+        cache.invalidateAll();
+
+        assertFalse(cache.completeLoad("a", first, "stale"));
+        assertFalse(cache.completeLoad("b", second, "stale"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void onlyTheLatestLoadOfAKeyIsCached() {
+        LruCache<String, String> cache = new LruCache<>(10);
+        LruCache.Load older = cache.beginLoad("a");
+        LruCache.Load newer = cache.beginLoad("a");
+
+        assertTrue(cache.completeLoad("a", newer, "new"));
+        assertFalse(cache.completeLoad("a", older, "old"));
+        assertEquals("new", cache.get("a"));
+    }
+
+    @Test
+    void failedLoadEndsItsTicket() {
+        LruCache<String, String> cache = new LruCache<>(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("loaded", cache.get("a", key -> "loaded"));
+        assertEquals("loaded", cache.get("a"));
+    }
+
+    @Test
+    void expiredEntriesAreNotServed() throws InterruptedException {
+        LruCache<String, String> cache = new LruCache<>(10, Duration.ofMillis(20));
+        cache.put("a", "1");
+
+        assertEquals("1", cache.get("a"));
+        Thread.sleep(40);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
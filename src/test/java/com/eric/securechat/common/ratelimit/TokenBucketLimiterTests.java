@@ -0,0 +1,97 @@
+package com.eric.securechat.common.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the per-user token bucket limiter.
+ */
+class TokenBucketLimiterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void allowsABurstOfCapacityThenRejectsWithTheWaitTime() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 3, Duration.ofHours(1), 100, 1, meterRegistry);
+        UUID user = UUID.randomUUID();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(user));
+        }
+        long wait = limiter.tryAcquire(user);
+
+        assertTrue(wait > Duration.ofMinutes(19).toNanos() && wait <= Duration.ofMinutes(20).toNanos(), "wait=" + wait);
+        assertEquals(1, meterRegistry.get("rate.limit.rejected").counter().count());
+    }
+
+    @Test
+    void usersHaveSeparateBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1, Duration.ofHours(1), 100, 4, meterRegistry);
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+
+        assertEquals(0, limiter.tryAcquire(alice));
+        assertTrue(limiter.tryAcquire(alice) > 0);
+        assertEquals(0, limiter.tryAcquire(bob));
+    }
+
+    @Test
+    void refillsOverThePeriod() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 2, Duration.ofMillis(100), 100, 1, meterRegistry);
+        UUID user = UUID.randomUUID();
+        limiter.tryAcquire(user);
+        limiter.tryAcquire(user);
+        assertTrue(limiter.tryAcquire(user) > 0);
+
+        Thread.sleep(120);
+
+        assertEquals(0, limiter.tryAcquire(user));
+        assertEquals(0, limiter.tryAcquire(user));
+    }
+
+    @Test
+    void evictsOnlyIdleBuckets() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1, Duration.ofMillis(50), 100, 1, meterRegistry);
+        limiter.tryAcquire(UUID.randomUUID());
+        Thread.sleep(80);
+        limiter.tryAcquire(UUID.randomUUID());
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void fullStripeEvictsTheBucketClosestToFullInsteadOfLettingRequestsThrough() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 2, Duration.ofHours(1), 2, 1, meterRegistry);
+        UUID heavy = UUID.randomUUID();
+        UUID light = UUID.randomUUID();
+        limiter.tryAcquire(heavy);
+        limiter.tryAcquire(heavy);
+        limiter.tryAcquire(light);
+
+        // A new user needs room: light is closer to full than heavy and is evicted
+        assertEquals(0, limiter.tryAcquire(UUID.randomUUID()));
+        assertEquals(2, limiter.size());
+        assertEquals(1, meterRegistry.get("rate.limit.evicted.early").counter().count());
+        assertTrue(limiter.tryAcquire(heavy) > 0);
+    }
+
+    @Test
+    void manyNewUsersNeverBypassTheLimit() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1, Duration.ofHours(1), 8, 2, meterRegistry);
+        UUID attacker = UUID.randomUUID();
+        limiter.tryAcquire(attacker);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire(UUID.randomUUID());
+            assertTrue(limiter.size() <= 8);
+        }
+        assertEquals(0, meterRegistry.get("rate.limit.rejected").counter().count());
+    }
+}
@@ -0,0 +1,78 @@
+package com.eric.securechat.common.security;
+
+import com.eric.securechat.common.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for BoundedPasswordEncoder bulk hashing.
+ */
+class BoundedPasswordEncoderTests {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void importLeavesHalfOfTheThreadsForLogins() {
+        encoder = encoder(4);
+
+        List<String> encoded = encoder.encodeAll(Collections.nCopies(20, "password"));
+
+        assertEquals(20, encoded.size());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void importUsesTheOnlyThreadWhenThereIsOne() {
+        encoder = encoder(1);
+
+        assertEquals(List.of("hash:a", "hash:b"), encoder.encodeAll(List.of("a", "b")));
+        assertEquals(1, maxInFlight.get());
+    }
+
+    private BoundedPasswordEncoder encoder(int threads) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(threads);
+        properties.setTimeout(Duration.ofSeconds(5));
+        return new BoundedPasswordEncoder(new SlowEncoder(), properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Encoder that takes a little while per hash and records how many hashes overlap.
+     */
+    private final class SlowEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.eric.securechat.common.security;
+
+import com.eric.securechat.auth.application.TokenRevocationService;
+import com.eric.securechat.common.config.JwtSigningProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for token verification and the verified-claims cache.
+ */
+class JwtServiceTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String OTHER_SECRET = "fedcba9876543210fedcba9876543210";
+
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+
+    @Test
+    void validatesTheTokensItIssues() {
+        JwtService jwtService = jwtService(10);
+        String token = jwtService.generateToken(user("alice"));
+
+        assertEquals("alice", jwtService.validateToken(token));
+        assertTrue(jwtService.isTokenValid(token, user("alice")));
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        JwtService jwtService = jwtService(10);
+        String token = jwtService.generateToken(user("alice"));
+
+        Claims first = jwtService.extractClaim(token, Function.identity());
+
+        assertSame(first, jwtService.extractClaim(token, Function.identity()));
+    }
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlyUsedToken() {
+        JwtService jwtService = jwtService(1);
+        String older = jwtService.generateToken(user("alice"));
+        String newer = jwtService.generateToken(user("bob"));
+        Claims olderClaims = jwtService.extractClaim(older, Function.identity());
+
+        Claims newerClaims = jwtService.extractClaim(newer, Function.identity());
+
+        assertSame(newerClaims, jwtService.extractClaim(newer, Function.identity()));
+        assertNotSame(olderClaims, jwtService.extractClaim(older, Function.identity()));
+        assertEquals("alice", jwtService.validateToken(older));
+    }
+
+    @Test
+    void refreshTokensAreNotAccessTokens() {
+        JwtService jwtService = jwtService(10);
+        String refresh = jwtService.generateRefreshToken(user("alice"));
+
+        assertThrows(JwtException.class, () -> jwtService.validateToken(refresh));
+        assertEquals("alice", jwtService.validateRefreshToken(refresh).getSubject());
+        assertThrows(JwtException.class, () -> jwtService.validateRefreshToken(jwtService.generateToken(user("alice"))));
+    }
+
+    @Test
+    void revokedTokensAreRejectedEvenWhenCached() {
+        JwtService jwtService = jwtService(10);
+        String token = jwtService.generateToken(user("alice"));
+        String jti = jwtService.extractClaim(token, Claims::getId);
+        jwtService.validateToken(token);
+
+        when(tokenRevocationService.isRevoked(jti)).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> jwtService.validateToken(token));
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        String forged = jwtService(new JwtSigningKeys(OTHER_SECRET, new JwtSigningProperties()), 10)
+                .generateToken(user("alice"));
+
+        assertThrows(JwtException.class, () -> jwtService(10).validateToken(forged));
+    }
+
+    @Test
+    void rotationKeepsOldTokensValidUntilTheirKeyIsRetired() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setKeys(Map.of("k2", OTHER_SECRET));
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, properties);
+        JwtService jwtService = jwtService(keys, 10);
+        String before = jwtService.generateToken(user("alice"));
+        jwtService.validateToken(before);
+
+        keys.activate("k2");
+        String after = jwtService.generateToken(user("bob"));
+
+        assertEquals("alice", jwtService.validateToken(before));
+        assertEquals("bob", jwtService.validateToken(after));
+
+        keys.retire(JwtSigningKeys.DEFAULT_KEY_ID);
+
+        assertThrows(JwtException.class, () -> jwtService.validateToken(before));
+        assertEquals("bob", jwtService.validateToken(after));
+    }
+
+    private JwtService jwtService(int maxEntries) {
+        return jwtService(new JwtSigningKeys(SECRET, new JwtSigningProperties()), maxEntries);
+    }
+
+    private JwtService jwtService(JwtSigningKeys keys, int maxEntries) {
+        JwtService jwtService = new JwtService(tokenRevocationService, keys);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxEntries", maxEntries);
+        ReflectionTestUtils.setField(jwtService, "accessTokenTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(jwtService, "refreshTokenTtl", Duration.ofDays(14));
+        jwtService.init();
+        return jwtService;
+    }
+
+    private static UserDetails user(String username) {
+        return User.withUsername(username).password("secret").authorities(new String[0]).build();
+    }
+}
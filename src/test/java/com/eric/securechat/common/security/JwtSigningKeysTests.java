@@ -0,0 +1,114 @@
+package com.eric.securechat.common.security;
+
+import com.eric.securechat.common.config.JwtSigningProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.impl.DefaultJwsHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for JWT signing key registration and rotation.
+ */
+class JwtSigningKeysTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String NEXT_SECRET = "fedcba9876543210fedcba9876543210";
+
+    @Test
+    void registersTheLegacySecretAndConfiguredKeys() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setKeys(Map.of("k2", NEXT_SECRET));
+        properties.setActiveKeyId("k2");
+
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, properties);
+
+        assertEquals(Set.of(JwtSigningKeys.DEFAULT_KEY_ID, "k2"), keys.keyIds());
+        assertEquals("k2", keys.current().activeKeyId());
+    }
+
+    @Test
+    void unknownActiveKeyIdFailsAtStartup() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setActiveKeyId("missing");
+
+        assertThrows(IllegalStateException.class, () -> new JwtSigningKeys(SECRET, properties));
+    }
+
+    @Test
+    void tokensWithoutKidVerifyAgainstTheDefaultKey() {
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, new JwtSigningProperties());
+
+        assertSame(keys.current().activeKey(), keys.resolveSigningKey(new DefaultJwsHeader(), (Claims) null));
+        assertTrue(keys.isKnown(null));
+    }
+
+    @Test
+    void rotationActivatesAndRetires() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setKeys(Map.of("k2", NEXT_SECRET));
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, properties);
+        assertEquals(JwtSigningKeys.DEFAULT_KEY_ID, keys.current().activeKeyId());
+        assertTrue(keys.isKnown("k2"));
+
+        keys.activate("k2");
+        assertEquals("k2", keys.current().activeKeyId());
+        assertNotEquals(keys.current().activeKey(), keys.resolveSigningKey(header(JwtSigningKeys.DEFAULT_KEY_ID), (Claims) null));
+
+        keys.retire(JwtSigningKeys.DEFAULT_KEY_ID);
+        assertFalse(keys.isKnown(null));
+        assertThrows(UnsupportedJwtException.class, () -> keys.resolveSigningKey(new DefaultJwsHeader(), (Claims) null));
+    }
+
+    @Test
+    void keysInstalledAtRuntimeOnlyVerify() {
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, new JwtSigningProperties());
+
+        keys.install("k2", NEXT_SECRET, false);
+
+        assertTrue(keys.isKnown("k2"));
+        assertThrows(IllegalStateException.class, () -> keys.activate("k2"));
+        assertThrows(IllegalStateException.class, () -> keys.install("k3", NEXT_SECRET, true));
+        assertEquals(JwtSigningKeys.DEFAULT_KEY_ID, keys.current().activeKeyId());
+    }
+
+    @Test
+    void configuredKeysCannotBeActivatedWithAnotherSecret() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setKeys(Map.of("k2", NEXT_SECRET));
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, properties);
+
+        assertThrows(IllegalStateException.class, () -> keys.install("k2", SECRET + SECRET, true));
+        keys.install("k2", NEXT_SECRET, true);
+        assertEquals("k2", keys.current().activeKeyId());
+    }
+
+    @Test
+    void activeKeyCannotBeRetired() {
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, new JwtSigningProperties());
+
+        assertThrows(IllegalStateException.class, () -> keys.retire(JwtSigningKeys.DEFAULT_KEY_ID));
+    }
+
+    @Test
+    void activatingAnUnknownKeyIsRejected() {
+        JwtSigningKeys keys = new JwtSigningKeys(SECRET, new JwtSigningProperties());
+
+        assertThrows(IllegalArgumentException.class, () -> keys.activate("k2"));
+    }
+
+    private static DefaultJwsHeader header(String keyId) {
+        DefaultJwsHeader header = new DefaultJwsHeader();
+        header.setKeyId(keyId);
+        return header;
+    }
+}
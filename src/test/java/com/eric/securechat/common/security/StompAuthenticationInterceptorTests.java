@@ -0,0 +1,101 @@
+package com.eric.securechat.common.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for authenticating STOMP sessions on their CONNECT frame.
+ */
+class StompAuthenticationInterceptorTests {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final StompAuthenticationInterceptor interceptor = new StompAuthenticationInterceptor(jwtService);
+
+    @Test
+    void connectWithBearerTokenBindsAndCachesThePrincipal() {
+        when(jwtService.validateToken("good")).thenReturn("alice");
+        Map<String, Object> attributes = new HashMap<>();
+
+        Message<?> connect = interceptor.preSend(frame(StompCommand.CONNECT, attributes, "Bearer good"), channel);
+
+        Principal user = accessor(connect).getUser();
+        assertEquals("alice", user.getName());
+        assertSame(user, attributes.get(StompAuthenticationInterceptor.PRINCIPAL_ATTRIBUTE));
+    }
+
+    @Test
+    void laterFramesReuseTheCachedPrincipalWithoutTokenWork() {
+        when(jwtService.validateToken("good")).thenReturn("alice");
+        Map<String, Object> attributes = new HashMap<>();
+        interceptor.preSend(frame(StompCommand.CONNECT, attributes, "Bearer good"), channel);
+
+        Message<?> send = interceptor.preSend(frame(StompCommand.SEND, attributes, null), channel);
+
+        assertEquals("alice", accessor(send).getUser().getName());
+        verify(jwtService, times(1)).validateToken(anyString());
+    }
+
+    @Test
+    void connectWithInvalidTokenIsRejected() {
+        when(jwtService.validateToken("bad")).thenThrow(new JwtException("expired"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, new HashMap<>(), "Bearer bad"), channel));
+    }
+
+    @Test
+    void connectWithoutTokenIsRejected() {
+        assertThrows(BadCredentialsException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, new HashMap<>(), null), channel));
+    }
+
+    @Test
+    void connectFallsBackToTheHandshakeUsername() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(JwtHandshakeInterceptor.HANDSHAKE_USERNAME_ATTRIBUTE, "bob");
+
+        Message<?> connect = interceptor.preSend(frame(StompCommand.CONNECT, attributes, null), channel);
+
+        assertEquals("bob", accessor(connect).getUser().getName());
+        assertEquals("bob", ((Authentication) attributes.get(StompAuthenticationInterceptor.PRINCIPAL_ATTRIBUTE)).getName());
+        verify(jwtService, never()).validateToken(anyString());
+    }
+
+    private static Message<byte[]> frame(StompCommand command, Map<String, Object> attributes, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-1");
+        accessor.setSessionAttributes(attributes);
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static StompHeaderAccessor accessor(Message<?> message) {
+        return MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.dto.VersionedFriendList;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.user.application.PublicKeyChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for FriendListCache versions and invalidation.
+ */
+class FriendListCacheTests {
+
+    private final UUID aliceId = UUID.randomUUID();
+    private final FriendStatusDto bob = new FriendStatusDto(UUID.randomUUID(), "bob", "Bob", FriendshipStatus.ACCEPTED, "ed-1", "x-1");
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+
+    @Test
+    void versionDependsOnlyOnTheListContents() {
+        when(friendshipRepository.findFriendList(eq(aliceId), any())).thenReturn(List.of(bob));
+
+        VersionedFriendList first = new FriendListCache(friendshipRepository, 10).get("alice", aliceId);
+        // A fresh cache, as after a restart, gives the unchanged list the same version
+        VersionedFriendList second = new FriendListCache(friendshipRepository, 10).get("alice", aliceId);
+
+        assertEquals(first.version(), second.version());
+    }
+
+    @Test
+    void servesFromCacheUntilARelationshipChanges() {
+        FriendStatusDto blocked = new FriendStatusDto(bob.id(), "bob", "Bob", FriendshipStatus.BLOCKED, "ed-1", "x-1");
+        when(friendshipRepository.findFriendList(eq(aliceId), any())).thenReturn(List.of(bob), List.of(blocked));
+        FriendListCache cache = new FriendListCache(friendshipRepository, 10);
+
+        String before = cache.get("alice", aliceId).version();
+        assertEquals(before, cache.get("alice", aliceId).version());
+        cache.onFriendshipChanged(new FriendshipChangedEvent(FriendshipChangeType.BLOCKED, aliceId, "alice", bob.id(), "bob"));
+        VersionedFriendList after = cache.get("alice", aliceId);
+
+        assertEquals(FriendshipStatus.BLOCKED, after.friends().get(0).status());
+        assertNotEquals(before, after.version());
+        verify(friendshipRepository, times(2)).findFriendList(eq(aliceId), any());
+    }
+
+    @Test
+    void friendKeyChangeChangesTheVersion() {
+        FriendStatusDto rotated = new FriendStatusDto(bob.id(), "bob", "Bob", FriendshipStatus.ACCEPTED, "ed-1", "x-2");
+        when(friendshipRepository.findFriendList(eq(aliceId), any())).thenReturn(List.of(bob), List.of(rotated));
+        when(friendshipRepository.findFriendUsernames(eq(bob.id()), any())).thenReturn(List.of("alice"));
+        FriendListCache cache = new FriendListCache(friendshipRepository, 10);
+
+        String before = cache.get("alice", aliceId).version();
+        cache.onPublicKeyChanged(new PublicKeyChangedEvent(bob.id(), "bob", PublicKeyChangedEvent.X25519, "x-2"));
+
+        assertNotEquals(before, cache.get("alice", aliceId).version());
+    }
+
+    @Test
+    void listLoadedAcrossAnInvalidationIsNotCached() {
+        FriendListCache cache = new FriendListCache(friendshipRepository, 10);
+        when(friendshipRepository.findFriendList(eq(aliceId), any())).thenAnswer(invocation -> {
+            cache.onFriendshipChanged(new FriendshipChangedEvent(FriendshipChangeType.UNFRIENDED, aliceId, "alice", bob.id(), "bob"));
+            return List.of(bob);
+        }).thenReturn(List.of());
+
+        cache.get("alice", aliceId);
+
+        assertEquals(List.of(), cache.get("alice", aliceId).friends());
+    }
+}
@@ -0,0 +1,138 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendListChange;
+import com.eric.securechat.friendship.domain.FriendshipChange;
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+import com.eric.securechat.friendship.domain.FriendshipId;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.FriendListDelta;
+import com.eric.securechat.friendship.dto.FriendStatusDto;
+import com.eric.securechat.friendship.repository.FriendshipChangeRepository;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for friend list delta sync from the change log.
+ */
+class FriendListChangeLogTests {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final FriendshipChangeRepository changeRepository = mock(FriendshipChangeRepository.class);
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private final FriendListChangeLog changeLog = new FriendListChangeLog(changeRepository, friendshipRepository, 5, Duration.ofDays(30));
+    private final List<FriendStatusDto> fullList = List.of(
+            new FriendStatusDto(bob, "bob", "Bob", FriendshipStatus.ACCEPTED, "ed", "x"));
+
+    @Test
+    void upToDateClientGetsAnEmptyDelta() {
+        when(changeRepository.findVersion(alice)).thenReturn(Optional.of(7L));
+
+        FriendListDelta delta = changeLog.changesSince(alice, 7);
+
+        assertEquals(new FriendListDelta(7, false, List.of(), List.of()), delta);
+        verifyNoInteractions(friendshipRepository);
+    }
+
+    @Test
+    void mergesToTheLatestChangePerUser() {
+        when(changeRepository.findVersion(alice)).thenReturn(Optional.of(7L));
+        when(changeRepository.findChangesSince(eq(alice), eq(4L), any())).thenReturn(List.of(
+                change(5, bob, "bob", FriendshipStatus.ACCEPTED),
+                change(6, carol, "carol", FriendshipStatus.ACCEPTED),
+                change(7, bob, "bob", null)));
+
+        FriendListDelta delta = changeLog.changesSince(alice, 4);
+
+        assertFalse(delta.resync());
+        assertEquals(7, delta.version());
+        assertEquals(List.of("carol"), delta.changed().stream().map(FriendStatusDto::username).toList());
+        assertEquals(List.of("bob"), delta.removed());
+    }
+
+    @Test
+    void purgedChangesForceAResync() {
+        when(changeRepository.findVersion(alice)).thenReturn(Optional.of(7L));
+        when(changeRepository.findChangesSince(eq(alice), eq(4L), any())).thenReturn(List.of(
+                change(6, carol, "carol", FriendshipStatus.ACCEPTED),
+                change(7, bob, "bob", FriendshipStatus.BLOCKED)));
+        when(friendshipRepository.findFriendList(eq(alice), any())).thenReturn(fullList);
+
+        FriendListDelta delta = changeLog.changesSince(alice, 4);
+
+        assertTrue(delta.resync());
+        assertEquals(7, delta.version());
+        assertEquals(fullList, delta.changed());
+    }
+
+    @Test
+    void tooManyChangesForceAResync() {
+        when(changeRepository.findVersion(alice)).thenReturn(Optional.of(20L));
+        when(friendshipRepository.findFriendList(eq(alice), any())).thenReturn(fullList);
+
+        FriendListDelta delta = changeLog.changesSince(alice, 10);
+
+        assertTrue(delta.resync());
+        assertEquals(fullList, delta.changed());
+        verify(changeRepository, never()).findChangesSince(any(), anyLong(), any());
+    }
+
+    @Test
+    void unknownOrFutureVersionsForceAResync() {
+        when(changeRepository.findVersion(alice)).thenReturn(Optional.of(3L));
+        when(friendshipRepository.findFriendList(eq(alice), any())).thenReturn(fullList);
+
+        assertTrue(changeLog.changesSince(alice, 0).resync());
+        assertTrue(changeLog.changesSince(alice, 9).resync());
+    }
+
+    @Test
+    void recordsListChangesForBothUsersLowIdFirst() {
+        FriendshipId pair = FriendshipId.between(alice, bob);
+        when(changeRepository.incrementVersion(any())).thenReturn(1L);
+
+        changeLog.onFriendshipChanged(new FriendshipChangedEvent(FriendshipChangeType.UNFRIENDED, alice, "alice", bob, "bob"));
+
+        InOrder order = inOrder(changeRepository);
+        order.verify(changeRepository).incrementVersion(pair.getUserLowId());
+        order.verify(changeRepository).incrementVersion(pair.getUserHighId());
+        ArgumentCaptor<FriendshipChange> saved = ArgumentCaptor.forClass(FriendshipChange.class);
+        verify(changeRepository, times(2)).save(saved.capture());
+        assertNull(saved.getValue().getStatus());
+    }
+
+    @Test
+    void requestsAndDeclinesAreNotRecorded() {
+        changeLog.onFriendshipChanged(new FriendshipChangedEvent(FriendshipChangeType.REQUESTED, alice, "alice", bob, "bob"));
+        changeLog.onFriendshipChanged(new FriendshipChangedEvent(FriendshipChangeType.DECLINED, alice, "alice", bob, "bob"));
+
+        verifyNoInteractions(changeRepository);
+    }
+
+    private static FriendListChange change(long version, UUID userId, String username, FriendshipStatus status) {
+        return new FriendListChange(version, userId, username, username, status, "ed", "x");
+    }
+}
@@ -0,0 +1,80 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.common.ratelimit.RateLimiter;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.message.repository.MessageRepository;
+import com.eric.securechat.user.application.UserIdentityCache;
+import com.eric.securechat.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that friend requests between blocked users are rejected from the friendship graph.
+ */
+class FriendRequestBlockingTests {
+
+    private final UserIdentityCache userIdentityCache = mock(UserIdentityCache.class);
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private final FriendshipGraph friendshipGraph = new FriendshipGraph(friendshipRepository);
+    private final User alice = user("alice");
+    private final User bob = user("bob");
+    private FriendshipServiceImpl friendshipService;
+
+    @BeforeEach
+    void setUp() {
+        when(userIdentityCache.reference(eq("alice"), any())).thenReturn(alice);
+        when(userIdentityCache.reference(eq("bob"), any())).thenReturn(bob);
+        friendshipService = new FriendshipServiceImpl(userIdentityCache, friendshipRepository, mock(MessageRepository.class),
+                friendshipGraph, mock(FriendListCache.class), mock(FriendListChangeLog.class),
+                mock(FriendSuggestionIndex.class), mock(FriendshipBulkOperations.class), mock(RateLimiter.class),
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void requestToAUserWhoBlockedTheRequesterIsRejectedWithoutAQuery() {
+        load(new FriendshipEdge(alice.getId(), bob.getId(), FriendshipStatus.BLOCKED, bob.getId()));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> friendshipService.sendRequest("alice", "bob"));
+
+        assertEquals("You are blocked by this user and cannot send a friend request.", e.getMessage());
+        verifyNoInteractions(friendshipRepository);
+    }
+
+    @Test
+    void requestToABlockedUserAsksTheRequesterToUnblock() {
+        load(new FriendshipEdge(bob.getId(), alice.getId(), FriendshipStatus.BLOCKED, alice.getId()));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> friendshipService.sendRequest("alice", "bob"));
+
+        assertEquals("You have blocked this user. Please unblock them to send a request.", e.getMessage());
+        verifyNoInteractions(friendshipRepository);
+    }
+
+    private void load(FriendshipEdge edge) {
+        when(friendshipRepository.findAllEdges()).thenReturn(List.of(edge));
+        friendshipGraph.load();
+        clearInvocations(friendshipRepository);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,145 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendshipEdge;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.FriendSuggestionDto;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.user.dto.UserDto;
+import com.eric.securechat.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for mutual-friend suggestions.
+ */
+class FriendSuggestionIndexTests {
+
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final FriendshipGraph friendshipGraph = new FriendshipGraph(friendshipRepository);
+
+    FriendSuggestionIndexTests() {
+        when(userRepository.findProfilesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new UserDto(id, id.toString(), id.toString())).toList();
+        });
+    }
+
+    @Test
+    void ranksFriendsOfFriendsByMutualFriends() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        UUID dave = UUID.randomUUID();
+        UUID erin = UUID.randomUUID();
+        UUID pending = UUID.randomUUID();
+        load(List.of(
+                accepted(alice, bob), accepted(alice, carol),
+                accepted(bob, dave), accepted(carol, dave),
+                accepted(bob, erin),
+                accepted(bob, pending), new FriendshipEdge(alice, pending, FriendshipStatus.PENDING, null)));
+        FriendSuggestionIndex index = new FriendSuggestionIndex(friendshipGraph, userRepository, 10);
+
+        index.refresh();
+        List<FriendSuggestionDto> suggestions = index.suggest(alice, 10);
+
+        // Existing friends and users with any relationship are never suggested
+        assertEquals(List.of(dave, erin), suggestions.stream().map(FriendSuggestionDto::id).toList());
+        assertEquals(List.of(2, 1), suggestions.stream().map(FriendSuggestionDto::mutualFriends).toList());
+    }
+
+    @Test
+    void skipsUsersRelatedSinceTheLastRefresh() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID dave = UUID.randomUUID();
+        load(List.of(accepted(alice, bob), accepted(bob, dave)));
+        FriendSuggestionIndex index = new FriendSuggestionIndex(friendshipGraph, userRepository, 10);
+        index.refresh();
+
+        when(friendshipRepository.findEdgesBetween(alice, List.of(dave)))
+                .thenReturn(List.of(new FriendshipEdge(alice, dave, FriendshipStatus.PENDING, null)));
+        friendshipGraph.refreshAfterCommit(alice, dave);
+
+        assertTrue(index.suggest(alice, 10).isEmpty());
+    }
+
+    @Test
+    void topKMatchesABruteForceRankingOnARandomGraph() {
+        Random random = new Random(42);
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            users.add(UUID.randomUUID());
+        }
+        Map<UUID, Set<UUID>> friends = new HashMap<>();
+        Map<UUID, Set<UUID>> related = new HashMap<>();
+        List<FriendshipEdge> edges = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID a = users.get(random.nextInt(users.size()));
+            UUID b = users.get(random.nextInt(users.size()));
+            if (a.equals(b) || related.getOrDefault(a, Set.of()).contains(b)) {
+                continue;
+            }
+            FriendshipStatus status = random.nextInt(10) == 0 ? FriendshipStatus.BLOCKED : FriendshipStatus.ACCEPTED;
+            edges.add(new FriendshipEdge(a, b, status, status == FriendshipStatus.BLOCKED ? a : b));
+            related.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+            related.computeIfAbsent(b, k -> new HashSet<>()).add(a);
+            if (status == FriendshipStatus.ACCEPTED) {
+                friends.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+                friends.computeIfAbsent(b, k -> new HashSet<>()).add(a);
+            }
+        }
+        load(edges);
+        FriendSuggestionIndex index = new FriendSuggestionIndex(friendshipGraph, userRepository, 5);
+        index.refresh();
+        List<UUID> denseOrder = Arrays.asList(friendshipGraph.snapshot().userIds());
+
+        for (UUID user : users) {
+            Map<UUID, Integer> mutual = new HashMap<>();
+            for (UUID friend : friends.getOrDefault(user, Set.of())) {
+                for (UUID candidate : friends.getOrDefault(friend, Set.of())) {
+                    if (!candidate.equals(user) && !related.getOrDefault(user, Set.of()).contains(candidate)) {
+                        mutual.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+            List<UUID> expected = mutual.keySet().stream()
+                    .sorted(Comparator.comparing((UUID candidate) -> -mutual.get(candidate)).thenComparing(denseOrder::indexOf))
+                    .limit(5)
+                    .toList();
+
+            List<FriendSuggestionDto> actual = index.suggest(user, 5);
+
+            assertEquals(expected, actual.stream().map(FriendSuggestionDto::id).toList());
+            for (FriendSuggestionDto suggestion : actual) {
+                assertEquals(mutual.get(suggestion.id()), suggestion.mutualFriends());
+            }
+        }
+    }
+
+    private void load(List<FriendshipEdge> edges) {
+        when(friendshipRepository.findAllEdges()).thenReturn(edges);
+        friendshipGraph.load();
+    }
+
+    private static FriendshipEdge accepted(UUID requester, UUID addressee) {
+        return new FriendshipEdge(requester, addressee, FriendshipStatus.ACCEPTED, addressee);
+    }
+}
@@ -0,0 +1,154 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.BulkRelationshipAction;
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+import com.eric.securechat.friendship.domain.FriendshipDirection;
+import com.eric.securechat.friendship.domain.FriendshipEdge;
+import com.eric.securechat.friendship.domain.FriendshipId;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.dto.BulkRelationshipRequest;
+import com.eric.securechat.friendship.dto.BulkRelationshipResult;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.message.application.ConversationPurger;
+import com.eric.securechat.user.domain.UserIdentity;
+import com.eric.securechat.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for bulk block, unblock and unfriend.
+ */
+class FriendshipBulkOperationsTests {
+
+    private final UserIdentity alice = new UserIdentity(UUID.randomUUID(), "alice");
+    private final UserIdentity bob = new UserIdentity(UUID.randomUUID(), "bob");
+    private final UserIdentity carol = new UserIdentity(UUID.randomUUID(), "carol");
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final FriendshipGraph friendshipGraph = mock(FriendshipGraph.class);
+    private final ConversationPurger conversationPurger = mock(ConversationPurger.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final FriendshipBulkOperations bulkOperations = new FriendshipBulkOperations(userRepository, friendshipRepository,
+            jdbcTemplate, friendshipGraph, conversationPurger, eventPublisher, 4);
+
+    @Test
+    void unfriendsOnlyFriendsAndReportsTheRest() {
+        when(userRepository.findIdentitiesByUsernameIn(anyCollection())).thenReturn(List.of(bob, carol));
+        when(friendshipRepository.findEdgesBetween(eq(alice.id()), anyCollection())).thenReturn(List.of(
+                new FriendshipEdge(alice.id(), bob.id(), FriendshipStatus.ACCEPTED, bob.id()),
+                new FriendshipEdge(carol.id(), alice.id(), FriendshipStatus.PENDING, null)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        BulkRelationshipResult result = bulkOperations.apply(alice,
+                new BulkRelationshipRequest(BulkRelationshipAction.UNFRIEND, List.of("bob", "carol", "ghost", "alice")));
+
+        assertEquals(List.of("bob"), result.applied());
+        assertEquals(List.of("alice", "carol"), List.copyOf(result.skipped().keySet()));
+        assertEquals(List.of("ghost"), result.notFound());
+        assertEquals(1, batchRows().size());
+        verify(friendshipGraph).refreshAfterCommit(alice.id(), List.of(bob.id()));
+        verify(eventPublisher).publishEvent(new FriendshipChangedEvent(FriendshipChangeType.UNFRIENDED, alice.id(), "alice", bob.id(), "bob"));
+        verify(conversationPurger).purgeAfterCommit(alice.id(), List.of(bob.id()));
+    }
+
+    @Test
+    void rowsChangedConcurrentlyAreSkippedWithoutSideEffects() {
+        when(userRepository.findIdentitiesByUsernameIn(anyCollection())).thenReturn(List.of(bob, carol));
+        when(friendshipRepository.findEdgesBetween(eq(alice.id()), anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        BulkRelationshipResult result = bulkOperations.apply(alice,
+                new BulkRelationshipRequest(BulkRelationshipAction.BLOCK, List.of("bob", "carol")));
+
+        assertEquals(List.of("bob"), result.applied());
+        assertEquals(Map.of("carol", "The relationship changed in the meantime."), result.skipped());
+        verify(friendshipGraph).refreshAfterCommit(alice.id(), List.of(bob.id()));
+        verify(eventPublisher, never()).publishEvent(new FriendshipChangedEvent(FriendshipChangeType.BLOCKED, alice.id(), "alice", carol.id(), "carol"));
+    }
+
+    @Test
+    void blockSkipsUsersTheActorAlreadyBlockedButOverridesTheirBlock() {
+        when(userRepository.findIdentitiesByUsernameIn(anyCollection())).thenReturn(List.of(bob, carol));
+        when(friendshipRepository.findEdgesBetween(eq(alice.id()), anyCollection())).thenReturn(List.of(
+                new FriendshipEdge(alice.id(), bob.id(), FriendshipStatus.BLOCKED, alice.id()),
+                new FriendshipEdge(carol.id(), alice.id(), FriendshipStatus.BLOCKED, carol.id())));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        BulkRelationshipResult result = bulkOperations.apply(alice,
+                new BulkRelationshipRequest(BulkRelationshipAction.BLOCK, List.of("bob", "carol")));
+
+        assertEquals(List.of("carol"), result.applied());
+        assertEquals(Map.of("bob", "This user is already blocked."), result.skipped());
+        // The existing row keeps its request direction
+        FriendshipDirection direction = FriendshipId.isLow(carol.id(), alice.id())
+                ? FriendshipDirection.LOW_TO_HIGH : FriendshipDirection.HIGH_TO_LOW;
+        assertEquals(direction.name(), batchRows().get(0)[2]);
+        verify(friendshipGraph).refreshAfterCommit(alice.id(), List.of(carol.id()));
+    }
+
+    @Test
+    void onlyTheBlockerCanUnblock() {
+        when(userRepository.findIdentitiesByUsernameIn(anyCollection())).thenReturn(List.of(bob, carol));
+        when(friendshipRepository.findEdgesBetween(eq(alice.id()), anyCollection())).thenReturn(List.of(
+                new FriendshipEdge(alice.id(), bob.id(), FriendshipStatus.BLOCKED, alice.id()),
+                new FriendshipEdge(carol.id(), alice.id(), FriendshipStatus.BLOCKED, carol.id())));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        BulkRelationshipResult result = bulkOperations.apply(alice,
+                new BulkRelationshipRequest(BulkRelationshipAction.UNBLOCK, List.of("bob", "carol")));
+
+        assertEquals(List.of("bob"), result.applied());
+        assertEquals(Map.of("carol", "Only the user who initiated the block can unblock."), result.skipped());
+        verify(friendshipGraph).refreshAfterCommit(alice.id(), List.of(bob.id()));
+    }
+
+    @Test
+    void nothingEligibleSkipsTheBatch() {
+        when(userRepository.findIdentitiesByUsernameIn(anyCollection())).thenReturn(List.of(bob));
+        when(friendshipRepository.findEdgesBetween(eq(alice.id()), anyCollection())).thenReturn(List.of());
+
+        BulkRelationshipResult result = bulkOperations.apply(alice,
+                new BulkRelationshipRequest(BulkRelationshipAction.UNBLOCK, List.of("bob")));
+
+        assertEquals(Map.of("bob", "This user is not blocked."), result.skipped());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(conversationPurger).purgeAfterCommit(alice.id(), List.of());
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedRequests() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkOperations.apply(alice, new BulkRelationshipRequest(BulkRelationshipAction.BLOCK, List.of())));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkOperations.apply(alice, new BulkRelationshipRequest(null, List.of("bob"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkOperations.apply(alice, new BulkRelationshipRequest(BulkRelationshipAction.BLOCK, List.of("a", "b", "c", "d", "e"))));
+        verify(userRepository, never()).findIdentitiesByUsernameIn(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> batchRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
+    }
+}
@@ -0,0 +1,40 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.chat.application.WebSocketService;
+import com.eric.securechat.friendship.domain.FriendshipChangeType;
+import com.eric.securechat.friendship.dto.FriendshipEventNotification;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for pushing friendship changes to the other user.
+ */
+class FriendshipEventNotifierTests {
+
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private final FriendshipEventNotifier notifier = new FriendshipEventNotifier(webSocketService);
+
+    @Test
+    void pushesTheChangeToTheTargetUserOnly() {
+        notifier.onFriendshipChanged(new FriendshipChangedEvent(
+                FriendshipChangeType.ACCEPTED, UUID.randomUUID(), "alice", UUID.randomUUID(), "bob"));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketService).sendToUser(eq("bob"), eq(FriendshipEventNotifier.FRIENDSHIP_EVENTS_QUEUE), payload.capture());
+        verify(webSocketService, never()).sendToUser(eq("alice"), anyString(), payload.capture());
+        FriendshipEventNotification notification = (FriendshipEventNotification) payload.getValue();
+        assertEquals(FriendshipChangeType.ACCEPTED, notification.type());
+        assertEquals("alice", notification.username());
+        assertNotNull(notification.occurredAt());
+    }
+}
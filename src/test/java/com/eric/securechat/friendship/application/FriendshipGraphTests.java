@@ -0,0 +1,115 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.domain.FriendshipEdge;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory friendship graph.
+ */
+class FriendshipGraphTests {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private FriendshipGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        when(friendshipRepository.findAllEdges()).thenReturn(List.of(
+                new FriendshipEdge(alice, bob, FriendshipStatus.ACCEPTED, bob),
+                new FriendshipEdge(carol, alice, FriendshipStatus.PENDING, null)));
+        graph = new FriendshipGraph(friendshipRepository);
+        graph.load();
+    }
+
+    @Test
+    void findsEdgesFromEitherSide() {
+        FriendshipEdge expected = new FriendshipEdge(alice, bob, FriendshipStatus.ACCEPTED, bob);
+
+        assertEquals(expected, graph.find(alice, bob).orElseThrow());
+        assertEquals(expected, graph.find(bob, alice).orElseThrow());
+        assertEquals(new FriendshipEdge(carol, alice, FriendshipStatus.PENDING, null), graph.find(alice, carol).orElseThrow());
+        assertTrue(graph.find(bob, carol).isEmpty());
+        assertTrue(graph.find(alice, UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void refreshesImmediatelyOutsideATransaction() {
+        when(friendshipRepository.findEdgesBetween(alice, List.of(carol, bob)))
+                .thenReturn(List.of(new FriendshipEdge(carol, alice, FriendshipStatus.BLOCKED, alice)));
+
+        graph.refreshAfterCommit(alice, List.of(carol, bob));
+
+        assertEquals(FriendshipStatus.BLOCKED, graph.find(alice, carol).orElseThrow().status());
+        assertTrue(graph.find(alice, bob).isEmpty());
+    }
+
+    @Test
+    void refreshesOnlyOnceTheTransactionCommits() {
+        when(friendshipRepository.findEdgesBetween(bob, List.of(carol)))
+                .thenReturn(List.of(new FriendshipEdge(bob, carol, FriendshipStatus.PENDING, null)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            graph.refreshAfterCommit(bob, carol);
+
+            assertTrue(graph.find(bob, carol).isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(FriendshipStatus.PENDING, graph.find(carol, bob).orElseThrow().status());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void callbacksRunningOutOfCommitOrderKeepTheLatestRow() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Two transactions on the same pair: unfriend commits first, then a new request
+            graph.refreshAfterCommit(alice, bob);
+            graph.refreshAfterCommit(bob, alice);
+            List<TransactionSynchronization> callbacks = TransactionSynchronizationManager.getSynchronizations();
+            FriendshipEdge request = new FriendshipEdge(bob, alice, FriendshipStatus.PENDING, null);
+            when(friendshipRepository.findEdgesBetween(bob, List.of(alice))).thenReturn(List.of(request));
+            when(friendshipRepository.findEdgesBetween(alice, List.of(bob))).thenReturn(List.of(request));
+
+            // The request's callback runs before the unfriend's
+            callbacks.get(1).afterCommit();
+            callbacks.get(0).afterCommit();
+
+            assertEquals(request, graph.find(alice, bob).orElseThrow());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void snapshotListsNeighborsAndAcceptedFriends() {
+        FriendshipGraph.Snapshot snapshot = graph.snapshot();
+        List<UUID> userIds = Arrays.asList(snapshot.userIds());
+        int aliceIndex = userIds.indexOf(alice);
+        int bobIndex = userIds.indexOf(bob);
+        int carolIndex = userIds.indexOf(carol);
+
+        int[] aliceNeighbors = {bobIndex, carolIndex};
+        Arrays.sort(aliceNeighbors);
+        assertArrayEquals(aliceNeighbors, snapshot.neighbors()[aliceIndex]);
+        assertArrayEquals(new int[]{bobIndex}, snapshot.friends()[aliceIndex]);
+        assertArrayEquals(new int[0], snapshot.friends()[carolIndex]);
+    }
+}
@@ -0,0 +1,79 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.friendship.application.FriendshipPairMigration.LegacyFriendship;
+import com.eric.securechat.friendship.domain.FriendshipDirection;
+import com.eric.securechat.friendship.domain.FriendshipId;
+import com.eric.securechat.friendship.domain.FriendshipStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for collapsing legacy friendship rows into canonical pairs.
+ */
+class FriendshipPairMigrationTests {
+
+    // Sorts first as unsigned bytes, last as a signed long
+    private static final UUID LOW = new UUID(0x0100000000000000L, 0);
+    private static final UUID HIGH = new UUID(0x8000000000000000L, 0);
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void keysPairsTheWayFriendshipIdDoes() {
+        assertTrue(FriendshipId.isLow(LOW, HIGH));
+
+        List<Object[]> rows = FriendshipPairMigration.toPairRows(List.of(
+                legacy(HIGH, LOW, FriendshipStatus.PENDING, T0)));
+
+        assertEquals(1, rows.size());
+        assertEquals(LOW, rows.get(0)[0]);
+        assertEquals(HIGH, rows.get(0)[1]);
+        assertEquals(FriendshipDirection.HIGH_TO_LOW.name(), rows.get(0)[2]);
+    }
+
+    @Test
+    void blockedWinsOverAcceptedWinsOverPending() {
+        List<Object[]> rows = FriendshipPairMigration.toPairRows(List.of(
+                legacy(LOW, HIGH, FriendshipStatus.PENDING, T0),
+                legacy(HIGH, LOW, FriendshipStatus.BLOCKED, T0.plusDays(1))));
+        assertEquals(1, rows.size());
+        assertEquals(FriendshipStatus.BLOCKED.name(), rows.get(0)[3]);
+        assertEquals(FriendshipDirection.HIGH_TO_LOW.name(), rows.get(0)[2]);
+
+        rows = FriendshipPairMigration.toPairRows(List.of(
+                legacy(HIGH, LOW, FriendshipStatus.ACCEPTED, T0),
+                legacy(LOW, HIGH, FriendshipStatus.PENDING, T0.minusDays(1))));
+        assertEquals(FriendshipStatus.ACCEPTED.name(), rows.get(0)[3]);
+    }
+
+    @Test
+    void olderRowWinsATie() {
+        List<Object[]> rows = FriendshipPairMigration.toPairRows(List.of(
+                legacy(HIGH, LOW, FriendshipStatus.PENDING, T0.plusHours(1)),
+                legacy(LOW, HIGH, FriendshipStatus.PENDING, T0)));
+
+        assertEquals(1, rows.size());
+        assertEquals(FriendshipDirection.LOW_TO_HIGH.name(), rows.get(0)[2]);
+        assertEquals(T0, rows.get(0)[5]);
+    }
+
+    @Test
+    void keepsDistinctPairsApart() {
+        UUID other = UUID.randomUUID();
+
+        List<Object[]> rows = FriendshipPairMigration.toPairRows(List.of(
+                legacy(LOW, HIGH, FriendshipStatus.ACCEPTED, T0),
+                legacy(other, LOW, FriendshipStatus.PENDING, T0)));
+
+        assertEquals(2, rows.size());
+    }
+
+    private static LegacyFriendship legacy(UUID requester, UUID addressee, FriendshipStatus status, LocalDateTime createdAt) {
+        return new LegacyFriendship(requester, addressee, status, requester, createdAt, createdAt);
+    }
+}
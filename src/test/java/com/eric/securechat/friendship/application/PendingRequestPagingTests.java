@@ -0,0 +1,89 @@
+package com.eric.securechat.friendship.application;
+
+import com.eric.securechat.common.ratelimit.RateLimiter;
+import com.eric.securechat.friendship.dto.FriendRequestViewDto;
+import com.eric.securechat.friendship.dto.PendingRequestPage;
+import com.eric.securechat.friendship.repository.FriendshipRepository;
+import com.eric.securechat.message.repository.MessageRepository;
+import com.eric.securechat.user.application.UserIdentityCache;
+import com.eric.securechat.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for keyset paging of pending friend requests.
+ */
+class PendingRequestPagingTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 7, 21, 15, 0);
+
+    private final UserIdentityCache userIdentityCache = mock(UserIdentityCache.class);
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private final User alice = new User();
+    private FriendshipServiceImpl friendshipService;
+
+    @BeforeEach
+    void setUp() {
+        alice.setId(UUID.randomUUID());
+        when(userIdentityCache.reference(eq("alice"), any())).thenReturn(alice);
+        friendshipService = new FriendshipServiceImpl(userIdentityCache, friendshipRepository, mock(MessageRepository.class),
+                mock(FriendshipGraph.class), mock(FriendListCache.class), mock(FriendListChangeLog.class),
+                mock(FriendSuggestionIndex.class), mock(FriendshipBulkOperations.class), mock(RateLimiter.class),
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void mergesBothIndexRangesNewestFirstAndResumesAfterTheLastRequest() {
+        FriendRequestViewDto newest = request("carol", 3);
+        FriendRequestViewDto middle = request("bob", 2);
+        FriendRequestViewDto oldest = request("dave", 1);
+        when(friendshipRepository.findPendingSentToHigh(eq(alice.getId()), any(), any(), any())).thenReturn(List.of(newest, oldest));
+        when(friendshipRepository.findPendingSentToLow(eq(alice.getId()), any(), any(), any())).thenReturn(List.of(middle));
+
+        PendingRequestPage first = friendshipService.getPendingRequests("alice", null, 2);
+
+        assertEquals(List.of(newest, middle), first.requests());
+        assertNotNull(first.nextCursor());
+
+        friendshipService.getPendingRequests("alice", first.nextCursor(), 2);
+
+        verify(friendshipRepository).findPendingSentToHigh(eq(alice.getId()), eq(middle.sentAt()), eq(middle.requesterId()), any());
+        verify(friendshipRepository).findPendingSentToLow(eq(alice.getId()), eq(middle.sentAt()), eq(middle.requesterId()), any());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(friendshipRepository.findPendingSentToHigh(any(), any(), any(), any())).thenReturn(List.of(request("bob", 1)));
+        when(friendshipRepository.findPendingSentToLow(any(), any(), any(), any())).thenReturn(List.of());
+
+        PendingRequestPage page = friendshipService.getPendingRequests("alice", null, 2);
+
+        assertEquals(1, page.requests().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> friendshipService.getPendingRequests("alice", "not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> friendshipService.getPendingRequests("alice", "MjAyNXxub3QtYS11dWlk", 10));
+    }
+
+    private static FriendRequestViewDto request(String username, int minutesAfterNow) {
+        return new FriendRequestViewDto(UUID.randomUUID(), username, username, NOW.plusMinutes(minutesAfterNow));
+    }
+}
@@ -0,0 +1,123 @@
+package com.eric.securechat.message.application;
+
+import com.eric.securechat.message.domain.ConversationPurge;
+import com.eric.securechat.message.repository.ConversationPurgeRepository;
+import com.eric.securechat.message.repository.MessageRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for ConversationPurger scheduling, its cut-off time and retries of recorded purges.
+ */
+class ConversationPurgerTests {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final ConversationPurgeRepository purgeRepository = mock(ConversationPurgeRepository.class);
+    private final ConversationPurger purger = new ConversationPurger(messageRepository, purgeRepository,
+            mock(PlatformTransactionManager.class), Duration.ofMinutes(5));
+
+    ConversationPurgerTests() {
+        when(purgeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ConversationPurge> purges = invocation.getArgument(0);
+            purges.forEach(purge -> ReflectionTestUtils.setField(purge, "id", UUID.randomUUID()));
+            return purges;
+        });
+    }
+
+    @Test
+    void recordsThePurgeAndDeletesOnlyMessagesSentUpToTheCommit() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        Instant committedAfter;
+        ConversationPurge recorded;
+        try {
+            purger.purgeAfterCommit(alice, List.of(bob));
+            recorded = savedPurges().get(0);
+            verifyNoInteractions(messageRepository);
+
+            committedAfter = Instant.now();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Instant committedBefore = Instant.now();
+        purger.shutdown();
+
+        ArgumentCaptor<Instant> upTo = ArgumentCaptor.forClass(Instant.class);
+        verify(messageRepository).deleteConversationUpTo(eq(alice), eq(bob), upTo.capture());
+        assertFalse(upTo.getValue().isBefore(committedAfter));
+        assertFalse(upTo.getValue().isAfter(committedBefore));
+        verify(purgeRepository).deleteById(recorded.getId());
+    }
+
+    @Test
+    void rolledBackChangeDeletesNothing() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            purger.purgeAfterCommit(alice, List.of(bob));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        purger.shutdown();
+
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void keepsTheRecordOfAFailedPurgeAndGoesOn() throws InterruptedException {
+        UUID carol = UUID.randomUUID();
+        doThrow(new IllegalStateException("boom"))
+                .when(messageRepository).deleteConversationUpTo(eq(alice), eq(bob), any());
+
+        purger.purgeAfterCommit(alice, List.of(bob, carol));
+        purger.shutdown();
+
+        List<ConversationPurge> recorded = savedPurges();
+        verify(messageRepository).deleteConversationUpTo(eq(alice), eq(carol), any());
+        verify(purgeRepository, never()).deleteById(recorded.get(0).getId());
+        verify(purgeRepository).deleteById(recorded.get(1).getId());
+    }
+
+    @Test
+    void retriesRecordedPurgesUpToTheirRecordedTime() {
+        Instant recordedAt = Instant.now().minus(Duration.ofHours(1));
+        ConversationPurge pending = new ConversationPurge(alice, bob, recordedAt);
+        ReflectionTestUtils.setField(pending, "id", UUID.randomUUID());
+        when(purgeRepository.findByUpToBeforeOrderByUpTo(any())).thenReturn(List.of(pending));
+
+        purger.retryPending();
+
+        verify(messageRepository).deleteConversationUpTo(alice, bob, recordedAt);
+        verify(purgeRepository).deleteById(pending.getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ConversationPurge> savedPurges() {
+        ArgumentCaptor<List<ConversationPurge>> purges = ArgumentCaptor.forClass(List.class);
+        verify(purgeRepository).saveAll(purges.capture());
+        return purges.getValue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.user.domain.UserPublicKeys;
+import com.eric.securechat.user.dto.PublicKeyEntryDto;
+import com.eric.securechat.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for PublicKeyDirectory caching and its interaction with key changes.
+ */
+class PublicKeyDirectoryTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PublicKeyDirectory directory = new PublicKeyDirectory(userRepository, 100, Duration.ofMinutes(5));
+
+    @Test
+    void loadsMissesOnceAndServesThemFromCache() {
+        when(userRepository.findPublicKeysByUsernameIn(anyCollection()))
+                .thenReturn(List.of(new UserPublicKeys("alice", "x-old", "e-old")));
+
+        directory.findAll(List.of("alice", "mallory"));
+        Map<String, PublicKeyEntryDto> found = directory.findAll(List.of("alice"));
+
+        assertEquals("x-old", found.get("alice").x25519PublicKey());
+        verify(userRepository, times(1)).findPublicKeysByUsernameIn(anyCollection());
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        when(userRepository.findPublicKeysByUsernameIn(anyCollection())).thenReturn(List.of());
+
+        assertTrue(directory.find("mallory").isEmpty());
+        assertTrue(directory.find("mallory").isEmpty());
+
+        verify(userRepository, times(2)).findPublicKeysByUsernameIn(anyCollection());
+    }
+
+    @Test
+    void keysReadBeforeAChangeAreNotCachedAfterIt() {
+        when(userRepository.findPublicKeysByUsernameIn(anyCollection())).thenAnswer(invocation -> {
+            // The upload commits and evicts alice while the old keys are being read
+            directory.onUserChanged(new UserChangedEvent(UUID.randomUUID(), "alice"));
+            return List.of(new UserPublicKeys("alice", "x-old", "e-old"));
+        }).thenReturn(List.of(new UserPublicKeys("alice", "x-new", "e-new")));
+
+        assertEquals("x-old", directory.find("alice").orElseThrow().x25519PublicKey());
+        assertEquals("x-new", directory.find("alice").orElseThrow().x25519PublicKey());
+    }
+
+    @Test
+    void changedUserIsReloaded() {
+        when(userRepository.findPublicKeysByUsernameIn(anyCollection()))
+                .thenReturn(List.of(new UserPublicKeys("alice", "x-old", "e-old")))
+                .thenReturn(List.of(new UserPublicKeys("alice", "x-new", "e-new")));
+
+        PublicKeyEntryDto before = directory.find("alice").orElseThrow();
+        directory.onUserChanged(new UserChangedEvent(UUID.randomUUID(), "alice"));
+        PublicKeyEntryDto after = directory.find("alice").orElseThrow();
+
+        assertEquals("x-new", after.x25519PublicKey());
+        assertNotEquals(before.version(), after.version());
+    }
+}
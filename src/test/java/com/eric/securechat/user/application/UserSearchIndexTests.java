@@ -0,0 +1,78 @@
+package com.eric.securechat.user.application;
+
+import com.eric.securechat.user.dto.UserDto;
+import com.eric.securechat.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the user search trie: prefix matches, fuzzy matches and registrations.
+ */
+class UserSearchIndexTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findAllProfiles()).thenReturn(List.of(
+                user("alice", "Alice Liddell"),
+                user("alicia", "Alicia"),
+                user("bob", "Robert Smith"),
+                user("malice", "Mal")));
+        index = new UserSearchIndex(userRepository, new SimpleMeterRegistry());
+        index.load();
+    }
+
+    @Test
+    void matchesUsernameNicknameAndNicknameWordPrefixes() {
+        assertEquals(List.of("alice", "alicia"), usernames(index.search("al", 10, null)));
+        assertEquals(List.of("bob"), usernames(index.search("rob", 10, null)));
+        assertEquals(List.of("bob"), usernames(index.search("SMI", 10, null)));
+        assertEquals(List.of("alice"), usernames(index.search("liddell", 10, null)));
+    }
+
+    @Test
+    void exactPrefixMatchesComeBeforeFuzzyOnes() {
+        // "alic" misses "malice" as a prefix but is one deletion from "malic"
+        List<String> found = usernames(index.search("alic", 10, null));
+
+        assertEquals(List.of("alice", "alicia", "malice"), found);
+    }
+
+    @Test
+    void shortQueriesAreNotFuzzy() {
+        assertTrue(index.search("xl", 10, null).isEmpty());
+        assertEquals(List.of("alice", "alicia"), usernames(index.search("xlic", 10, null)));
+    }
+
+    @Test
+    void honoursLimitAndExcludedUser() {
+        assertEquals(List.of("alice"), usernames(index.search("al", 1, null)));
+        assertEquals(List.of("alicia"), usernames(index.search("al", 10, "alice")));
+    }
+
+    @Test
+    void findsUsersRegisteredAfterLoading() {
+        index.onUserRegistered(new UserRegisteredEvent(UUID.randomUUID(), "zed", "Zed"));
+
+        assertEquals(List.of("zed"), usernames(index.search("ze", 10, null)));
+    }
+
+    private static UserDto user(String username, String nickname) {
+        return new UserDto(UUID.randomUUID(), username, nickname);
+    }
+
+    private static List<String> usernames(List<UserDto> users) {
+        return users.stream().map(UserDto::getUsername).toList();
+    }
+}